@@ -0,0 +1,204 @@
+package com.obby.demo.content;
+
+import com.google.common.hash.Hashing;
+import com.google.gson.Gson;
+import com.obby.demo.crawler.ArchiveStore;
+import com.obby.demo.crawler.CrawlerProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converts the question contents, which are HTML, and the solution contents, which are Markdown, to sanitized
+ * Markdown with their code blocks and images, so that no consumer has to.
+ * <p>
+ * While crawling, contents are converted on a fork-join pool as they are fetched. Contents are queued up to
+ * {@code crawler.content.buffer-size}, beyond which {@link #submit(String, Format)} blocks the caller until the pool
+ * catches up, as the queued contents are held in memory. Converted contents are stored in
+ * the {@link ArchiveStore} under {@code content/v<version>/<sha256>.json}, addressed by the SHA-256 of the raw
+ * content, so an unchanged content is never converted again, in this crawl or the next.
+ */
+@Component
+public class ContentConverter implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(ContentConverter.class);
+
+    /**
+     * Version of the conversion, part of the archive keys, to be raised when its output changes.
+     */
+    private static final int VERSION = 3;
+
+    private final Gson gson = new Gson();
+
+    private final boolean enabled;
+
+    private final URI baseUri;
+
+    private final ArchiveStore archives;
+
+    private final ForkJoinPool pool;
+
+    private final int capacity;
+
+    private final Semaphore buffer;
+
+    private final Counter converted;
+
+    private final Counter cached;
+
+    private final Counter failed;
+
+    public ContentConverter(CrawlerProperties properties, ArchiveStore archives, MeterRegistry registry) {
+        int parallelism = properties.getContent().getParallelism();
+
+        this.enabled = properties.getContent().isEnabled();
+        this.baseUri = URI.create(properties.getBaseUrl().replaceAll("/+$", "") + "/");
+        this.archives = archives;
+        this.pool = new ForkJoinPool(
+                parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(),
+                forkJoinPool -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(
+                            forkJoinPool
+                    );
+
+                    thread.setName("content-" + thread.getPoolIndex());
+
+                    return thread;
+                },
+                null,
+                true
+        );
+        this.capacity = (int) Math.min(Integer.MAX_VALUE, properties.getContent().getBufferSize().toBytes());
+        this.buffer = new Semaphore(capacity);
+        this.converted = counter(registry, "converted");
+        this.cached = counter(registry, "cached");
+        this.failed = counter(registry, "failed");
+    }
+
+    /**
+     * Convert a content on the pool, unless converted before or disabled while crawling, blocking while the queued
+     * contents exceed the buffer size.
+     * <p>
+     * A content that fails to convert is only logged, as it is converted again once requested.
+     *
+     * @param content raw content, nothing to convert if null
+     * @param format  format of the raw content
+     * @throws InterruptedIOException if interrupted while waiting for buffer space
+     */
+    public void submit(String content, Format format) throws InterruptedIOException {
+        if (!enabled || content == null || content.isEmpty()) {
+            return;
+        }
+
+        int permits = (int) Math.max(1, Math.min(2L * content.length(), capacity));
+
+        try {
+            buffer.acquire(permits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new InterruptedIOException("Interrupted while waiting to convert a content.");
+        }
+
+        try {
+            pool.execute(() -> {
+                try {
+                    convert(content, format);
+                } catch (Exception e) {
+                    failed.increment();
+                    logger.warn("Content conversion failed.", e);
+                } finally {
+                    buffer.release(permits);
+                }
+            });
+        } catch (RuntimeException e) {
+            buffer.release(permits);
+
+            throw e;
+        }
+    }
+
+    /**
+     * Convert a content, reading it from the archive if converted before.
+     *
+     * @param content raw content
+     * @param format  format of the raw content
+     * @return converted content, null if the content is null
+     * @throws IOException exception
+     */
+    public ConvertedContent convert(String content, Format format) throws IOException {
+        if (content == null) {
+            return null;
+        }
+
+        String key = "content/v" + VERSION + "/" + Hashing.sha256()
+                .hashString(format + "\n" + content, StandardCharsets.UTF_8) + ".json";
+
+        if (archives.contains(key)) {
+            try (Reader reader = new InputStreamReader(archives.open(key), StandardCharsets.UTF_8)) {
+                ConvertedContent convertedContent = gson.fromJson(reader, ConvertedContent.class);
+
+                cached.increment();
+
+                return convertedContent;
+            }
+        }
+
+        ConvertedContent convertedContent = format == Format.HTML
+                ? MarkdownConverter.html(content, baseUri)
+                : MarkdownConverter.markdown(content, baseUri);
+
+        try (Writer writer = new OutputStreamWriter(archives.create(key), StandardCharsets.UTF_8)) {
+            gson.toJson(convertedContent, writer);
+        }
+
+        converted.increment();
+
+        return convertedContent;
+    }
+
+    /**
+     * Wait for the contents submitted to be converted and stored.
+     */
+    public void awaitConversions() {
+        pool.awaitQuiescence(Long.MAX_VALUE, TimeUnit.DAYS);
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private static Counter counter(MeterRegistry registry, String outcome) {
+        return Counter.builder("crawler.content")
+                .description("Contents converted to Markdown")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    public enum Format {
+        /**
+         * HTML, such as the contents of the questions.
+         */
+        HTML,
+        /**
+         * Markdown, such as the contents of the solutions.
+         */
+        MARKDOWN
+    }
+}
@@ -0,0 +1,27 @@
+package com.obby.demo.content;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Question or solution content converted to sanitized Markdown, with its code blocks and images.
+ */
+@Data
+public class ConvertedContent {
+    private String markdown;
+    private List<CodeBlock> codeBlocks;
+    /**
+     * Absolute URLs of the images, in order of appearance.
+     */
+    private List<String> images;
+
+    @Data
+    public static class CodeBlock {
+        /**
+         * Language of the code block, null if not given.
+         */
+        private String lang;
+        private String code;
+    }
+}
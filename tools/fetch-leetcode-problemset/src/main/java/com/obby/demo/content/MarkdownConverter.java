@@ -0,0 +1,1200 @@
+package com.obby.demo.content;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Converts question contents from HTML to Markdown, and normalizes solution contents, which are Markdown already.
+ * <p>
+ * Both are sanitized on the way: scripts, styles, frames, embedded objects and forms are dropped with what they
+ * contain, links keep only http, https and mailto URLs, and images only http, https and data URLs. Image URLs are
+ * made absolute against the LeetCode base URL and upgraded to https. Code blocks are collected as they are met.
+ */
+final class MarkdownConverter {
+    private static final Set<String> DROPPED = Set.of(
+            "script", "style", "iframe", "frame", "frameset", "object", "embed", "applet", "form", "input", "button",
+            "select", "textarea", "noscript", "template", "svg"
+    );
+
+    private static final Set<String> VOID = Set.of(
+            "area", "base", "br", "col", "embed", "hr", "img", "input", "link", "meta", "param", "source", "track", "wbr"
+    );
+
+    private static final Map<String, Integer> ENTITIES = Map.ofEntries(
+            Map.entry("nbsp", (int) ' '),
+            Map.entry("lt", (int) '<'),
+            Map.entry("gt", (int) '>'),
+            Map.entry("amp", (int) '&'),
+            Map.entry("quot", (int) '"'),
+            Map.entry("apos", (int) '\''),
+            Map.entry("le", 0x2264),
+            Map.entry("ge", 0x2265),
+            Map.entry("ne", 0x2260),
+            Map.entry("times", 0xd7),
+            Map.entry("divide", 0xf7),
+            Map.entry("minus", 0x2212),
+            Map.entry("plusmn", 0xb1),
+            Map.entry("middot", 0xb7),
+            Map.entry("hellip", 0x2026),
+            Map.entry("ndash", 0x2013),
+            Map.entry("mdash", 0x2014),
+            Map.entry("lsquo", 0x2018),
+            Map.entry("rsquo", 0x2019),
+            Map.entry("ldquo", 0x201c),
+            Map.entry("rdquo", 0x201d),
+            Map.entry("larr", 0x2190),
+            Map.entry("rarr", 0x2192),
+            Map.entry("infin", 0x221e)
+    );
+
+    private static final Pattern ATTRIBUTE = Pattern.compile(
+            "([a-zA-Z_:][-a-zA-Z0-9_:.]*)\\s*=\\s*(?:\"([^\"]*)\"|'([^']*)'|([^\\s\"'>]+))"
+    );
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final Pattern ORDERED_MARKER = Pattern.compile("^\\d+[.)]");
+
+    private static final Pattern FENCE = Pattern.compile("^ {0,3}(`{3,}|~{3,})\\s*([^`\\s]*).*$");
+
+    /**
+     * Raw HTML kept in Markdown, written again without attributes, except for the URL of links. Other tags are
+     * dropped, and the elements of {@link #DROPPED} with what they contain.
+     */
+    private static final Set<String> ALLOWED = Set.of(
+            "a", "b", "strong", "i", "em", "u", "s", "del", "code", "kbd", "sup", "sub", "br", "p", "div", "span",
+            "blockquote", "ul", "ol", "li", "table", "thead", "tbody", "tr", "td", "th", "h1", "h2", "h3", "h4", "h5",
+            "h6", "hr", "pre", "details", "summary"
+    );
+
+    /**
+     * Elements other than those of {@link #ALLOWED}, {@link #DROPPED} and {@link #VOID} whose tags are dropped from
+     * Markdown. A {@code <} before any other name is text, such as {@code i<n} or {@code $x<y$}.
+     */
+    private static final Set<String> OTHER = Set.of(
+            "abbr", "address", "article", "aside", "audio", "bdi", "bdo", "big", "body", "caption", "center", "cite",
+            "colgroup", "data", "dd", "dfn", "dialog", "dl", "dt", "figcaption", "figure", "font", "footer", "head",
+            "header", "html", "ins", "label", "legend", "main", "mark", "math", "nav", "picture", "q", "samp",
+            "section", "small", "strike", "tfoot", "time", "title", "tt", "var", "video"
+    );
+
+    /**
+     * CommonMark open or closing tag, the only raw HTML recognized in Markdown besides comments and autolinks.
+     */
+    private static final Pattern TAG = Pattern.compile(
+            "<(?:/([a-zA-Z][a-zA-Z0-9-]*)\\s*|([a-zA-Z][a-zA-Z0-9-]*)((?:\\s+[a-zA-Z_:][a-zA-Z0-9_.:-]*"
+                    + "(?:\\s*=\\s*(?:[^\\s\"'=<>`]+|'[^']*'|\"[^\"]*\"))?)*+)\\s*(/?))>"
+    );
+
+    /**
+     * Indentation of a line of an indented code block.
+     */
+    private static final Pattern INDENT = Pattern.compile("^(?: {0,3}\\t| {4})");
+
+    private static final Pattern LIST_ITEM = Pattern.compile("^ {0,3}(?:[-+*]|\\d+[.)])(?:\\s|$)");
+
+    /**
+     * Destination of a Markdown link or image, which may hold balanced parentheses.
+     */
+    private static final String DESTINATION = "((?:[^()\\s>]|\\([^()\\s]*\\))*)";
+
+    /**
+     * Slides of LeetCode solutions, {@code <![first.png,second.png](first-url,second-url)>}.
+     */
+    private static final Pattern SLIDES = Pattern.compile("<!\\[([^\\]]*)]\\(([^)]*)\\)>");
+
+    private static final Pattern IMAGE = Pattern.compile(
+            "!\\[([^\\]]*)]\\(\\s*<?" + DESTINATION + ">?(?:\\s+\"[^\"]*\")?\\s*\\)"
+    );
+
+    /**
+     * Inline link, whose text may hold brackets one level deep, such as an image.
+     */
+    private static final Pattern LINK = Pattern.compile(
+            "\\[((?:[^\\[\\]]|\\[[^\\[\\]]*])*)]\\(\\s*<?" + DESTINATION + ">?((?:\\s+\"[^\"]*\")?)\\s*\\)"
+    );
+
+    private static final Pattern DEFINITION = Pattern.compile("(?m)^( {0,3}\\[[^\\]]+]:)[ \\t]*<?([^\\s>]*)>?(.*)$");
+
+    private static final Pattern AUTOLINK = Pattern.compile(
+            "<([a-zA-Z][a-zA-Z0-9+.-]{1,31}:[^\\s<>]*|[^\\s<>@:]+@[^\\s<>@]+)>"
+    );
+
+    private static final Pattern DATA_IMAGE = Pattern.compile("(?i)^data:image/(?:png|jpeg|gif|webp)[;,]");
+
+    private static final Pattern BLANK_LINES = Pattern.compile("\\n{3,}");
+
+    private final URI baseUri;
+
+    private final StringBuilder out = new StringBuilder();
+
+    /**
+     * Text not written yet, as it is decoded and collapsed as a whole.
+     */
+    private final StringBuilder text = new StringBuilder();
+
+    /**
+     * Inline markers opened but not written yet, so they are only written around text, and never followed by a
+     * space.
+     */
+    private final StringBuilder pending = new StringBuilder();
+
+    private final List<ConvertedContent.CodeBlock> codeBlocks = new ArrayList<>();
+
+    private final List<String> images = new ArrayList<>();
+
+    /**
+     * Next number of each open list, -1 for a bulleted one.
+     */
+    private final Deque<int[]> lists = new ArrayDeque<>();
+
+    /**
+     * URL of each open link, empty if dropped.
+     */
+    private final Deque<String> links = new ArrayDeque<>();
+
+    private final StringBuilder preText = new StringBuilder();
+
+    private int pre;
+
+    private String preLang;
+
+    private int code;
+
+    private String skipTag;
+
+    private int skipDepth;
+
+    private boolean table;
+
+    private int rows;
+
+    private int cells;
+
+    /**
+     * End of the last list item marker, where a block starts without a break.
+     */
+    private int itemEnd = -1;
+
+    /**
+     * Links written as raw HTML and not closed yet.
+     */
+    private int openLinks;
+
+    private MarkdownConverter(URI baseUri) {
+        this.baseUri = baseUri;
+    }
+
+    /**
+     * Convert HTML to Markdown.
+     *
+     * @param html    HTML
+     * @param baseUri URI relative image and link URLs are resolved against
+     * @return converted content
+     */
+    static ConvertedContent html(String html, URI baseUri) {
+        MarkdownConverter converter = new MarkdownConverter(baseUri);
+
+        converter.convertHtml(html);
+
+        return converter.result();
+    }
+
+    /**
+     * Sanitize and normalize Markdown, leaving its code blocks as they are.
+     *
+     * @param markdown Markdown
+     * @param baseUri  URI relative image and link URLs are resolved against
+     * @return converted content
+     */
+    static ConvertedContent markdown(String markdown, URI baseUri) {
+        MarkdownConverter converter = new MarkdownConverter(baseUri);
+
+        converter.convertMarkdown(markdown);
+
+        return converter.result();
+    }
+
+    private ConvertedContent result() {
+        ConvertedContent content = new ConvertedContent();
+
+        content.setMarkdown(BLANK_LINES.matcher(out).replaceAll("\n\n").strip());
+        content.setCodeBlocks(codeBlocks);
+        content.setImages(images);
+
+        return content;
+    }
+
+    private void convertHtml(String html) {
+        int length = html.length();
+
+        for (int i = 0; i < length; ) {
+            char c = html.charAt(i);
+
+            if (c == '<' && html.startsWith("<!--", i)) {
+                int end = html.indexOf("-->", i + 4);
+
+                i = end < 0 ? length : end + 3;
+                continue;
+            }
+
+            if (c == '<' && i + 1 < length && isTagStart(html.charAt(i + 1))) {
+                int end = tagEnd(html, i + 1);
+
+                if (end > 0) {
+                    tag(html.substring(i + 1, end));
+                    i = end + 1;
+                    continue;
+                }
+            }
+
+            if (skipDepth == 0) {
+                text.append(c);
+            }
+
+            i++;
+        }
+
+        flushText();
+
+        if (pre > 0) {
+            endPre();
+        }
+    }
+
+    private void tag(String body) {
+        if (body.startsWith("!") || body.startsWith("?")) {
+            return;
+        }
+
+        boolean closing = body.startsWith("/");
+        int end = closing ? 1 : 0;
+
+        while (end < body.length() && Character.isLetterOrDigit(body.charAt(end))) {
+            end++;
+        }
+
+        String name = body.substring(closing ? 1 : 0, end).toLowerCase(Locale.ROOT);
+        boolean selfClosing = body.endsWith("/") || VOID.contains(name);
+
+        if (skipDepth > 0) {
+            if (name.equals(skipTag) && !selfClosing) {
+                skipDepth += closing ? -1 : 1;
+            }
+
+            return;
+        }
+
+        flushText();
+
+        if (DROPPED.contains(name)) {
+            if (!closing && !selfClosing) {
+                skipTag = name;
+                skipDepth = 1;
+            }
+
+            return;
+        }
+
+        Map<String, String> attributes = closing ? Map.of() : attributes(body.substring(end));
+
+        // Everything in a code block is text, only line breaks are kept.
+        if (pre > 0) {
+            if (name.equals("pre")) {
+                pre += closing ? -1 : 1;
+
+                if (pre == 0) {
+                    endPre();
+                }
+            } else if (name.equals("br")) {
+                preText.append('\n');
+            } else if (name.equals("code") && !closing && preLang == null) {
+                preLang = language(attributes);
+            }
+
+            return;
+        }
+
+        if (closing) {
+            close(name);
+        } else {
+            open(name, attributes);
+        }
+    }
+
+    private void open(String name, Map<String, String> attributes) {
+        switch (name) {
+            case "p":
+            case "div":
+            case "section":
+            case "article":
+            case "blockquote":
+                block();
+                break;
+            case "h1":
+            case "h2":
+            case "h3":
+            case "h4":
+            case "h5":
+            case "h6":
+                block();
+                out.append("#".repeat(name.charAt(1) - '0')).append(' ');
+                break;
+            case "br":
+                lineBreak();
+                break;
+            case "hr":
+                block();
+                out.append("---");
+                block();
+                break;
+            case "strong":
+            case "b":
+                pending.append("**");
+                break;
+            case "em":
+            case "i":
+                pending.append('*');
+                break;
+            case "code":
+                pending.append('`');
+                code++;
+                break;
+            case "sup":
+            case "sub":
+                // Code spans hold no HTML, so exponents are written as in code.
+                pending.append(code > 0 ? marker(name) : "<" + name + ">");
+                break;
+            case "a": {
+                String href = linkUrl(attributes.get("href"));
+
+                links.push(href == null ? "" : href);
+
+                if (href != null) {
+                    pending.append('[');
+                }
+
+                break;
+            }
+            case "img":
+                image(attributes);
+                break;
+            case "ul":
+            case "ol": {
+                int start = 1;
+
+                try {
+                    start = Integer.parseInt(attributes.getOrDefault("start", "1").trim());
+                } catch (NumberFormatException e) {
+                    // Numbered from 1.
+                }
+
+                if (lists.isEmpty()) {
+                    block();
+                } else {
+                    newline();
+                }
+
+                lists.push(new int[]{name.equals("ol") ? Math.max(start, 0) : -1});
+                break;
+            }
+            case "li": {
+                int[] list = lists.peek();
+
+                newline();
+                out.append("    ".repeat(Math.max(lists.size() - 1, 0)));
+                out.append(list == null || list[0] < 0 ? "- " : list[0]++ + ". ");
+                itemEnd = out.length();
+                break;
+            }
+            case "pre":
+                block();
+                pending.setLength(0);
+                pre = 1;
+                preText.setLength(0);
+                preLang = language(attributes);
+                break;
+            case "table":
+                block();
+                table = true;
+                rows = 0;
+                break;
+            case "tr":
+                if (table) {
+                    out.append('\n').append('|');
+                    cells = 0;
+                }
+
+                break;
+            case "td":
+            case "th":
+                if (table) {
+                    out.append(' ');
+                    cells++;
+                }
+
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void close(String name) {
+        switch (name) {
+            case "p":
+            case "div":
+            case "section":
+            case "article":
+            case "blockquote":
+            case "h1":
+            case "h2":
+            case "h3":
+            case "h4":
+            case "h5":
+            case "h6":
+                block();
+                break;
+            case "strong":
+            case "b":
+                closeInline("**", "**");
+                break;
+            case "em":
+            case "i":
+                closeInline("*", "*");
+                break;
+            case "code":
+                closeInline("`", "`");
+                code = Math.max(code - 1, 0);
+                break;
+            case "sup":
+            case "sub":
+                if (code > 0) {
+                    closeInline(marker(name), "");
+                } else {
+                    closeInline("<" + name + ">", "</" + name + ">");
+                }
+
+                break;
+            case "a": {
+                String href = links.isEmpty() ? "" : links.pop();
+
+                if (!href.isEmpty()) {
+                    closeInline("[", "](" + href + ")");
+                }
+
+                break;
+            }
+            case "ul":
+            case "ol":
+                lists.poll();
+
+                if (lists.isEmpty()) {
+                    block();
+                } else {
+                    newline();
+                }
+
+                break;
+            case "li":
+                newline();
+                break;
+            case "table":
+                table = false;
+                block();
+                break;
+            case "tr":
+                // The first row is the header of a Markdown table.
+                if (table && rows++ == 0) {
+                    out.append('\n').append('|').append(" --- |".repeat(Math.max(cells, 1)));
+                }
+
+                break;
+            case "td":
+            case "th":
+                if (table) {
+                    trimTrailingSpaces();
+                    out.append(" |");
+                }
+
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void flushText() {
+        if (text.length() == 0) {
+            return;
+        }
+
+        String decoded = decode(text);
+
+        text.setLength(0);
+
+        if (pre > 0) {
+            preText.append(decoded);
+
+            return;
+        }
+
+        String collapsed = WHITESPACE.matcher(decoded).replaceAll(" ");
+
+        if (collapsed.isBlank()) {
+            if (!collapsed.isEmpty() && !atLineStart() && !endsWith(" ")) {
+                out.append(' ');
+            }
+
+            return;
+        }
+
+        if (collapsed.startsWith(" ") && !atLineStart() && !endsWith(" ")) {
+            out.append(' ');
+        }
+
+        boolean lineStart = atLineStart() && pending.length() == 0;
+
+        out.append(pending);
+        pending.setLength(0);
+        out.append(code > 0 ? collapsed.strip() : escape(collapsed.strip(), lineStart));
+
+        if (collapsed.endsWith(" ")) {
+            out.append(' ');
+        }
+    }
+
+    private void closeInline(String open, String close) {
+        // An element without text is left out.
+        if (pending.length() >= open.length() && pending.lastIndexOf(open) == pending.length() - open.length()) {
+            pending.setLength(pending.length() - open.length());
+
+            return;
+        }
+
+        boolean space = endsWith(" ");
+
+        trimTrailingSpaces();
+        out.append(close);
+
+        if (space) {
+            out.append(' ');
+        }
+    }
+
+    private void image(Map<String, String> attributes) {
+        String src = imageUrl(attributes.get("src"));
+
+        if (src == null) {
+            return;
+        }
+
+        out.append(pending);
+        pending.setLength(0);
+        out.append("![")
+                .append(escape(WHITESPACE.matcher(attributes.getOrDefault("alt", "")).replaceAll(" ").strip(), false))
+                .append("](")
+                .append(src)
+                .append(')');
+        images.add(src);
+    }
+
+    private void endPre() {
+        String code = preText.toString().replaceFirst("^\\r?\\n", "").stripTrailing();
+        String fence = fence(code);
+
+        pre = 0;
+        block();
+        out.append(fence).append(preLang == null ? "" : preLang).append('\n').append(code).append('\n').append(fence);
+        block();
+        codeBlock(preLang, code);
+    }
+
+    private void block() {
+        if (table) {
+            if (!atLineStart() && !endsWith(" ")) {
+                out.append(' ');
+            }
+
+            return;
+        }
+
+        // A paragraph in a list item goes on, indented, on the next line.
+        if (!lists.isEmpty()) {
+            if (out.length() != itemEnd) {
+                newline();
+                out.append("  ".repeat(lists.size()));
+                itemEnd = out.length();
+            }
+
+            return;
+        }
+
+        trimTrailingSpaces();
+
+        if (out.length() == 0) {
+            return;
+        }
+
+        while (!endsWith("\n\n")) {
+            out.append('\n');
+        }
+    }
+
+    private void newline() {
+        if (table) {
+            block();
+
+            return;
+        }
+
+        trimTrailingSpaces();
+
+        if (out.length() > 0 && !endsWith("\n")) {
+            out.append('\n');
+        }
+    }
+
+    private void lineBreak() {
+        if (table) {
+            block();
+        } else if (!atLineStart()) {
+            trimTrailingSpaces();
+            out.append("  \n");
+        }
+    }
+
+    private void convertMarkdown(String markdown) {
+        String[] lines = markdown.replace("\r\n", "\n").replace('\r', '\n').split("\n", -1);
+        StringBuilder prose = new StringBuilder();
+        StringBuilder code = new StringBuilder();
+        Pattern closingFence = null;
+        String fence = null;
+        String lang = null;
+
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i];
+
+            if (fence == null) {
+                Matcher matcher = FENCE.matcher(line);
+
+                if (INDENT.matcher(line).find() && !line.isBlank() && startsIndentedCode(prose)) {
+                    out.append(sanitize(prose));
+                    prose.setLength(0);
+                    i = indentedCode(lines, i);
+                } else if (matcher.matches()) {
+                    out.append(sanitize(prose));
+                    prose.setLength(0);
+                    fence = matcher.group(1);
+                    lang = matcher.group(2).isEmpty() ? null : matcher.group(2).toLowerCase(Locale.ROOT);
+                    closingFence = Pattern.compile(
+                            "^ {0,3}" + Pattern.quote(fence.substring(0, 1)) + "{" + fence.length() + ",}\\s*$"
+                    );
+                    code.setLength(0);
+                    out.append(line).append('\n');
+                } else {
+                    prose.append(line).append('\n');
+                }
+            } else {
+                out.append(line).append('\n');
+
+                if (closingFence.matcher(line).matches()) {
+                    codeBlock(lang, code.toString().stripTrailing());
+                    fence = null;
+                } else {
+                    code.append(line).append('\n');
+                }
+            }
+        }
+
+        // An unterminated code block runs to the end.
+        if (fence != null) {
+            codeBlock(lang, code.toString().stripTrailing());
+            out.append(fence).append('\n');
+        }
+
+        out.append(sanitize(prose));
+    }
+
+    /**
+     * Whether an indented line after the prose so far starts a code block: after a blank line, and outside list
+     * items, whose paragraphs are indented too.
+     */
+    private static boolean startsIndentedCode(CharSequence prose) {
+        String[] lines = prose.toString().split("\n", -1);
+
+        // The prose ends with a line break, so the last line is the empty string after it.
+        if (lines.length > 1 && !lines[lines.length - 2].isBlank()) {
+            return false;
+        }
+
+        for (int i = lines.length - 1; i >= 0; i--) {
+            if (!lines[i].isBlank()) {
+                return !INDENT.matcher(lines[i]).find() && !LIST_ITEM.matcher(lines[i]).find();
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Write the indented code block starting at a line as a fenced one, leaving its code as it is.
+     *
+     * @return index of the last line of the block
+     */
+    private int indentedCode(String[] lines, int start) {
+        StringBuilder code = new StringBuilder();
+        int last = start;
+
+        for (int i = start; i < lines.length && (lines[i].isBlank() || INDENT.matcher(lines[i]).find()); i++) {
+            if (!lines[i].isBlank()) {
+                last = i;
+            }
+        }
+
+        for (int i = start; i <= last; i++) {
+            code.append(INDENT.matcher(lines[i]).replaceFirst("")).append('\n');
+        }
+
+        String block = code.toString().stripTrailing();
+        String fence = fence(block);
+
+        codeBlock(null, block);
+        out.append(fence).append('\n').append(block).append('\n').append(fence).append('\n');
+
+        return last;
+    }
+
+    /**
+     * Sanitize Markdown outside code blocks, making images and links absolute.
+     * <p>
+     * Raw HTML goes through an allowlist rather than a blocklist: a {@code <} that does not start a tag of a known
+     * element, autolink or slides is escaped, and tags are written again from their name only.
+     */
+    private String sanitize(CharSequence prose) {
+        Matcher definitions = DEFINITION.matcher(prose);
+        StringBuilder defined = new StringBuilder();
+
+        // Link reference definitions are resolved like inline links, and dropped if unsafe.
+        while (definitions.find()) {
+            String href = linkUrl(definitions.group(2));
+
+            definitions.appendReplacement(defined, Matcher.quoteReplacement(href == null
+                    ? ""
+                    : definitions.group(1) + " " + href + definitions.group(3)));
+        }
+
+        definitions.appendTail(defined);
+
+        return inline(defined.toString());
+    }
+
+    private String inline(String text) {
+        StringBuilder sanitized = new StringBuilder(text.length());
+        int length = text.length();
+
+        for (int i = 0; i < length; ) {
+            char c = text.charAt(i);
+
+            if (c == '`') {
+                int end = codeSpanEnd(text, i);
+
+                sanitized.append(text, i, end);
+                i = end;
+            } else if (c == '\\' && i + 1 < length) {
+                sanitized.append(text, i, i + 2);
+                i += 2;
+            } else if (c == '<') {
+                i = html(text, i, sanitized);
+            } else if (c == '!' && lookingAt(IMAGE, text, i) != null) {
+                Matcher image = lookingAt(IMAGE, text, i);
+
+                appendImage(sanitized, image.group(1), image.group(2));
+                i = image.end();
+            } else if (c == '[' && lookingAt(LINK, text, i) != null) {
+                Matcher link = lookingAt(LINK, text, i);
+                String href = linkUrl(link.group(2));
+                String label = inline(link.group(1));
+
+                sanitized.append(href == null ? label : "[" + label + "](" + href + link.group(3) + ")");
+                i = link.end();
+            } else if (c == ']' && i + 1 < length && text.charAt(i + 1) == '(') {
+                // Brackets nested deeper than recognized above are not left to form a link unchecked.
+                sanitized.append("\\]");
+                i++;
+            } else {
+                sanitized.append(c);
+                i++;
+            }
+        }
+
+        return sanitized.toString();
+    }
+
+    /**
+     * Sanitize the raw HTML at a {@code <}.
+     *
+     * @return index after what was read
+     */
+    private int html(String text, int start, StringBuilder sanitized) {
+        Matcher slides = lookingAt(SLIDES, text, start);
+
+        if (slides != null) {
+            String[] names = slides.group(1).split(",");
+            String[] urls = slides.group(2).split(",");
+
+            for (int i = 0; i < urls.length; i++) {
+                appendImage(i > 0 ? sanitized.append("\n\n") : sanitized, i < names.length ? names[i] : "", urls[i]);
+            }
+
+            return slides.end();
+        }
+
+        if (text.startsWith("<!--", start)) {
+            int end = text.indexOf("-->", start + 4);
+
+            return end < 0 ? text.length() : end + 3;
+        }
+
+        Matcher autolink = lookingAt(AUTOLINK, text, start);
+
+        if (autolink != null) {
+            // Email addresses are linked with mailto.
+            String href = autolink.group(1).contains(":") ? linkUrl(autolink.group(1)) : autolink.group(1);
+
+            if (href != null) {
+                sanitized.append('<').append(href).append('>');
+            }
+
+            return autolink.end();
+        }
+
+        Matcher tag = lookingAt(TAG, text, start);
+        boolean closing = tag != null && tag.group(1) != null;
+        String name = tag == null ? "" : (closing ? tag.group(1) : tag.group(2)).toLowerCase(Locale.ROOT);
+
+        if (!ALLOWED.contains(name) && !DROPPED.contains(name) && !VOID.contains(name) && !OTHER.contains(name)) {
+            sanitized.append("&lt;");
+
+            return start + 1;
+        }
+
+        int end = tag.end();
+
+        if (DROPPED.contains(name)) {
+            if (closing || VOID.contains(name) || !tag.group(4).isEmpty()) {
+                return end;
+            }
+
+            // Like a browser, an element never closed runs to the end.
+            int close = indexOfClosing(text, name, end);
+
+            return close < 0 ? text.length() : close;
+        }
+
+        if (name.equals("img") && !closing) {
+            Map<String, String> attributes = attributes(tag.group(3));
+
+            appendImage(sanitized, escape(attributes.getOrDefault("alt", "").strip(), false), attributes.get("src"));
+        } else if (name.equals("a")) {
+            String href = closing ? null : linkUrl(attributes(tag.group(3)).get("href"));
+
+            if (closing && openLinks > 0) {
+                openLinks--;
+                sanitized.append("</a>");
+            } else if (href != null) {
+                openLinks++;
+                sanitized.append("<a href=\"").append(href.replace("&", "&amp;").replace("\"", "&quot;"))
+                        .append("\">");
+            }
+        } else if (ALLOWED.contains(name)) {
+            sanitized.append(closing ? "</" : "<").append(name).append('>');
+        }
+
+        return end;
+    }
+
+    private void appendImage(StringBuilder image, String alt, String url) {
+        String src = imageUrl(url);
+
+        if (src != null) {
+            image.append("![").append(alt.strip()).append("](").append(src).append(')');
+            images.add(src);
+        }
+    }
+
+    private void codeBlock(String lang, String code) {
+        ConvertedContent.CodeBlock block = new ConvertedContent.CodeBlock();
+
+        block.setLang(lang);
+        block.setCode(code);
+        codeBlocks.add(block);
+    }
+
+    private String imageUrl(String url) {
+        if (url != null && DATA_IMAGE.matcher(decode(url).strip()).find()) {
+            return markdownUrl(decode(url).strip());
+        }
+
+        String resolved = resolve(url);
+
+        if (resolved == null || resolved.startsWith("mailto:")) {
+            return null;
+        }
+
+        // Images are served over https as well.
+        return resolved.startsWith("http:") ? "https:" + resolved.substring(5) : resolved;
+    }
+
+    private String linkUrl(String url) {
+        return resolve(url);
+    }
+
+    /**
+     * Resolve a URL against the base URI, null if it has no http, https or mailto scheme.
+     * <p>
+     * Character references are decoded first, as a browser would, so a scheme cannot hide behind them.
+     */
+    private String resolve(String url) {
+        if (url == null || url.isBlank()) {
+            return null;
+        }
+
+        String trimmed = decode(url).strip();
+
+        try {
+            URI uri = trimmed.startsWith("//") ? URI.create("https:" + trimmed) : baseUri.resolve(markdownUrl(trimmed));
+            String scheme = uri.getScheme() == null ? "" : uri.getScheme().toLowerCase(Locale.ROOT);
+
+            if (!scheme.equals("http") && !scheme.equals("https") && !scheme.equals("mailto")) {
+                return null;
+            }
+
+            return uri.toString();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private boolean atLineStart() {
+        return out.length() == 0 || out.charAt(out.length() - 1) == '\n' || out.length() == itemEnd;
+    }
+
+    private boolean endsWith(String suffix) {
+        int length = out.length();
+
+        return length >= suffix.length() && out.substring(length - suffix.length()).equals(suffix);
+    }
+
+    private void trimTrailingSpaces() {
+        int length = out.length();
+
+        while (length > 0 && out.charAt(length - 1) == ' ' && length != itemEnd) {
+            length--;
+        }
+
+        out.setLength(length);
+    }
+
+    private String escape(String text, boolean lineStart) {
+        StringBuilder escaped = new StringBuilder(text.length() + 8);
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+
+            if ("\\`*_[]<".indexOf(c) >= 0 || (table && c == '|')) {
+                escaped.append('\\');
+            }
+
+            escaped.append(c);
+        }
+
+        // Text that would start a heading, quote or list item is escaped at the start of a line.
+        if (lineStart && escaped.length() > 0) {
+            if ("#>-+=".indexOf(escaped.charAt(0)) >= 0) {
+                escaped.insert(0, '\\');
+            } else {
+                Matcher marker = ORDERED_MARKER.matcher(escaped);
+
+                if (marker.find()) {
+                    escaped.insert(marker.end() - 1, '\\');
+                }
+            }
+        }
+
+        return escaped.toString();
+    }
+
+    private static String fence(String code) {
+        int longest = 0;
+        int run = 0;
+
+        for (int i = 0; i < code.length(); i++) {
+            run = code.charAt(i) == '`' ? run + 1 : 0;
+            longest = Math.max(longest, run);
+        }
+
+        return "`".repeat(Math.max(3, longest + 1));
+    }
+
+    private static String marker(String name) {
+        return name.equals("sup") ? "^" : "_";
+    }
+
+    private static String language(Map<String, String> attributes) {
+        for (String name : WHITESPACE.split(attributes.getOrDefault("class", ""))) {
+            if (name.startsWith("language-") || name.startsWith("lang-")) {
+                return name.substring(name.indexOf('-') + 1).toLowerCase(Locale.ROOT);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Escape the characters a Markdown link destination cannot hold.
+     */
+    private static String markdownUrl(String url) {
+        return url.replace(" ", "%20").replace("(", "%28").replace(")", "%29");
+    }
+
+    private static Map<String, String> attributes(String attributes) {
+        Map<String, String> values = new HashMap<>();
+        Matcher matcher = ATTRIBUTE.matcher(attributes);
+
+        while (matcher.find()) {
+            String value = matcher.group(2) != null
+                    ? matcher.group(2)
+                    : matcher.group(3) != null ? matcher.group(3) : matcher.group(4);
+
+            values.putIfAbsent(matcher.group(1).toLowerCase(Locale.ROOT), decode(value));
+        }
+
+        return values;
+    }
+
+    private static Matcher lookingAt(Pattern pattern, String text, int start) {
+        Matcher matcher = pattern.matcher(text).region(start, text.length());
+
+        return matcher.lookingAt() ? matcher : null;
+    }
+
+    /**
+     * End of the code span starting at a backtick run, or of the run if the span is not closed.
+     */
+    private static int codeSpanEnd(String text, int start) {
+        int run = start;
+
+        while (run < text.length() && text.charAt(run) == '`') {
+            run++;
+        }
+
+        String fence = text.substring(start, run);
+
+        for (int i = text.indexOf(fence, run); i >= 0; i = text.indexOf(fence, i + 1)) {
+            int end = i + fence.length();
+
+            if ((i == 0 || text.charAt(i - 1) != '`') && (end == text.length() || text.charAt(end) != '`')) {
+                return end;
+            }
+        }
+
+        return run;
+    }
+
+    /**
+     * Index after the closing tag of an element, -1 if not closed.
+     */
+    private static int indexOfClosing(String text, String name, int start) {
+        String closing = "</" + name;
+
+        for (int i = text.indexOf('<', start); i >= 0; i = text.indexOf('<', i + 1)) {
+            if (text.regionMatches(true, i, closing, 0, closing.length())) {
+                int end = text.indexOf('>', i);
+
+                return end < 0 ? text.length() : end + 1;
+            }
+        }
+
+        return -1;
+    }
+
+    private static int tagEnd(String html, int start) {
+        char quote = 0;
+
+        for (int i = start; i < html.length(); i++) {
+            char c = html.charAt(i);
+
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '>') {
+                return i;
+            } else if (c == '<') {
+                return -1;
+            }
+        }
+
+        return -1;
+    }
+
+    private static boolean isTagStart(char c) {
+        return c == '/' || c == '!' || Character.isLetter(c);
+    }
+
+    private static String decode(CharSequence text) {
+        StringBuilder decoded = new StringBuilder(text.length());
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+
+            if (c == '&') {
+                int end = i + 1;
+
+                while (end < text.length() && end - i <= 10 && text.charAt(end) != ';') {
+                    end++;
+                }
+
+                if (end < text.length() && text.charAt(end) == ';') {
+                    Integer codePoint = decodeEntity(text.subSequence(i + 1, end).toString());
+
+                    if (codePoint != null) {
+                        decoded.appendCodePoint(codePoint);
+                        i = end;
+                        continue;
+                    }
+                }
+            }
+
+            decoded.append(c);
+        }
+
+        return decoded.toString();
+    }
+
+    private static Integer decodeEntity(String entity) {
+        if (entity.startsWith("#")) {
+            try {
+                int codePoint = entity.startsWith("#x") || entity.startsWith("#X")
+                        ? Integer.parseInt(entity.substring(2), 16)
+                        : Integer.parseInt(entity.substring(1));
+
+                return Character.isValidCodePoint(codePoint) ? codePoint : null;
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        return ENTITIES.get(entity);
+    }
+}
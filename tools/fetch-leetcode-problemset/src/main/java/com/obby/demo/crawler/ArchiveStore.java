@@ -0,0 +1,49 @@
+package com.obby.demo.crawler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Stores the raw LeetCode responses by key, such as {@code questions/two-sum/question.json}.
+ * <p>
+ * Keys are relative paths, so the {@link FileArchiveStore} maps them to files under {@code storage/response/}.
+ */
+public interface ArchiveStore {
+
+    /**
+     * Open an archive for writing, replacing the archive under the key once the stream is closed.
+     *
+     * @param key archive key
+     * @return archive stream
+     * @throws IOException exception
+     */
+    OutputStream create(String key) throws IOException;
+
+    /**
+     * Open an archive for reading.
+     *
+     * @param key archive key
+     * @return archive stream
+     * @throws java.nio.file.NoSuchFileException if there is no archive under the key
+     * @throws IOException                       exception
+     */
+    InputStream open(String key) throws IOException;
+
+    boolean contains(String key) throws IOException;
+
+    void delete(String key) throws IOException;
+
+    /**
+     * Copy an archive to another key.
+     *
+     * @param source source archive key
+     * @param target target archive key
+     * @throws IOException exception
+     */
+    default void copy(String source, String target) throws IOException {
+        try (InputStream in = open(source); OutputStream out = create(target)) {
+            in.transferTo(out);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.obby.demo.crawler;
+
+/**
+ * Time and request limits of a crawl, from {@code crawler.budget}. Checked before a question is started, so the
+ * questions in progress are finished whatever the budget left.
+ */
+final class CrawlBudget {
+    private final CrawlerProperties.Budget properties;
+
+    private final RequestScheduler scheduler;
+
+    private final long startNanos;
+
+    private final long startRequests;
+
+    CrawlBudget(CrawlerProperties properties, RequestScheduler scheduler) {
+        this.properties = properties.getBudget();
+        this.scheduler = scheduler;
+        this.startNanos = System.nanoTime();
+        this.startRequests = scheduler.requests();
+    }
+
+    boolean isExhausted() {
+        if (!properties.getTime().isZero() && System.nanoTime() - startNanos >= properties.getTime().toNanos()) {
+            return true;
+        }
+
+        return properties.getRequests() > 0
+                && scheduler.requests() - startRequests >= properties.getRequests();
+    }
+}
@@ -0,0 +1,160 @@
+package com.obby.demo.crawler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only record of the progress of a crawl, so that an interrupted crawl resumes where it stopped.
+ * <p>
+ * Each line is an entry, {@code solution <question slug> <solution slug>} once a solution response is stored
+ * and {@code question <question slug>} once the question result is written. A question is only recorded after
+ * its result, so a question interrupted halfway is crawled again, reusing the solutions already recorded.
+ * The journal is removed when a crawl finishes without failures.
+ * <p>
+ * Entries are appended by the {@link DiskWriter} after the writes queued before them, so an entry is never
+ * recorded before the files it refers to are written.
+ */
+@Component
+public class CrawlJournal {
+    private static final Logger logger = LoggerFactory.getLogger(CrawlJournal.class);
+
+    private static final String QUESTION = "question";
+
+    private static final String SOLUTION = "solution";
+
+    private final Storage storage;
+
+    private final DiskWriter diskWriter;
+
+    private final Set<String> questions = ConcurrentHashMap.newKeySet();
+
+    private final Set<String> solutions = ConcurrentHashMap.newKeySet();
+
+    private BufferedWriter writer;
+
+    public CrawlJournal(Storage storage, DiskWriter diskWriter) {
+        this.storage = storage;
+        this.diskWriter = diskWriter;
+    }
+
+    /**
+     * Load the entries of an interrupted crawl and open the journal for appending.
+     *
+     * @return whether an interrupted crawl is resumed
+     * @throws Exception exception
+     */
+    public synchronized boolean open() throws Exception {
+        Path path = storage.basePath("journal.log");
+        boolean resumed = Files.exists(path);
+
+        questions.clear();
+        solutions.clear();
+
+        if (resumed) {
+            List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+
+            for (String line : lines) {
+                String[] entry = line.split("\t");
+
+                // The last line may be torn by a crash while it was appended.
+                if (entry.length == 2 && QUESTION.equals(entry[0])) {
+                    questions.add(entry[1]);
+                } else if (entry.length == 3 && SOLUTION.equals(entry[0])) {
+                    solutions.add(entry[1] + "\t" + entry[2]);
+                }
+            }
+
+            logger.info("Journal loaded. Questions completed: " + questions.size()
+                    + ". Solutions completed: " + solutions.size() + ".");
+        }
+
+        writer = Files.newBufferedWriter(
+                path,
+                StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND
+        );
+
+        // Start on a fresh line in case the last entry was torn.
+        writer.newLine();
+        writer.flush();
+
+        return resumed;
+    }
+
+    public boolean isQuestionCompleted(String questionSlug) {
+        return questions.contains(questionSlug);
+    }
+
+    public boolean isSolutionCompleted(String questionSlug, String solutionSlug) {
+        return solutions.contains(questionSlug + "\t" + solutionSlug);
+    }
+
+    /**
+     * Record a question whose result is queued for writing.
+     *
+     * @param questionSlug question slug
+     * @return completion of the record
+     */
+    public CompletableFuture<Void> questionCompleted(String questionSlug) {
+        questions.add(questionSlug);
+
+        return append(QUESTION + "\t" + questionSlug);
+    }
+
+    /**
+     * Record a solution whose response is queued for archiving.
+     *
+     * @param questionSlug question slug
+     * @param solutionSlug solution slug
+     * @return completion of the record
+     */
+    public CompletableFuture<Void> solutionCompleted(String questionSlug, String solutionSlug) {
+        solutions.add(questionSlug + "\t" + solutionSlug);
+
+        return append(SOLUTION + "\t" + questionSlug + "\t" + solutionSlug);
+    }
+
+    /**
+     * Close the journal, removing it if the crawl is finished so that the next crawl starts over.
+     *
+     * @param finished whether every question is completed
+     * @throws Exception exception
+     */
+    public void close(boolean finished) throws Exception {
+        diskWriter.flush();
+
+        synchronized (this) {
+            if (writer != null) {
+                writer.close();
+                writer = null;
+            }
+
+            if (finished) {
+                Files.deleteIfExists(storage.resolve("journal.log"));
+            }
+        }
+    }
+
+    private CompletableFuture<Void> append(String entry) {
+        return diskWriter.execute(() -> {
+            synchronized (this) {
+                writer.write(entry);
+                writer.newLine();
+                writer.flush();
+            }
+        });
+    }
+}
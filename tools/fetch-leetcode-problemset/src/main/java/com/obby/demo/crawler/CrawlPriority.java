@@ -0,0 +1,156 @@
+package com.obby.demo.crawler;
+
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Orders the questions of a crawl by a score of {@code crawler.priority}, so that a crawl cut short by its
+ * {@link CrawlBudget} covers the most read questions first.
+ * <p>
+ * A question scores by its accepted submissions in the listing, the hits of its solutions and the days since it
+ * was last crawled, counted in powers of ten for the first two, with a bonus if it was never crawled or is the
+ * question of the day. The hits and the time of the last crawl of each question are kept in
+ * {@code storage/history.tsv}, saved at the end of a crawl.
+ */
+@Component
+public class CrawlPriority {
+    private static final String FILE = "history.tsv";
+
+    private final CrawlerProperties.Priority properties;
+
+    private final Storage storage;
+
+    private final Map<String, History> histories = new ConcurrentHashMap<>();
+
+    private volatile boolean dirty;
+
+    public CrawlPriority(CrawlerProperties properties, Storage storage) {
+        this.properties = properties.getPriority();
+        this.storage = storage;
+    }
+
+    /**
+     * Load the history of the previous crawls.
+     *
+     * @throws IOException exception
+     */
+    public synchronized void load() throws IOException {
+        Path path = storage.resolve(FILE);
+
+        histories.clear();
+        dirty = false;
+
+        if (!Files.exists(path)) {
+            return;
+        }
+
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            String[] fields = line.split("\t");
+
+            if (fields.length == 3) {
+                histories.put(fields[0], new History(Long.parseLong(fields[1]), Long.parseLong(fields[2])));
+            }
+        }
+    }
+
+    /**
+     * Order questions by their scores, highest first, keeping the listing order between equal scores.
+     *
+     * @param problems   questions
+     * @param dailySlugs slugs of the questions of the day
+     * @return question slugs
+     */
+    public List<String> order(List<Problem> problems, Collection<String> dailySlugs) {
+        long now = System.currentTimeMillis();
+        Map<String, Double> scores = new HashMap<>();
+
+        for (Problem problem : problems) {
+            scores.put(problem.getSlug(), score(problem, dailySlugs.contains(problem.getSlug()), now));
+        }
+
+        return problems.stream()
+                .map(Problem::getSlug)
+                .sorted(Comparator.comparingDouble(scores::get).reversed())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Record a crawled question.
+     *
+     * @param slug         question slug
+     * @param solutionHits total hits of its solutions
+     */
+    public void crawled(String slug, long solutionHits) {
+        histories.put(slug, new History(System.currentTimeMillis(), solutionHits));
+        dirty = true;
+    }
+
+    /**
+     * Save the history if any question was crawled since loaded.
+     *
+     * @throws IOException exception
+     */
+    public synchronized void save() throws IOException {
+        if (!dirty) {
+            return;
+        }
+
+        dirty = false;
+
+        Path path = storage.basePath(FILE);
+        Path temporaryPath = storage.basePath(FILE + ".tmp");
+
+        try (BufferedWriter writer = Files.newBufferedWriter(temporaryPath, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, History> entry : new ArrayList<>(histories.entrySet())) {
+                writer.write(entry.getKey() + "\t" + entry.getValue().crawledAt + "\t" + entry.getValue().solutionHits);
+                writer.newLine();
+            }
+        }
+
+        Files.move(temporaryPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private double score(Problem problem, boolean daily, long now) {
+        History history = histories.get(problem.getSlug());
+        double score = properties.getAccepted() * Math.log10(1 + Math.max(0, problem.getAcceptedCount()));
+
+        if (history == null) {
+            score += properties.getNewQuestion();
+        } else {
+            score += properties.getSolutionHits() * Math.log10(1 + Math.max(0, history.solutionHits));
+            score += properties.getStalenessPerDay() * Math.max(0, now - history.crawledAt)
+                    / Duration.ofDays(1).toMillis();
+        }
+
+        if (daily) {
+            score += properties.getDaily();
+        }
+
+        return score;
+    }
+
+    private static final class History {
+        private final long crawledAt;
+        private final long solutionHits;
+
+        private History(long crawledAt, long solutionHits) {
+            this.crawledAt = crawledAt;
+            this.solutionHits = solutionHits;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.obby.demo.crawler;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of the running crawl, published as meters and logged as one summary line every
+ * {@code crawler.progress-interval} rather than a line per question.
+ */
+@Component
+public class CrawlProgress {
+    private static final Logger logger = LoggerFactory.getLogger(CrawlProgress.class);
+
+    private final Duration interval;
+
+    private final AtomicLong total = new AtomicLong();
+
+    private final AtomicLong completed = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    private final AtomicLong solutions = new AtomicLong();
+
+    private volatile long skipped;
+
+    private volatile long startedAt = System.nanoTime();
+
+    private ScheduledExecutorService timer;
+
+    public CrawlProgress(CrawlerProperties properties, MeterRegistry registry) {
+        this.interval = properties.getProgressInterval();
+
+        // Gauges are weakly referenced by default, and read as NaN once the progress of a crawl is collected.
+        Gauge.builder("crawler.questions.total", total, AtomicLong::get)
+                .description("Questions of the running crawl")
+                .strongReference(true)
+                .register(registry);
+        Gauge.builder("crawler.questions.completed", completed, AtomicLong::get)
+                .description("Questions completed by the running crawl, including the skipped ones")
+                .strongReference(true)
+                .register(registry);
+        Gauge.builder("crawler.questions.failed", failed, AtomicLong::get)
+                .description("Questions failed by the running crawl")
+                .strongReference(true)
+                .register(registry);
+        FunctionCounter.builder("crawler.solutions.completed", solutions, AtomicLong::get)
+                .description("Solutions fetched")
+                .register(registry);
+        Gauge.builder("crawler.eta", this, CrawlProgress::eta)
+                .description("Estimated time left to the end of the running crawl")
+                .baseUnit("seconds")
+                .strongReference(true)
+                .register(registry);
+    }
+
+    /**
+     * Start tracking a crawl.
+     *
+     * @param total   questions of the crawl
+     * @param skipped questions already completed, by an interrupted run or unchanged since the previous crawl
+     */
+    public synchronized void start(long total, long skipped) {
+        this.total.set(total);
+        this.completed.set(skipped);
+        this.failed.set(0);
+        this.skipped = skipped;
+        this.startedAt = System.nanoTime();
+
+        if (timer == null && !interval.isZero() && !interval.isNegative()) {
+            timer = Executors.newSingleThreadScheduledExecutor(
+                    new ThreadFactoryBuilder().setNameFormat("crawl-progress").setDaemon(true).build()
+            );
+            timer.scheduleAtFixedRate(
+                    () -> logger.info(summary()),
+                    interval.toMillis(),
+                    interval.toMillis(),
+                    TimeUnit.MILLISECONDS
+            );
+        }
+    }
+
+    /**
+     * Stop tracking the crawl, logging a last summary line.
+     */
+    public synchronized void stop() {
+        if (timer != null) {
+            timer.shutdownNow();
+            timer = null;
+        }
+
+        logger.info(summary());
+    }
+
+    public void questionCompleted() {
+        completed.incrementAndGet();
+    }
+
+    public void questionFailed() {
+        failed.incrementAndGet();
+    }
+
+    public void solutionCompleted() {
+        solutions.incrementAndGet();
+    }
+
+    public long completed() {
+        return completed.get();
+    }
+
+    /**
+     * Estimated time left, from the rate of questions completed since the crawl started.
+     *
+     * @return seconds, NaN before any question is completed
+     */
+    public double eta() {
+        double elapsed = (System.nanoTime() - startedAt) / 1e9;
+        double rate = (completed.get() - skipped) / elapsed;
+        long remaining = total.get() - completed.get() - failed.get();
+
+        return remaining <= 0 ? 0 : rate > 0 ? remaining / rate : Double.NaN;
+    }
+
+    public String summary() {
+        double elapsed = Math.max(1e-3, (System.nanoTime() - startedAt) / 1e9);
+        double eta = eta();
+
+        return String.format(
+                "Questions: %d/%d, failed: %d. Solutions: %d. Rate: %.1f questions/s, %.1f solutions/s. ETA: %s.",
+                completed.get(), total.get(), failed.get(), solutions.get(),
+                (completed.get() - skipped) / elapsed, solutions.get() / elapsed,
+                Double.isNaN(eta) ? "unknown" : Duration.ofSeconds((long) eta).toString().substring(2).toLowerCase()
+        );
+    }
+}
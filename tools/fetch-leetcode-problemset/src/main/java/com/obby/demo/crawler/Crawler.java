@@ -0,0 +1,694 @@
+package com.obby.demo.crawler;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gson.ExclusionStrategy;
+import com.google.gson.FieldAttributes;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.obby.demo.content.ContentConverter;
+import com.obby.demo.model.Question;
+import com.obby.demo.search.SearchIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Crawls questions on a bounded worker pool, fanning each question's solutions out as asynchronous requests.
+ * <p>
+ * Progress is reported through {@link CrawlProgress}; per-question steps are logged at debug level only.
+ * <p>
+ * The questions are split into shards shared through a {@link WorkCoordinator}, so that several nodes can run a
+ * crawl together, each claiming shards while it has workers available.
+ * <p>
+ * Question and solution contents are handed to the {@link ContentConverter} as they are fetched, to be converted to
+ * Markdown alongside the crawl.
+ */
+@Component
+public class Crawler {
+    private static final Logger logger = LoggerFactory.getLogger(Crawler.class);
+
+    private static final String PREVIOUS_LISTING = "questions.previous.json";
+
+    /**
+     * Size assumed for the solutions fetched before any is known.
+     */
+    private static final long INITIAL_SOLUTION_ESTIMATE = 16 * 1024;
+
+    private final Gson gson;
+
+    /**
+     * Reads a result without binding its solutions.
+     */
+    private final Gson questionGson;
+
+    private final AtomicLong solutionBytes = new AtomicLong();
+
+    private final AtomicLong solutionCount = new AtomicLong();
+
+    private final CrawlerProperties properties;
+
+    private final LeetcodeClient client;
+
+    private final ResponseCache cache;
+
+    private final Storage storage;
+
+    private final ArchiveStore archives;
+
+    private final RequestScheduler scheduler;
+
+    private final CrawlJournal journal;
+
+    private final DiskWriter writer;
+
+    private final CrawlProgress progress;
+
+    private final CrawlPriority priority;
+
+    private final WorkCoordinator coordinator;
+
+    private final SearchIndex searchIndex;
+
+    private final ContentConverter content;
+
+    private final MemoryBudget budget;
+
+    private final Counter bytesWritten;
+
+    public Crawler(
+            CrawlerProperties properties,
+            LeetcodeClient client,
+            ResponseCache cache,
+            Storage storage,
+            ArchiveStore archives,
+            RequestScheduler scheduler,
+            CrawlJournal journal,
+            DiskWriter writer,
+            CrawlProgress progress,
+            CrawlPriority priority,
+            WorkCoordinator coordinator,
+            SearchIndex searchIndex,
+            ContentConverter content,
+            MeterRegistry registry
+    ) {
+        this.properties = properties;
+        this.client = client;
+        this.cache = cache;
+        this.storage = storage;
+        this.archives = archives;
+        this.scheduler = scheduler;
+        this.journal = journal;
+        this.writer = writer;
+        this.progress = progress;
+        this.priority = priority;
+        this.coordinator = coordinator;
+        this.searchIndex = searchIndex;
+        this.content = content;
+        this.budget = new MemoryBudget(properties.getSolutions().getMemoryBudget().toBytes());
+        this.gson = properties.getWriter().getResultFormat() == CrawlerProperties.Writer.ResultFormat.COMPACT
+                ? new GsonBuilder().registerTypeAdapterFactory(storage.dictionary().encoder()).create()
+                : new GsonBuilder().setPrettyPrinting().create();
+        this.questionGson = new GsonBuilder()
+                .registerTypeAdapterFactory(storage.dictionary().decoder())
+                .addDeserializationExclusionStrategy(new ExclusionStrategy() {
+                    @Override
+                    public boolean shouldSkipField(FieldAttributes field) {
+                        return field.getDeclaringClass() == Question.class && field.getName().equals("solutions");
+                    }
+
+                    @Override
+                    public boolean shouldSkipClass(Class<?> type) {
+                        return false;
+                    }
+                })
+                .create();
+        this.bytesWritten = Counter.builder("crawler.bytes.written")
+                .description("Bytes written to disk")
+                .baseUnit("bytes")
+                .tag("store", "results")
+                .register(registry);
+
+        // Resolve the self-referencing Question adapter before results are written concurrently.
+        gson.getAdapter(Question.class);
+        questionGson.getAdapter(Question.class);
+    }
+
+    /**
+     * Crawl all free questions and their solutions.
+     * <p>
+     * In incremental mode, the problem listing is compared with the one stored by the previous crawl: new questions
+     * are crawled in full, questions whose listing changed are fetched again, questions with a changed solution
+     * count only fetch the solutions not in their previous result, and unchanged questions are skipped.
+     *
+     * @throws Exception exception
+     */
+    public void crawl() throws Exception {
+        logger.info("Starting...");
+
+        CrawlBudget crawlBudget = new CrawlBudget(properties, scheduler);
+        boolean resumed = journal.open();
+        boolean incremental = properties.getMode() == CrawlerProperties.Mode.INCREMENTAL;
+
+        // A resumed crawl keeps comparing against the listing its interrupted run started from.
+        if (incremental && !resumed) {
+            if (archives.contains("questions.json")) {
+                archives.copy("questions.json", PREVIOUS_LISTING);
+            } else {
+                archives.delete(PREVIOUS_LISTING);
+            }
+        }
+
+        logger.info("Question slugs fetching...");
+
+        List<Problem> problems = client.fetchProblems();
+
+        logger.info("Question slugs fetched.");
+        logger.info("Questions count: " + problems.size() + ".");
+
+        Map<String, Change> changes = new LinkedHashMap<>();
+        Map<String, Problem> previousProblems = new HashMap<>();
+
+        if (incremental) {
+            for (Problem problem : client.loadProblems(PREVIOUS_LISTING)) {
+                previousProblems.put(problem.getSlug(), problem);
+            }
+        }
+
+        for (Problem problem : problems) {
+            changes.put(
+                    problem.getSlug(),
+                    incremental ? change(previousProblems.get(problem.getSlug()), problem) : Change.NEW
+            );
+        }
+
+        if (incremental) {
+            logger.info("Questions changes: " + changes.values().stream().collect(Collectors.groupingBy(
+                    change -> change,
+                    () -> new EnumMap<>(Change.class),
+                    Collectors.counting()
+            )) + ".");
+        }
+
+        ExecutorService questionExecutor = Executors.newFixedThreadPool(
+                properties.getWorkers(),
+                new ThreadFactoryBuilder().setNameFormat("question-%d").build()
+        );
+        ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("lease-heartbeat").setDaemon(true).build()
+        );
+        long pollMillis = Math.max(1, properties.getCoordination().getLeaseTtl().toMillis() / 3);
+        List<String> failedSlugs = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger deferred = new AtomicInteger();
+        boolean finished = false;
+
+        priority.load();
+
+        try {
+            List<Problem> pendingProblems = new ArrayList<>();
+
+            for (Problem problem : problems) {
+                if (changes.get(problem.getSlug()) != Change.UNCHANGED
+                        && !journal.isQuestionCompleted(problem.getSlug())) {
+                    pendingProblems.add(problem);
+                }
+            }
+
+            List<String> pendingSlugs = priority.order(pendingProblems, fetchDailyQuestionSlugs());
+            // Every node crawls the plan of the first node to publish one, in the order that node scored.
+            List<List<String>> shards = coordinator.plan(Lists.partition(
+                    pendingSlugs,
+                    Math.max(1, properties.getCoordination().getShardSize())
+            ));
+
+            progress.start(changes.size(), Math.max(0, changes.size() - shards.stream().mapToInt(List::size).sum()));
+
+            Semaphore slots = new Semaphore(properties.getWorkers());
+            Map<Shard, CompletableFuture<Void>> running = new ConcurrentHashMap<>();
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+
+            heartbeat.scheduleWithFixedDelay(() -> {
+                for (Shard shard : running.keySet()) {
+                    try {
+                        if (!shard.lost && !shard.lease.renew()) {
+                            logger.warn("Shard lease lost to another node.");
+
+                            shard.lost = true;
+                        }
+                    } catch (Exception e) {
+                        logger.warn("Shard lease renewal failed.", e);
+                    }
+                }
+            }, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+
+            // Shards are claimed while workers are available, up to a shard per worker in flight.
+            while (failure.get() == null) {
+                slots.acquire();
+
+                WorkCoordinator.Lease lease = crawlBudget.isExhausted() ? null : coordinator.claim();
+
+                if (lease == null) {
+                    slots.release();
+
+                    if (crawlBudget.isExhausted() || coordinator.isFinished()) {
+                        break;
+                    }
+
+                    // Wait for a shard of this node to finish, or for the lease of another node to expire.
+                    try {
+                        CompletableFuture.anyOf(running.values().toArray(new CompletableFuture[0]))
+                                .get(pollMillis, TimeUnit.MILLISECONDS);
+                    } catch (ExecutionException | TimeoutException e) {
+                        // Failures are recorded when the shard completes.
+                    }
+
+                    continue;
+                }
+
+                Shard shard = new Shard(lease);
+                List<CompletableFuture<Void>> batches = new ArrayList<>();
+
+                // Questions are handed to the workers in batches, so their data can be fetched in one request.
+                for (List<String> batch : Lists.partition(lease.slugs(), Math.max(1, properties.getBatchSize()))) {
+                    batches.add(CompletableFuture.runAsync(() -> {
+                        try {
+                            crawlBatch(shard, batch, changes, crawlBudget, failedSlugs);
+                        } catch (Exception e) {
+                            throw new CompletionException(e);
+                        }
+                    }, questionExecutor));
+                }
+
+                CompletableFuture<Void> future = CompletableFuture.allOf(batches.toArray(new CompletableFuture[0]))
+                        .thenRun(() -> {
+                            try {
+                                // A shard taken over by another node is left to it.
+                                if (shard.lost) {
+                                    return;
+                                }
+
+                                if (shard.deferred.get() > 0) {
+                                    deferred.addAndGet(shard.deferred.get());
+                                    shard.lease.release();
+                                } else {
+                                    shard.lease.complete();
+                                }
+                            } catch (Exception e) {
+                                throw new CompletionException(e);
+                            }
+                        });
+
+                running.put(shard, future);
+                future.whenComplete((ignored, error) -> {
+                    running.remove(shard);
+                    slots.release();
+
+                    if (error != null) {
+                        failure.compareAndSet(null, error);
+                    }
+                });
+            }
+
+            for (CompletableFuture<Void> future : new ArrayList<>(running.values())) {
+                try {
+                    future.join();
+                } catch (CompletionException e) {
+                    failure.compareAndSet(null, e);
+                }
+            }
+
+            if (failure.get() != null) {
+                Throwable error = failure.get();
+
+                while (error instanceof CompletionException && error.getCause() != null) {
+                    error = error.getCause();
+                }
+
+                Throwables.propagateIfPossible(error, Exception.class);
+
+                throw new IllegalStateException(error);
+            }
+
+            finished = coordinator.isFinished();
+        } finally {
+            heartbeat.shutdownNow();
+            questionExecutor.shutdownNow();
+            content.awaitConversions();
+            writer.flush();
+            // Saved once the responses it vouches for are written.
+            cache.save();
+            priority.save();
+            progress.stop();
+            journal.close(finished && failedSlugs.isEmpty() && deferred.get() == 0);
+        }
+
+        if (!finished) {
+            logger.info("Budget exhausted. Questions deferred to the next crawl: " + deferred.get()
+                    + ", besides the shards not claimed.");
+        }
+
+        logger.info("Scheduler: " + scheduler.metrics() + ".");
+        logger.info("Threads peak: " + ManagementFactory.getThreadMXBean().getPeakThreadCount() + ".");
+
+        if (!failedSlugs.isEmpty()) {
+            logger.warn("Failed questions count: " + failedSlugs.size() + ". Failed questions: " + failedSlugs + ".");
+        }
+
+        logger.info("Finished.");
+    }
+
+    /**
+     * Crawl a batch of questions of a shard, unless the shard was lost or the budget is spent.
+     */
+    private void crawlBatch(
+            Shard shard,
+            List<String> batch,
+            Map<String, Change> changes,
+            CrawlBudget crawlBudget,
+            List<String> failedSlugs
+    ) throws Exception {
+        if (shard.lost) {
+            return;
+        }
+
+        // Questions left once the budget is spent are recorded by the journal as not completed.
+        if (crawlBudget.isExhausted()) {
+            shard.deferred.addAndGet(batch.size());
+
+            return;
+        }
+
+        // A shard planned by another node may hold questions this node completed before being interrupted, or
+        // does not list.
+        List<String> questionSlugs = batch.stream()
+                .filter(questionSlug -> !journal.isQuestionCompleted(questionSlug))
+                .collect(Collectors.toList());
+        Map<String, Question> questions = client.fetchQuestions(questionSlugs.stream()
+                .filter(questionSlug -> changes.get(questionSlug) != Change.SOLUTIONS_CHANGED)
+                .collect(Collectors.toList()));
+
+        for (String questionSlug : questionSlugs) {
+            try {
+                crawlQuestion(
+                        questionSlug,
+                        changes.getOrDefault(questionSlug, Change.NEW),
+                        questions.get(questionSlug)
+                ).whenComplete((written, error) -> {
+                    if (error == null) {
+                        progress.questionCompleted();
+                    } else {
+                        progress.questionFailed();
+                        failedSlugs.add(questionSlug);
+                    }
+                });
+            } catch (Exception e) {
+                // A question that still fails after the scheduler's retries is left for the next run.
+                logger.error("Question [" + questionSlug + "] failed.", e);
+
+                progress.questionFailed();
+                failedSlugs.add(questionSlug);
+            }
+        }
+    }
+
+    /**
+     * Crawl a question and its solutions, streaming the result to its file as the solutions arrive in order.
+     * <p>
+     * Solutions are fetched as their share of the {@link MemoryBudget} is granted, estimated from the average
+     * size of the solutions fetched so far, so the solutions waiting to be written stay within
+     * {@code crawler.solutions.memory-budget} whatever the size of a question.
+     *
+     * @param questionSlug question slug
+     * @param change       change of the question since the previous crawl
+     * @param fetched      question already fetched in a batch, null if not
+     * @return completion of the journal entry of the question
+     * @throws Exception exception
+     */
+    private CompletableFuture<Void> crawlQuestion(String questionSlug, Change change, Question fetched) throws Exception {
+        Path resultPath = storage.basePath("result/" + questionSlug + ".json");
+        boolean hasPrevious = change != Change.NEW && Files.exists(resultPath);
+        // Previous solutions are loaded from their archived responses one at a time when written, rather than
+        // holding the previous result in memory.
+        Set<String> previousSolutionSlugs = new HashSet<>();
+        Question question;
+
+        if (hasPrevious) {
+            for (String solutionSlug : readSolutionSlugs(resultPath)) {
+                if (client.isSolutionArchived(questionSlug, solutionSlug)) {
+                    previousSolutionSlugs.add(solutionSlug);
+                }
+            }
+        }
+
+        if (hasPrevious && change == Change.SOLUTIONS_CHANGED) {
+            try (Reader reader = Files.newBufferedReader(resultPath)) {
+                question = questionGson.fromJson(reader, Question.class);
+            }
+        } else if (fetched != null) {
+            question = fetched;
+        } else {
+            logger.debug("Question [{}] fetching...", questionSlug);
+
+            question = client.fetchQuestion(questionSlug);
+        }
+
+        content.submit(question.getContent(), ContentConverter.Format.HTML);
+        content.submit(question.getTranslatedContent(), ContentConverter.Format.HTML);
+
+        logger.debug("Question [{}] solution slugs fetching...", questionSlug);
+
+        Map<String, CompletableFuture<Question.Solution>> fetches = new HashMap<>();
+        Map<String, MemoryBudget.Reservation> reservations = new HashMap<>();
+        CompletableFuture<Void> written;
+
+        try {
+            // Start fetching the solutions of each page while the next page is listed.
+            List<String> solutionSlugs = client.fetchSolutionSlugs(questionSlug, page -> {
+                List<String> fetchSlugs = new ArrayList<>();
+
+                for (String solutionSlug : page) {
+                    if (!previousSolutionSlugs.contains(solutionSlug)
+                            && !journal.isSolutionCompleted(questionSlug, solutionSlug)) {
+                        fetchSlugs.add(solutionSlug);
+                    }
+                }
+
+                for (List<String> batch : Lists.partition(fetchSlugs, Math.max(1, properties.getBatchSize()))) {
+                    fetchBatch(questionSlug, batch, fetches, reservations);
+                }
+            });
+
+            logger.debug("Question [{}] solutions count: {}, fetching: {}.",
+                    questionSlug, solutionSlugs.size(), fetches.size());
+
+            SearchIndex.Indexer indexer = searchIndex.indexer(question);
+
+            question.setSolutions(null);
+
+            long solutionHits = 0;
+
+            try (ResultWriter result = new ResultWriter(gson, resultPath)) {
+                result.question(question);
+
+                for (String solutionSlug : solutionSlugs) {
+                    Question.Solution solution;
+
+                    if (fetches.containsKey(solutionSlug)) {
+                        solution = fetches.get(solutionSlug).join();
+                    } else {
+                        solution = client.loadSolution(questionSlug, solutionSlug);
+                    }
+
+                    result.solution(solution);
+                    // Submitted from the crawl thread, which waits while the conversions queued exceed their buffer.
+                    content.submit(solution.getContent(), ContentConverter.Format.MARKDOWN);
+                    indexer.solution(solution);
+
+                    if (solution.getHitCount() != null) {
+                        solutionHits += solution.getHitCount();
+                    }
+
+                    if (reservations.containsKey(solutionSlug)) {
+                        reservations.get(solutionSlug).adjust(-MemoryBudget.sizeOf(solution));
+                    }
+                }
+
+                if (properties.getWriter().isFsync()) {
+                    // Entries the result refers to reach the disk before it does.
+                    storage.dictionary().force();
+                }
+
+                written = result.commit(writer).thenAccept(bytesWritten::increment);
+            }
+
+            indexer.commit();
+            priority.crawled(questionSlug, solutionHits);
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        } finally {
+            fetches.values().forEach(future -> future.cancel(false));
+            reservations.values().forEach(MemoryBudget.Reservation::close);
+        }
+
+        // Recorded only once the result is renamed into place, so a crawl interrupted before then fetches it again.
+        return written.thenCompose(renamed -> journal.questionCompleted(questionSlug));
+    }
+
+    /**
+     * Fetch a batch of solutions once its estimated size is granted by the memory budget.
+     */
+    private void fetchBatch(
+            String questionSlug,
+            List<String> batch,
+            Map<String, CompletableFuture<Question.Solution>> fetches,
+            Map<String, MemoryBudget.Reservation> reservations
+    ) {
+        long estimate = solutionCount.get() == 0
+                ? INITIAL_SOLUTION_ESTIMATE
+                : solutionBytes.get() / solutionCount.get();
+        MemoryBudget.Reservation reservation = budget.reserve(estimate * batch.size());
+        CompletableFuture<Map<String, CompletableFuture<Question.Solution>>> started = reservation.granted()
+                .thenApply(granted -> {
+                    try {
+                        return client.fetchSolutionsAsync(questionSlug, batch);
+                    } catch (Exception e) {
+                        throw new CompletionException(e);
+                    }
+                });
+
+        for (String solutionSlug : batch) {
+            reservations.put(solutionSlug, reservation);
+            fetches.put(solutionSlug, started
+                    .thenCompose(solutions -> solutions.get(solutionSlug))
+                    .thenApply(solution -> {
+                        long size = MemoryBudget.sizeOf(solution);
+
+                        // Hold the actual size until the solution is written, instead of the estimate.
+                        reservation.adjust(size - estimate);
+                        solutionBytes.addAndGet(size);
+                        solutionCount.incrementAndGet();
+                        progress.solutionCompleted();
+                        journal.solutionCompleted(questionSlug, solutionSlug);
+
+                        return solution;
+                    }));
+        }
+    }
+
+    /**
+     * Read the solution slugs of a result, skipping everything else.
+     */
+    private static List<String> readSolutionSlugs(Path resultPath) throws IOException {
+        List<String> slugs = new ArrayList<>();
+
+        try (JsonReader reader = new JsonReader(Files.newBufferedReader(resultPath))) {
+            if (!JsonStreams.select(reader, "solutions") || reader.peek() != JsonToken.BEGIN_ARRAY) {
+                return slugs;
+            }
+
+            reader.beginArray();
+
+            while (reader.hasNext()) {
+                reader.beginObject();
+
+                while (reader.hasNext()) {
+                    if ("slug".equals(reader.nextName()) && reader.peek() == JsonToken.STRING) {
+                        slugs.add(reader.nextString());
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+
+                reader.endObject();
+            }
+        }
+
+        return slugs;
+    }
+
+    /**
+     * Fetch the questions of the day to crawl first, none if not scored or not available.
+     */
+    private List<String> fetchDailyQuestionSlugs() {
+        if (properties.getPriority().getDaily() == 0) {
+            return List.of();
+        }
+
+        try {
+            return client.fetchDailyQuestionSlugs();
+        } catch (Exception e) {
+            logger.warn("Questions of the day not fetched.", e);
+
+            return List.of();
+        }
+    }
+
+    private Change change(Problem previous, Problem current) {
+        if (previous == null) {
+            return Change.NEW;
+        }
+
+        if (!previous.getFingerprint().equals(current.getFingerprint())) {
+            return Change.QUESTION_CHANGED;
+        }
+
+        if (current.getSolutionCount() < 0 || previous.getSolutionCount() != current.getSolutionCount()) {
+            return Change.SOLUTIONS_CHANGED;
+        }
+
+        return Change.UNCHANGED;
+    }
+
+    private static final class Shard {
+        private final WorkCoordinator.Lease lease;
+
+        private final AtomicInteger deferred = new AtomicInteger();
+
+        private volatile boolean lost;
+
+        private Shard(WorkCoordinator.Lease lease) {
+            this.lease = lease;
+        }
+    }
+
+    private enum Change {
+        NEW,
+        QUESTION_CHANGED,
+        SOLUTIONS_CHANGED,
+        UNCHANGED
+    }
+}
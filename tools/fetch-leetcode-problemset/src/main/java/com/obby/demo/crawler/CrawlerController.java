@@ -0,0 +1,25 @@
+package com.obby.demo.crawler;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/crawler")
+public class CrawlerController {
+    private final RequestScheduler scheduler;
+
+    public CrawlerController(RequestScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Request scheduler metrics, showing how close the crawl runs to its rate and concurrency limits.
+     *
+     * @return metrics
+     */
+    @GetMapping("/scheduler")
+    public RequestScheduler.Metrics scheduler() {
+        return scheduler.metrics();
+    }
+}
@@ -0,0 +1,471 @@
+package com.obby.demo.crawler;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "crawler")
+public class CrawlerProperties {
+    /**
+     * Whether to run the crawl on startup.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Crawl mode.
+     */
+    private Mode mode = Mode.FULL;
+
+    /**
+     * LeetCode site base url.
+     */
+    private String baseUrl = "https://leetcode-cn.com";
+
+    /**
+     * Storage directory.
+     */
+    private String storagePath = "storage";
+
+    /**
+     * Number of questions crawled concurrently.
+     */
+    private int workers = 4;
+
+    /**
+     * Number of threads fetching solutions concurrently with the blocking HTTP client, shared by all questions.
+     */
+    private int solutionWorkers = 8;
+
+    /**
+     * Number of questions or solutions fetched by one batched GraphQL request, 1 to disable batching.
+     */
+    private int batchSize = 10;
+
+    /**
+     * Interval between progress summary lines.
+     */
+    private Duration progressInterval = Duration.ofSeconds(10);
+
+    /**
+     * Scores ordering the questions of a crawl, highest first.
+     */
+    private final Priority priority = new Priority();
+
+    /**
+     * Limits of a crawl, past which the remaining questions are left to the next crawl.
+     */
+    private final Budget budget = new Budget();
+
+    /**
+     * Sharing of a crawl between nodes.
+     */
+    private final Coordination coordination = new Coordination();
+
+    /**
+     * Solution listing.
+     */
+    private final Solutions solutions = new Solutions();
+
+    /**
+     * Response archive.
+     */
+    private final Archive archive = new Archive();
+
+    /**
+     * Disk writer.
+     */
+    private final Writer writer = new Writer();
+
+    /**
+     * HTTP client.
+     */
+    private final Http http = new Http();
+
+    /**
+     * Request scheduling shared by all LeetCode requests.
+     */
+    private final Scheduler scheduler = new Scheduler();
+
+    /**
+     * Full-text search index.
+     */
+    private final Search search = new Search();
+
+    /**
+     * Serving of the crawled problem set.
+     */
+    private final Serving serving = new Serving();
+
+    /**
+     * Export of the crawled problem set to a relational database.
+     */
+    private final Export export = new Export();
+
+    /**
+     * Conversion of the question and solution contents to Markdown.
+     */
+    private final Content content = new Content();
+
+    @Data
+    public static class Scheduler {
+        /**
+         * Requests allowed per second on average.
+         */
+        private double permitsPerSecond = 5;
+
+        /**
+         * Requests allowed in a burst after an idle period.
+         */
+        private int burst = 10;
+
+        /**
+         * Initial number of requests in flight.
+         */
+        private int initialConcurrency = 4;
+
+        /**
+         * Lower bound of requests in flight.
+         */
+        private int minConcurrency = 1;
+
+        /**
+         * Upper bound of requests in flight.
+         */
+        private int maxConcurrency = 32;
+
+        /**
+         * Response latency above which the server is considered congested.
+         */
+        private Duration latencyThreshold = Duration.ofSeconds(3);
+
+        /**
+         * Factor the concurrency limit is multiplied by on congestion.
+         */
+        private double backoffRatio = 0.5;
+
+        /**
+         * Attempts per request, including the first one.
+         */
+        private int maxAttempts = 5;
+
+        /**
+         * Base delay of the exponential retry backoff.
+         */
+        private Duration retryBaseDelay = Duration.ofMillis(500);
+
+        /**
+         * Upper bound of the retry backoff.
+         */
+        private Duration retryMaxDelay = Duration.ofSeconds(30);
+    }
+
+    @Data
+    public static class Archive {
+        /**
+         * Archive format.
+         */
+        private Format format = Format.SEGMENTS;
+
+        /**
+         * Size after which the segments format starts a new segment file.
+         */
+        private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+        public enum Format {
+            /**
+             * A JSON file per response under {@code storage/response/}.
+             */
+            FILES,
+            /**
+             * Compressed, deduplicated responses appended to segment files under {@code storage/archive/}.
+             */
+            SEGMENTS
+        }
+    }
+
+    @Data
+    public static class Writer {
+        /**
+         * Bytes queued for writing beyond which fetching waits for the disk.
+         */
+        private DataSize bufferSize = DataSize.ofMegabytes(32);
+
+        /**
+         * Files written, and forced to disk, together at most.
+         */
+        private int batchSize = 64;
+
+        /**
+         * Whether to force written files to disk before renaming them over their targets.
+         */
+        private boolean fsync = true;
+
+        /**
+         * Format of the results.
+         */
+        private ResultFormat resultFormat = ResultFormat.JSON;
+
+        public enum ResultFormat {
+            /**
+             * Pretty-printed JSON of the question and its solutions.
+             */
+            JSON,
+            /**
+             * JSON referring to the tags, authors, languages and code templates of a dictionary shared by the
+             * results, in {@code storage/result-dictionary.jsonl}.
+             */
+            COMPACT
+        }
+    }
+
+    @Data
+    public static class Solutions {
+        /**
+         * Solution slugs fetched per page, 0 to fetch them all at once.
+         */
+        private int pageSize = 50;
+
+        /**
+         * Order of the solutions, such as DEFAULT or MOST_UPVOTE.
+         */
+        private String orderBy = "DEFAULT";
+
+        /**
+         * Maximum number of solutions fetched per question, in order, 0 for all.
+         */
+        private int limit = 0;
+
+        /**
+         * Approximate heap size of the solutions fetched and not yet written beyond which fetching waits.
+         */
+        private DataSize memoryBudget = DataSize.ofMegabytes(64);
+    }
+
+    @Data
+    public static class Priority {
+        /**
+         * Score per power of ten of the accepted submissions of the question.
+         */
+        private double accepted = 1;
+
+        /**
+         * Score per power of ten of the hits of the solutions of the question, as of its previous crawl.
+         */
+        private double solutionHits = 1;
+
+        /**
+         * Score per day since the question was last crawled.
+         */
+        private double stalenessPerDay = 0.1;
+
+        /**
+         * Score of a question never crawled before.
+         */
+        private double newQuestion = 10;
+
+        /**
+         * Score of the question of the day, 0 not to request it.
+         */
+        private double daily = 100;
+    }
+
+    @Data
+    public static class Budget {
+        /**
+         * Time after which no more questions are started, 0 for no limit.
+         */
+        private Duration time = Duration.ZERO;
+
+        /**
+         * Requests after which no more questions are started, 0 for no limit.
+         */
+        private long requests = 0;
+    }
+
+    @Data
+    public static class Coordination {
+        /**
+         * Coordinator of the nodes sharing a crawl.
+         */
+        private Type type = Type.LOCAL;
+
+        /**
+         * Directory shared by the nodes of the file coordinator, {@code <storage-path>/coordination} if blank.
+         */
+        private String path = "";
+
+        /**
+         * Identifier of the crawl the nodes share, the current UTC date if blank.
+         */
+        private String crawlId = "";
+
+        /**
+         * Identifier of this node, {@code <pid>@<host>} if blank.
+         */
+        private String nodeId = "";
+
+        /**
+         * Questions per shard, the unit of work claimed by a node.
+         */
+        private int shardSize = 50;
+
+        /**
+         * Time after which the shard of a node that stopped renewing its lease can be claimed by another.
+         */
+        private Duration leaseTtl = Duration.ofMinutes(1);
+
+        public enum Type {
+            /**
+             * The crawl is not shared.
+             */
+            LOCAL,
+            /**
+             * Shards are leased through files in a directory shared by the nodes.
+             */
+            FILE
+        }
+    }
+
+    @Data
+    public static class Search {
+        /**
+         * Whether to index the questions as they are crawled, off where the index is not served, as with the cli
+         * profile.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Whether to index the summaries and contents of the solutions along with their question.
+         */
+        private boolean solutions = true;
+    }
+
+    @Data
+    public static class Serving {
+        /**
+         * Approximate heap size of the questions and solutions cached for serving.
+         */
+        private DataSize cacheSize = DataSize.ofMegabytes(128);
+    }
+
+    @Data
+    public static class Export {
+        /**
+         * Whether to export the results to the database after crawling.
+         */
+        private boolean enabled = false;
+
+        /**
+         * JDBC URL of the H2 database, {@code jdbc:h2:file:<storage-path>/problemset} if blank.
+         */
+        private String url = "";
+
+        /**
+         * Questions written per batch of statements and transaction.
+         */
+        private int batchSize = 100;
+    }
+
+    @Data
+    public static class Content {
+        /**
+         * Whether to convert the contents while crawling, rather than only once requested.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Threads of the fork-join pool converting the contents, the number of processors if 0.
+         */
+        private int parallelism = 0;
+
+        /**
+         * Characters, counted as two bytes each, of the contents queued for conversion beyond which crawling waits
+         * for the pool.
+         */
+        private DataSize bufferSize = DataSize.ofMegabytes(16);
+    }
+
+    @Data
+    public static class Http {
+        /**
+         * HTTP client issuing the requests.
+         */
+        private Client client = Client.BLOCKING;
+
+        /**
+         * Threads handling the responses of the non-blocking client.
+         */
+        private int threads = 2;
+
+        /**
+         * Connect timeout.
+         */
+        private Duration connectTimeout = Duration.ofSeconds(10);
+
+        /**
+         * Request timeout.
+         */
+        private Duration timeout = Duration.ofSeconds(60);
+
+        /**
+         * Whether to send GraphQL requests as automatic persisted queries, the hash of their document in place of
+         * it, falling back to the document if the server does not know the hash or support persisted queries.
+         */
+        private boolean persistedQueries = false;
+
+        /**
+         * Cache of the responses, revalidated instead of downloaded again.
+         */
+        private final Cache cache = new Cache();
+
+        @Data
+        public static class Cache {
+            /**
+             * Whether to cache responses.
+             */
+            private boolean enabled = true;
+
+            /**
+             * Operations whose responses are cached, keyed by their variables.
+             */
+            private List<String> operations = new ArrayList<>(List.of("solutionDetailArticle"));
+
+            /**
+             * Time a cached response is used without asking the server, after which it is revalidated.
+             */
+            private Duration ttl = Duration.ofHours(24);
+
+            /**
+             * Total size of the cached responses beyond which the least recently used are evicted.
+             */
+            private DataSize maxSize = DataSize.ofGigabytes(1);
+        }
+
+        public enum Client {
+            /**
+             * RestTemplate, one thread per request in flight.
+             */
+            BLOCKING,
+            /**
+             * Non-blocking java.net.http.HttpClient with HTTP/2 and pooled keep-alive connections.
+             */
+            ASYNC
+        }
+    }
+
+    public enum Mode {
+        /**
+         * Crawl every question and solution.
+         */
+        FULL,
+        /**
+         * Crawl only what changed since the previous crawl, according to the problem listing.
+         */
+        INCREMENTAL
+    }
+}
@@ -0,0 +1,342 @@
+package com.obby.demo.crawler;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Writes files on a dedicated thread, so that disk latency does not hold up fetching.
+ * <p>
+ * Writes are queued up to {@code crawler.writer.buffer-size} bytes, beyond which {@link #write(Path, byte[])} blocks
+ * the caller until the disk catches up. The writer thread takes the queued writes in batches, keeps only the last
+ * write of each file, writes each batch to temporary files, forces them to disk together and then renames them
+ * over their targets, so that a file is either replaced whole or left as it was.
+ * <p>
+ * Files too large to be queued whole are streamed by the caller to a file of their own and handed over with
+ * {@link #move(Path, Path)}, to be forced and renamed with the next batch like the writes.
+ * <p>
+ * Actions submitted with {@link #execute(IoAction)} run on the writer thread once every write submitted before
+ * them is done, such as recording progress only once the files it refers to are written.
+ * <p>
+ * The bytes written, the queue length and the queued bytes are published as {@code crawler.bytes.written},
+ * {@code crawler.writer.queued} and {@code crawler.writer.queued-bytes}.
+ */
+@Component
+public class DiskWriter implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(DiskWriter.class);
+
+    private final CrawlerProperties.Writer properties;
+
+    private final int capacity;
+
+    private final Semaphore buffer;
+
+    private final BlockingQueue<Task> queue = new LinkedBlockingQueue<>();
+
+    private final Map<Path, Task> pending = new ConcurrentHashMap<>();
+
+    private final Counter bytesWritten;
+
+    private Thread thread;
+
+    public DiskWriter(CrawlerProperties properties, MeterRegistry registry) {
+        this.properties = properties.getWriter();
+        this.capacity = (int) Math.min(Integer.MAX_VALUE, this.properties.getBufferSize().toBytes());
+        this.buffer = new Semaphore(capacity);
+        this.bytesWritten = Counter.builder("crawler.bytes.written")
+                .description("Bytes written to disk")
+                .baseUnit("bytes")
+                .tag("store", "files")
+                .register(registry);
+
+        Gauge.builder("crawler.writer.queued", queue, BlockingQueue::size)
+                .description("Writes and actions waiting for the writer thread")
+                .strongReference(true)
+                .register(registry);
+        Gauge.builder("crawler.writer.queued-bytes", this, writer -> writer.capacity - writer.buffer.availablePermits())
+                .description("Bytes waiting to be written")
+                .baseUnit("bytes")
+                .strongReference(true)
+                .register(registry);
+    }
+
+    /**
+     * Queue a file to be written atomically, blocking while the queued writes exceed the buffer size.
+     *
+     * @param path    file path
+     * @param content file content
+     * @return completion of the write
+     * @throws IOException if interrupted while waiting for buffer space
+     */
+    public CompletableFuture<Void> write(Path path, byte[] content) throws IOException {
+        Task task = new Task(path, content, null, null, Math.max(1, Math.min(content.length, capacity)));
+
+        try {
+            buffer.acquire(task.permits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new InterruptedIOException("Interrupted while waiting to write [" + path + "].");
+        }
+
+        pending.put(path, task);
+        submit(task);
+
+        return task.future;
+    }
+
+    /**
+     * Queue a file already written to be forced to disk and renamed over its target, superseding the writes of the
+     * target queued before. The file must not be named like the temporary files of the writer, {@code <target>.tmp}.
+     * <p>
+     * The file is on disk rather than in the buffer, so this never blocks, and its bytes are left for the caller to
+     * count.
+     *
+     * @param source file written
+     * @param path   target file path
+     * @return completion of the rename
+     */
+    public CompletableFuture<Void> move(Path source, Path path) {
+        Task task = new Task(path, null, null, source, 0);
+
+        submit(task);
+
+        return task.future;
+    }
+
+    /**
+     * Queue an action to run on the writer thread once the writes queued before it are done.
+     *
+     * @param action action
+     * @return completion of the action
+     */
+    public CompletableFuture<Void> execute(IoAction action) {
+        Task task = new Task(null, null, action, null, 0);
+
+        submit(task);
+
+        return task.future;
+    }
+
+    /**
+     * Wait for everything queued so far to be done.
+     */
+    public void flush() {
+        execute(() -> {
+        }).join();
+    }
+
+    /**
+     * Content of a file still queued for writing.
+     *
+     * @param path file path
+     * @return content, null if the file is not queued
+     */
+    public byte[] pending(Path path) {
+        Task task = pending.get(path);
+
+        return task == null ? null : task.content;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (thread != null) {
+            flush();
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    private synchronized void submit(Task task) {
+        if (thread == null) {
+            thread = new Thread(this::run, "disk-writer");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        queue.add(task);
+    }
+
+    private void run() {
+        List<Task> batch = new ArrayList<>();
+
+        try {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch, properties.getBatchSize() - 1);
+                process(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // Closed.
+        }
+    }
+
+    private void process(List<Task> batch) {
+        Map<Path, Task> writes = new LinkedHashMap<>();
+        List<Task> actions = new ArrayList<>();
+
+        for (Task task : batch) {
+            if (task.action != null) {
+                actions.add(task);
+            } else {
+                // A later write of the same file supersedes the earlier ones.
+                Task superseded = writes.remove(task.path);
+
+                if (superseded != null && superseded.source != null) {
+                    try {
+                        Files.deleteIfExists(superseded.source);
+                    } catch (IOException e) {
+                        logger.warn("Delete [" + superseded.source + "] failed.", e);
+                    }
+                }
+
+                writes.put(task.path, task);
+            }
+        }
+
+        Map<Task, Throwable> failures = new LinkedHashMap<>();
+        Map<Task, FileChannel> channels = new LinkedHashMap<>();
+
+        for (Task task : writes.values()) {
+            if (task.source != null) {
+                try {
+                    channels.put(task, FileChannel.open(task.source, StandardOpenOption.WRITE));
+                } catch (IOException e) {
+                    failures.put(task, e);
+                }
+
+                continue;
+            }
+
+            try {
+                FileChannel channel = FileChannel.open(
+                        temporaryPath(task.path),
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING
+                );
+
+                channels.put(task, channel);
+
+                ByteBuffer content = ByteBuffer.wrap(task.content);
+
+                while (content.hasRemaining()) {
+                    channel.write(content);
+                }
+            } catch (IOException e) {
+                failures.put(task, e);
+            }
+        }
+
+        // Force the whole batch before renaming any of it, so the disk syncs once per batch.
+        for (Map.Entry<Task, FileChannel> entry : channels.entrySet()) {
+            try (FileChannel channel = entry.getValue()) {
+                if (properties.isFsync() && !failures.containsKey(entry.getKey())) {
+                    channel.force(false);
+                }
+            } catch (IOException e) {
+                failures.putIfAbsent(entry.getKey(), e);
+            }
+        }
+
+        for (Task task : writes.values()) {
+            try {
+                Path source = task.source != null ? task.source : temporaryPath(task.path);
+
+                if (!failures.containsKey(task)) {
+                    Files.move(source, task.path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+                    if (task.content != null) {
+                        bytesWritten.increment(task.content.length);
+                    }
+                } else {
+                    Files.deleteIfExists(source);
+                }
+            } catch (IOException e) {
+                failures.putIfAbsent(task, e);
+            }
+        }
+
+        for (Task task : batch) {
+            if (task.action != null) {
+                continue;
+            }
+
+            Task written = writes.get(task.path);
+
+            if (task.content != null) {
+                pending.remove(task.path, task);
+            }
+
+            buffer.release(task.permits);
+
+            if (failures.containsKey(written)) {
+                logger.error("Write [" + task.path + "] failed.", failures.get(written));
+                task.future.completeExceptionally(failures.get(written));
+            } else {
+                task.future.complete(null);
+            }
+        }
+
+        for (Task task : actions) {
+            try {
+                task.action.run();
+                task.future.complete(null);
+            } catch (Exception e) {
+                task.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static Path temporaryPath(Path path) {
+        return path.resolveSibling(path.getFileName() + ".tmp");
+    }
+
+    @FunctionalInterface
+    public interface IoAction {
+        void run() throws IOException;
+    }
+
+    private static final class Task {
+        private final Path path;
+        private final byte[] content;
+        private final IoAction action;
+        /**
+         * File written by the caller, renamed over the path instead of writing a content.
+         */
+        private final Path source;
+        private final int permits;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private Task(Path path, byte[] content, IoAction action, Path source, int permits) {
+            this.path = path;
+            this.content = content;
+            this.action = action;
+            this.source = source;
+            this.permits = permits;
+        }
+    }
+}
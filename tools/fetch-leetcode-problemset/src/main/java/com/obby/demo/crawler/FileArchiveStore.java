@@ -0,0 +1,67 @@
+package com.obby.demo.crawler;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Stores each archive as a file under {@code storage/response/}, written through the {@link DiskWriter}.
+ */
+@Component
+@ConditionalOnProperty(name = "crawler.archive.format", havingValue = "files")
+public class FileArchiveStore implements ArchiveStore {
+    private final Storage storage;
+
+    private final DiskWriter writer;
+
+    public FileArchiveStore(Storage storage, DiskWriter writer) {
+        this.storage = storage;
+        this.writer = writer;
+    }
+
+    @Override
+    public OutputStream create(String key) throws IOException {
+        Path path = storage.basePath("response/" + key);
+
+        return new ByteArrayOutputStream() {
+            private boolean closed;
+
+            @Override
+            public void close() throws IOException {
+                if (!closed) {
+                    closed = true;
+                    writer.write(path, toByteArray());
+                }
+            }
+        };
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        Path path = storage.resolve("response/" + key);
+        byte[] pending = writer.pending(path);
+
+        return pending != null ? new ByteArrayInputStream(pending) : Files.newInputStream(path);
+    }
+
+    @Override
+    public boolean contains(String key) throws IOException {
+        Path path = storage.resolve("response/" + key);
+
+        return writer.pending(path) != null || Files.exists(path);
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Path path = storage.resolve("response/" + key);
+
+        writer.execute(() -> Files.deleteIfExists(path));
+    }
+}
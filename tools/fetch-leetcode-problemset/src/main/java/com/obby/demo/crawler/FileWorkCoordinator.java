@@ -0,0 +1,277 @@
+package com.obby.demo.crawler;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Coordinator of nodes sharing a directory, such as a network file system, in {@code crawler.coordination.path}.
+ * <p>
+ * Each crawl has a directory named after {@code crawler.coordination.crawl-id} holding:
+ * <ul>
+ * <li>{@code plan.tsv}, a line of question slugs per shard, linked into place by the first node so that it is
+ * published once and whole;</li>
+ * <li>{@code shard-<n>.<generation>.lease}, the node holding a shard and when its lease expires. A lease is claimed
+ * by creating the file of the next generation, which fails for all but one node, and renewed by replacing the
+ * content of its file;</li>
+ * <li>{@code shard-<n>.done} once a shard is completed.</li>
+ * </ul>
+ * The directory is resolved once per crawl, when planning, so a crawl named after the day it started keeps its
+ * directory past midnight. Expiry is compared with the clock of each node, which are assumed to be roughly in sync.
+ */
+@Component
+@ConditionalOnProperty(name = "crawler.coordination.type", havingValue = "file")
+public class FileWorkCoordinator implements WorkCoordinator {
+    private static final Pattern LEASE = Pattern.compile("shard-(\\d+)\\.(\\d+)\\.lease");
+
+    private static final Pattern DONE = Pattern.compile("shard-(\\d+)\\.done");
+
+    private final CrawlerProperties.Coordination properties;
+
+    private final Storage storage;
+
+    private final String nodeId;
+
+    private volatile List<List<String>> shards = new ArrayList<>();
+
+    /**
+     * Directory of the crawl planned, null until planned.
+     */
+    private volatile Path directory;
+
+    public FileWorkCoordinator(CrawlerProperties properties, Storage storage) {
+        this.properties = properties.getCoordination();
+        this.storage = storage;
+        this.nodeId = this.properties.getNodeId().isBlank()
+                ? ManagementFactory.getRuntimeMXBean().getName()
+                : this.properties.getNodeId();
+    }
+
+    @Override
+    public List<List<String>> plan(List<List<String>> shards) throws IOException {
+        Path directory = resolveDirectory();
+        Path plan = directory.resolve("plan.tsv");
+
+        if (!Files.exists(plan)) {
+            Path temporaryPath = directory.resolve("plan." + nodeId.replaceAll("[^\\w.-]", "_") + ".tmp");
+
+            Files.write(
+                    temporaryPath,
+                    shards.stream().map(shard -> String.join("\t", shard)).collect(Collectors.toList()),
+                    StandardCharsets.UTF_8
+            );
+
+            try {
+                // Unlike a rename, a link fails if the plan exists, so the first plan published wins.
+                Files.createLink(plan, temporaryPath);
+            } catch (FileAlreadyExistsException e) {
+                // Published by another node meanwhile.
+            } finally {
+                Files.deleteIfExists(temporaryPath);
+            }
+        }
+
+        List<List<String>> published = new ArrayList<>();
+
+        for (String line : Files.readAllLines(plan, StandardCharsets.UTF_8)) {
+            if (!line.isEmpty()) {
+                published.add(Arrays.asList(line.split("\t")));
+            }
+        }
+
+        this.shards = published;
+        this.directory = directory;
+
+        return published;
+    }
+
+    @Override
+    public Lease claim() throws IOException {
+        Path directory = directory();
+        Map<Integer, Integer> generations = new HashMap<>();
+        Set<Integer> completed = new HashSet<>();
+
+        scan(directory, generations, completed);
+
+        long now = System.currentTimeMillis();
+
+        for (int shard = 0; shard < shards.size(); shard++) {
+            Integer generation = generations.get(shard);
+
+            if (completed.contains(shard)
+                    || (generation != null && expiresAt(leasePath(directory, shard, generation)) > now)) {
+                continue;
+            }
+
+            int next = generation == null ? 0 : generation + 1;
+            Path path = leasePath(directory, shard, next);
+
+            try {
+                Files.write(
+                        path,
+                        content(now + properties.getLeaseTtl().toMillis()),
+                        StandardOpenOption.CREATE_NEW,
+                        StandardOpenOption.WRITE
+                );
+            } catch (FileAlreadyExistsException e) {
+                // Claimed by another node meanwhile.
+                continue;
+            }
+
+            return new FileLease(directory, shard, next);
+        }
+
+        return null;
+    }
+
+    @Override
+    public boolean isFinished() throws IOException {
+        Set<Integer> completed = new HashSet<>();
+
+        scan(directory(), new HashMap<>(), completed);
+
+        return completed.size() >= shards.size();
+    }
+
+    private Path directory() {
+        Path directory = this.directory;
+
+        if (directory == null) {
+            throw new IllegalStateException("No crawl planned.");
+        }
+
+        return directory;
+    }
+
+    private Path resolveDirectory() throws IOException {
+        String crawlId = properties.getCrawlId().isBlank()
+                ? LocalDate.now(ZoneOffset.UTC).toString()
+                : properties.getCrawlId();
+        Path root = properties.getPath().isBlank()
+                ? storage.basePath("coordination")
+                : Paths.get(properties.getPath());
+
+        return Files.createDirectories(root.resolve(crawlId));
+    }
+
+    /**
+     * Collect the latest lease generation of each shard and the completed shards.
+     */
+    private static void scan(Path directory, Map<Integer, Integer> generations, Set<Integer> completed)
+            throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                String name = file.getFileName().toString();
+                Matcher lease = LEASE.matcher(name);
+                Matcher done = DONE.matcher(name);
+
+                if (lease.matches()) {
+                    generations.merge(Integer.parseInt(lease.group(1)), Integer.parseInt(lease.group(2)), Math::max);
+                } else if (done.matches()) {
+                    completed.add(Integer.parseInt(done.group(1)));
+                }
+            });
+        }
+    }
+
+    private static Path leasePath(Path directory, int shard, int generation) {
+        return directory.resolve("shard-" + shard + "." + generation + ".lease");
+    }
+
+    private byte[] content(long expiresAt) {
+        return (nodeId + "\t" + expiresAt).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Expiry of a lease, from the modification time of its file if its content is not written yet, or never
+     * will be by a node that stopped right after creating it.
+     */
+    private long expiresAt(Path path) throws IOException {
+        try {
+            String[] fields = Files.readString(path, StandardCharsets.UTF_8).split("\t");
+
+            if (fields.length == 2 && fields[1].matches("\\d+")) {
+                return Long.parseLong(fields[1]);
+            }
+
+            return Files.getLastModifiedTime(path).toMillis() + properties.getLeaseTtl().toMillis();
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+    }
+
+    private final class FileLease implements Lease {
+        private final Path directory;
+
+        private final int shard;
+
+        private final int generation;
+
+        private FileLease(Path directory, int shard, int generation) {
+            this.directory = directory;
+            this.shard = shard;
+            this.generation = generation;
+        }
+
+        @Override
+        public List<String> slugs() {
+            return shards.get(shard);
+        }
+
+        @Override
+        public boolean renew() throws IOException {
+            if (Files.exists(leasePath(directory, shard, generation + 1))) {
+                return false;
+            }
+
+            write(System.currentTimeMillis() + properties.getLeaseTtl().toMillis());
+
+            return true;
+        }
+
+        @Override
+        public void complete() throws IOException {
+            try {
+                Files.createFile(directory.resolve("shard-" + shard + ".done"));
+            } catch (FileAlreadyExistsException e) {
+                // Completed by another node too.
+            }
+        }
+
+        @Override
+        public void release() throws IOException {
+            write(0);
+        }
+
+        private void write(long expiresAt) throws IOException {
+            Path path = leasePath(directory, shard, generation);
+            Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+
+            Files.write(temporaryPath, content(expiresAt));
+            Files.move(temporaryPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.obby.demo.crawler;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * GraphQL documents of the LeetCode requests.
+ * <p>
+ * Batch documents select the same fields as the single ones, once per slug under the aliases {@code q0},
+ * {@code q1}, ... for questions and {@code s0}, {@code s1}, ... for solutions, each bound to the variable of the
+ * same name.
+ * <p>
+ * Each document has a {@link GraphqlTemplate} encoding its requests, those of the batches by size.
+ */
+final class GraphqlQueries {
+    static final String QUESTION_FIELDS = "{\n" +
+            "    questionId\n" +
+            "    questionFrontendId\n" +
+            "    boundTopicId\n" +
+            "    title\n" +
+            "    titleSlug\n" +
+            "    content\n" +
+            "    translatedTitle\n" +
+            "    translatedContent\n" +
+            "    isPaidOnly\n" +
+            "    difficulty\n" +
+            "    likes\n" +
+            "    dislikes\n" +
+            "    isLiked\n" +
+            "    similarQuestions\n" +
+            "    contributors {\n" +
+            "      username\n" +
+            "      profileUrl\n" +
+            "      avatarUrl\n" +
+            "      __typename\n" +
+            "    }\n" +
+            "    langToValidPlayground\n" +
+            "    topicTags {\n" +
+            "      name\n" +
+            "      slug\n" +
+            "      translatedName\n" +
+            "      __typename\n" +
+            "    }\n" +
+            "    companyTagStats\n" +
+            "    codeSnippets {\n" +
+            "      lang\n" +
+            "      langSlug\n" +
+            "      code\n" +
+            "      __typename\n" +
+            "    }\n" +
+            "    stats\n" +
+            "    hints\n" +
+            "    solution {\n" +
+            "      id\n" +
+            "      canSeeDetail\n" +
+            "      __typename\n" +
+            "    }\n" +
+            "    status\n" +
+            "    sampleTestCase\n" +
+            "    metaData\n" +
+            "    judgerAvailable\n" +
+            "    judgeType\n" +
+            "    mysqlSchemas\n" +
+            "    enableRunCode\n" +
+            "    envInfo\n" +
+            "    book {\n" +
+            "      id\n" +
+            "      bookName\n" +
+            "      pressName\n" +
+            "      source\n" +
+            "      shortDescription\n" +
+            "      fullDescription\n" +
+            "      bookImgUrl\n" +
+            "      pressImgUrl\n" +
+            "      productUrl\n" +
+            "      __typename\n" +
+            "    }\n" +
+            "    isSubscribed\n" +
+            "    isDailyQuestion\n" +
+            "    dailyRecordStatus\n" +
+            "    editorType\n" +
+            "    ugcQuestionId\n" +
+            "    style\n" +
+            "    __typename\n" +
+            "  }";
+
+    static final String SOLUTION_ARTICLE_FRAGMENT = "fragment solutionArticle on SolutionArticleNode {\n" +
+            "  uuid\n" +
+            "  title\n" +
+            "  slug\n" +
+            "  sunk\n" +
+            "  chargeType\n" +
+            "  status\n" +
+            "  identifier\n" +
+            "  canEdit\n" +
+            "  reactionType\n" +
+            "  reactionsV2 {\n" +
+            "    count\n" +
+            "    reactionType\n" +
+            "    __typename\n" +
+            "  }\n" +
+            "  tags {\n" +
+            "    name\n" +
+            "    nameTranslated\n" +
+            "    slug\n" +
+            "    __typename\n" +
+            "  }\n" +
+            "  createdAt\n" +
+            "  thumbnail\n" +
+            "  author {\n" +
+            "    username\n" +
+            "    profile {\n" +
+            "      userAvatar\n" +
+            "      userSlug\n" +
+            "      realName\n" +
+            "      __typename\n" +
+            "    }\n" +
+            "    __typename\n" +
+            "  }\n" +
+            "  summary\n" +
+            "  topic {\n" +
+            "    id\n" +
+            "    commentCount\n" +
+            "    viewCount\n" +
+            "    __typename\n" +
+            "  }\n" +
+            "  byLeetcode\n" +
+            "  isMyFavorite\n" +
+            "  isMostPopular\n" +
+            "  isEditorsPick\n" +
+            "  hitCount\n" +
+            "  videosInfo {\n" +
+            "    videoId\n" +
+            "    coverUrl\n" +
+            "    duration\n" +
+            "    __typename\n" +
+            "  }\n" +
+            "  __typename\n" +
+            "}";
+
+    static final String SOLUTION_DETAIL_FIELDS = "{\n" +
+            "    ...solutionArticle\n" +
+            "    content\n" +
+            "    question {\n" +
+            "      questionTitleSlug\n" +
+            "      __typename\n" +
+            "    }\n" +
+            "    position\n" +
+            "    next {\n" +
+            "      slug\n" +
+            "      title\n" +
+            "      __typename\n" +
+            "    }\n" +
+            "    prev {\n" +
+            "      slug\n" +
+            "      title\n" +
+            "      __typename\n" +
+            "    }\n" +
+            "    __typename\n" +
+            "  }";
+
+    static final String QUESTION_DATA = "query questionData($titleSlug: String!) {\n" +
+            "  question(titleSlug: $titleSlug) " + QUESTION_FIELDS + "\n" +
+            "}";
+
+    static final String QUESTION_OF_TODAY = "query questionOfToday {\n" +
+            "  todayRecord {\n" +
+            "    date\n" +
+            "    question {\n" +
+            "      questionFrontendId\n" +
+            "      questionTitleSlug\n" +
+            "      __typename\n" +
+            "    }\n" +
+            "    __typename\n" +
+            "  }\n" +
+            "}";
+
+    static final String QUESTION_SOLUTION_ARTICLES = "query questionSolutionArticles($questionSlug: String!, $skip: Int, $first: Int, $orderBy: SolutionArticleOrderBy, $userInput: String, $tagSlugs: [String!]) {\n" +
+            "  questionSolutionArticles(questionSlug: $questionSlug, skip: $skip, first: $first, orderBy: $orderBy, userInput: $userInput, tagSlugs: $tagSlugs) {\n" +
+            "    totalNum\n" +
+            "    edges {\n" +
+            "      node {\n" +
+            "        ...solutionArticle\n" +
+            "        __typename\n" +
+            "      }\n" +
+            "      __typename\n" +
+            "    }\n" +
+            "    __typename\n" +
+            "  }\n" +
+            "}\n" +
+            "\n" +
+            SOLUTION_ARTICLE_FRAGMENT;
+
+    static final String SOLUTION_DETAIL_ARTICLE = "query solutionDetailArticle($slug: String!, $orderBy: SolutionArticleOrderBy!) {\n" +
+            "  solutionArticle(slug: $slug, orderBy: $orderBy) " + SOLUTION_DETAIL_FIELDS + "\n" +
+            "}\n" +
+            "\n" +
+            SOLUTION_ARTICLE_FRAGMENT;
+
+    static final GraphqlTemplate QUESTION_DATA_REQUEST =
+            new GraphqlTemplate("questionData", QUESTION_DATA, "titleSlug");
+
+    static final GraphqlTemplate QUESTION_OF_TODAY_REQUEST =
+            new GraphqlTemplate("questionOfToday", QUESTION_OF_TODAY);
+
+    static final GraphqlTemplate QUESTION_SOLUTION_ARTICLES_REQUEST = new GraphqlTemplate(
+            "questionSolutionArticles",
+            QUESTION_SOLUTION_ARTICLES,
+            "questionSlug",
+            "first",
+            "skip",
+            "orderBy"
+    );
+
+    static final GraphqlTemplate SOLUTION_DETAIL_ARTICLE_REQUEST =
+            new GraphqlTemplate("solutionDetailArticle", SOLUTION_DETAIL_ARTICLE, "slug", "orderBy");
+
+    private static final Map<Integer, GraphqlTemplate> QUESTION_DATA_BATCH_REQUESTS = new ConcurrentHashMap<>();
+
+    private static final Map<Integer, GraphqlTemplate> SOLUTION_DETAIL_ARTICLE_BATCH_REQUESTS =
+            new ConcurrentHashMap<>();
+
+    private GraphqlQueries() {
+    }
+
+    /**
+     * Question alias of a batch, also the name of its title slug variable.
+     *
+     * @param index index in the batch
+     * @return alias
+     */
+    static String questionAlias(int index) {
+        return "q" + index;
+    }
+
+    /**
+     * Solution alias of a batch, also the name of its slug variable.
+     *
+     * @param index index in the batch
+     * @return alias
+     */
+    static String solutionAlias(int index) {
+        return "s" + index;
+    }
+
+    /**
+     * Request fetching several questions, taking the title slugs in alias order.
+     *
+     * @param size number of questions
+     * @return request template
+     */
+    static GraphqlTemplate questionDataBatchRequest(int size) {
+        return QUESTION_DATA_BATCH_REQUESTS.computeIfAbsent(size, key -> new GraphqlTemplate(
+                "questionDataBatch",
+                questionDataBatch(size),
+                IntStream.range(0, size).mapToObj(GraphqlQueries::questionAlias).toArray(String[]::new)
+        ));
+    }
+
+    /**
+     * Request fetching several solutions, taking the order then the slugs in alias order.
+     *
+     * @param size number of solutions
+     * @return request template
+     */
+    static GraphqlTemplate solutionDetailArticleBatchRequest(int size) {
+        return SOLUTION_DETAIL_ARTICLE_BATCH_REQUESTS.computeIfAbsent(size, key -> new GraphqlTemplate(
+                "solutionDetailArticleBatch",
+                solutionDetailArticleBatch(size),
+                Stream.concat(
+                        Stream.of("orderBy"),
+                        IntStream.range(0, size).mapToObj(GraphqlQueries::solutionAlias)
+                ).toArray(String[]::new)
+        ));
+    }
+
+    /**
+     * Document fetching several questions.
+     *
+     * @param size number of questions
+     * @return document
+     */
+    static String questionDataBatch(int size) {
+        StringBuilder variables = new StringBuilder();
+        StringBuilder selections = new StringBuilder();
+
+        for (int i = 0; i < size; i++) {
+            String alias = questionAlias(i);
+
+            variables.append(i == 0 ? "" : ", ").append("$").append(alias).append(": String!");
+            selections.append("  ").append(alias).append(": question(titleSlug: $").append(alias).append(") ")
+                    .append(QUESTION_FIELDS).append("\n");
+        }
+
+        return "query questionDataBatch(" + variables + ") {\n" + selections + "}";
+    }
+
+    /**
+     * Document fetching several solutions.
+     *
+     * @param size number of solutions
+     * @return document
+     */
+    static String solutionDetailArticleBatch(int size) {
+        StringBuilder variables = new StringBuilder("$orderBy: SolutionArticleOrderBy!");
+        StringBuilder selections = new StringBuilder();
+
+        for (int i = 0; i < size; i++) {
+            String alias = solutionAlias(i);
+
+            variables.append(", $").append(alias).append(": String!");
+            selections.append("  ").append(alias).append(": solutionArticle(slug: $").append(alias)
+                    .append(", orderBy: $orderBy) ").append(SOLUTION_DETAIL_FIELDS).append("\n");
+        }
+
+        return "query solutionDetailArticleBatch(" + variables + ") {\n" + selections + "}\n" +
+                "\n" +
+                SOLUTION_ARTICLE_FRAGMENT;
+    }
+}
@@ -0,0 +1,199 @@
+package com.obby.demo.crawler;
+
+import com.google.common.hash.Hashing;
+import com.google.gson.Gson;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Request body of a GraphQL operation, encoded once but for the values of its variables.
+ * <p>
+ * A body is {@code {"operationName":...,"variables":{...},...}} followed by the document, the automatic persisted
+ * query extension holding the SHA-256 hash of the document in its place, or both to register the document under
+ * its hash once the server asks for it.
+ */
+final class GraphqlTemplate {
+    /**
+     * Bytes of a response peeked at for a persisted query error.
+     */
+    private static final int PEEK_SIZE = 512;
+
+    private static final byte[] COMMA = {','};
+
+    private final String operationName;
+
+    private final byte[] prefix;
+
+    private final byte[][] names;
+
+    private final byte[] document;
+
+    private final byte[] extensions;
+
+    private final int size;
+
+    /**
+     * @param operationName operation name
+     * @param query         document
+     * @param variables     variable names, in the order their values are given
+     */
+    GraphqlTemplate(String operationName, String query, String... variables) {
+        Gson gson = new Gson();
+        String hash = Hashing.sha256().hashString(query, StandardCharsets.UTF_8).toString();
+
+        this.operationName = operationName;
+        this.prefix = ("{\"operationName\":" + gson.toJson(operationName) + ",\"variables\":{")
+                .getBytes(StandardCharsets.UTF_8);
+        this.names = new byte[variables.length][];
+
+        for (int i = 0; i < variables.length; i++) {
+            names[i] = (gson.toJson(variables[i]) + ":").getBytes(StandardCharsets.UTF_8);
+        }
+
+        this.document = (",\"query\":" + gson.toJson(query)).getBytes(StandardCharsets.UTF_8);
+        this.extensions = (",\"extensions\":{\"persistedQuery\":{\"version\":1,\"sha256Hash\":\"" + hash + "\"}}")
+                .getBytes(StandardCharsets.UTF_8);
+        this.size = prefix.length + document.length + extensions.length + 64 * variables.length;
+    }
+
+    String getOperationName() {
+        return operationName;
+    }
+
+    /**
+     * Encode a request body.
+     *
+     * @param mode   what the body carries of the document
+     * @param values values of the variables, a null value leaving its variable out
+     * @return request body
+     */
+    byte[] encode(Mode mode, Object... values) {
+        if (values.length != names.length) {
+            throw new IllegalArgumentException("Operation [" + operationName + "] takes " + names.length
+                    + " variables, given " + values.length + ".");
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size);
+        boolean first = true;
+
+        out.writeBytes(prefix);
+
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null) {
+                continue;
+            }
+
+            if (!first) {
+                out.writeBytes(COMMA);
+            }
+
+            first = false;
+            out.writeBytes(names[i]);
+            out.writeBytes(value(values[i]));
+        }
+
+        out.write('}');
+
+        if (mode != Mode.PERSISTED) {
+            out.writeBytes(document);
+        }
+
+        if (mode != Mode.FULL) {
+            out.writeBytes(extensions);
+        }
+
+        out.write('}');
+
+        return out.toByteArray();
+    }
+
+    /**
+     * Fail on a response telling that a persisted query is unknown or not supported.
+     * <p>
+     * The error is told apart before the body is read, so it is neither archived nor cached as a response.
+     *
+     * @param body response body
+     * @return response body, unread
+     * @throws IOException exception
+     */
+    static InputStream checkPersistedQuery(InputStream body) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(body, PEEK_SIZE);
+
+        in.mark(PEEK_SIZE);
+
+        String head = new String(in.readNBytes(PEEK_SIZE), StandardCharsets.UTF_8);
+
+        in.reset();
+
+        if (head.startsWith("{\"errors\"")) {
+            if (head.contains("PersistedQueryNotFound")) {
+                throw new PersistedQueryException("Persisted query not found.", true);
+            }
+
+            if (head.contains("PersistedQueryNotSupported")) {
+                throw new PersistedQueryException("Persisted queries not supported.", false);
+            }
+        }
+
+        return in;
+    }
+
+    private static byte[] value(Object value) {
+        if (value instanceof Number || value instanceof Boolean) {
+            return value.toString().getBytes(StandardCharsets.UTF_8);
+        }
+
+        String text = value.toString();
+        StringBuilder builder = new StringBuilder(text.length() + 2).append('"');
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+
+            if (c == '"' || c == '\\') {
+                builder.append('\\').append(c);
+            } else if (c < 0x20) {
+                builder.append(String.format("\\u%04x", (int) c));
+            } else {
+                builder.append(c);
+            }
+        }
+
+        return builder.append('"').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    enum Mode {
+        /**
+         * The document.
+         */
+        FULL,
+        /**
+         * The hash of the document in place of it.
+         */
+        PERSISTED,
+        /**
+         * The document and its hash, registering the document under the hash.
+         */
+        REGISTER
+    }
+
+    /**
+     * Response to a persisted query the server does not know or support. Not retryable as such, the request is sent
+     * again with its document.
+     */
+    static final class PersistedQueryException extends RuntimeException {
+        private final boolean supported;
+
+        PersistedQueryException(String message, boolean supported) {
+            super(message);
+            this.supported = supported;
+        }
+
+        boolean isSupported() {
+            return supported;
+        }
+    }
+}
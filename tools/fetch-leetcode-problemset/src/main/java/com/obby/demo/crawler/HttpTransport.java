@@ -0,0 +1,110 @@
+package com.obby.demo.crawler;
+
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends HTTP requests to LeetCode.
+ * <p>
+ * Failures are reported as {@link org.springframework.web.client.RestClientResponseException} for error statuses
+ * and {@link org.springframework.web.client.ResourceAccessException} for I/O errors, whatever the implementation,
+ * so the {@link RequestScheduler} can tell retryable failures apart. Other responses, {@code 304 Not Modified}
+ * included, are handed to the reader.
+ */
+public interface HttpTransport {
+
+    /**
+     * Send a request and read the response body, blocking the calling thread.
+     *
+     * @param request request
+     * @param reader  response reader
+     * @param <T>     result type
+     * @return result
+     * @throws Exception exception
+     */
+    <T> T exchange(Request request, ResponseReader<T> reader) throws Exception;
+
+    /**
+     * Send a request and read the response body asynchronously.
+     *
+     * @param request request
+     * @param reader  response reader
+     * @param <T>     result type
+     * @return result
+     */
+    <T> CompletableFuture<T> exchangeAsync(Request request, ResponseReader<T> reader);
+
+    @FunctionalInterface
+    interface ResponseReader<T> {
+        T read(Response response) throws IOException;
+    }
+
+    class Request {
+        private final String method;
+
+        private final URI uri;
+
+        private final Map<String, String> headers;
+
+        private final byte[] body;
+
+        public Request(String method, URI uri, Map<String, String> headers, byte[] body) {
+            this.method = method;
+            this.uri = uri;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public URI getUri() {
+            return uri;
+        }
+
+        public Map<String, String> getHeaders() {
+            return headers;
+        }
+
+        /**
+         * Request body, null if there is none.
+         *
+         * @return request body
+         */
+        public byte[] getBody() {
+            return body;
+        }
+    }
+
+    class Response {
+        private final int status;
+
+        private final HttpHeaders headers;
+
+        private final InputStream body;
+
+        public Response(int status, HttpHeaders headers, InputStream body) {
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        public InputStream getBody() {
+            return body;
+        }
+    }
+}
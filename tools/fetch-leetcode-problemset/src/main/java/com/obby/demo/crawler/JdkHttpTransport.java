@@ -0,0 +1,111 @@
+package com.obby.demo.crawler;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+
+/**
+ * Non-blocking transport on {@link HttpClient}, with pooled keep-alive connections and HTTP/2 multiplexing where
+ * the server supports it. Responses of every request in flight are handled by {@code crawler.http.threads}
+ * threads.
+ * <p>
+ * A response body is received in full before it is read, since reading a streamed body would block one of
+ * those few threads while the rest of it arrives.
+ */
+@Component
+@ConditionalOnProperty(name = "crawler.http.client", havingValue = "async")
+public class JdkHttpTransport implements HttpTransport {
+    private final CrawlerProperties.Http properties;
+
+    private final HttpClient httpClient;
+
+    public JdkHttpTransport(CrawlerProperties properties) {
+        this.properties = properties.getHttp();
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(this.properties.getConnectTimeout())
+                .executor(Executors.newFixedThreadPool(
+                        this.properties.getThreads(),
+                        new ThreadFactoryBuilder().setNameFormat("http-%d").setDaemon(true).build()
+                ))
+                .build();
+    }
+
+    @Override
+    public <T> T exchange(Request request, ResponseReader<T> reader) throws Exception {
+        try {
+            return exchangeAsync(request, reader).get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<T> exchangeAsync(Request request, ResponseReader<T> reader) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(request.getUri())
+                .timeout(properties.getTimeout())
+                .method(
+                        request.getMethod(),
+                        request.getBody() == null
+                                ? HttpRequest.BodyPublishers.noBody()
+                                : HttpRequest.BodyPublishers.ofByteArray(request.getBody())
+                );
+
+        request.getHeaders().forEach(builder::header);
+
+        return httpClient.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, error) -> {
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+
+                        throw new CompletionException(new ResourceAccessException(
+                                "I/O error on " + request.getMethod() + " request for \"" + request.getUri()
+                                        + "\": " + cause.getMessage(),
+                                cause instanceof IOException ? (IOException) cause : new IOException(cause)
+                        ));
+                    }
+
+                    HttpHeaders headers = new HttpHeaders();
+
+                    response.headers().map().forEach(headers::addAll);
+
+                    if (response.statusCode() >= 400) {
+                        throw new CompletionException(new RestClientResponseException(
+                                response.statusCode() + " on " + request.getMethod() + " request for \""
+                                        + request.getUri() + "\"",
+                                response.statusCode(),
+                                "",
+                                headers,
+                                response.body(),
+                                StandardCharsets.UTF_8
+                        ));
+                    }
+
+                    try {
+                        return reader.read(new Response(
+                                response.statusCode(),
+                                headers,
+                                new ByteArrayInputStream(response.body())
+                        ));
+                    } catch (IOException e) {
+                        throw new CompletionException(new ResourceAccessException(e.getMessage(), e));
+                    } catch (RuntimeException e) {
+                        throw new CompletionException(e);
+                    }
+                });
+    }
+}
@@ -0,0 +1,102 @@
+package com.obby.demo.crawler;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Helpers for walking JSON documents with a {@link JsonReader} without building element trees.
+ */
+final class JsonStreams {
+
+    private JsonStreams() {
+    }
+
+    /**
+     * Descend into nested objects along the names, skipping the other members.
+     *
+     * @param reader reader positioned at an object
+     * @param names  member names
+     * @return whether the reader is positioned at the value of the last member, false if a member is missing
+     * or the path hits a null
+     * @throws IOException exception
+     */
+    static boolean select(JsonReader reader, String... names) throws IOException {
+        for (String name : names) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                return false;
+            }
+
+            reader.beginObject();
+
+            boolean found = false;
+
+            while (reader.hasNext()) {
+                if (name.equals(reader.nextName())) {
+                    found = true;
+                    break;
+                }
+
+                reader.skipValue();
+            }
+
+            if (!found || reader.peek() == JsonToken.NULL) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Copy the next value from the reader to the writer.
+     *
+     * @param reader reader
+     * @param writer writer
+     * @throws IOException exception
+     */
+    static void copy(JsonReader reader, JsonWriter writer) throws IOException {
+        switch (reader.peek()) {
+            case BEGIN_ARRAY:
+                reader.beginArray();
+                writer.beginArray();
+
+                while (reader.hasNext()) {
+                    copy(reader, writer);
+                }
+
+                reader.endArray();
+                writer.endArray();
+                break;
+            case BEGIN_OBJECT:
+                reader.beginObject();
+                writer.beginObject();
+
+                while (reader.hasNext()) {
+                    writer.name(reader.nextName());
+                    copy(reader, writer);
+                }
+
+                reader.endObject();
+                writer.endObject();
+                break;
+            case STRING:
+                writer.value(reader.nextString());
+                break;
+            case NUMBER:
+                writer.jsonValue(reader.nextString());
+                break;
+            case BOOLEAN:
+                writer.value(reader.nextBoolean());
+                break;
+            case NULL:
+                reader.nextNull();
+                writer.nullValue();
+                break;
+            default:
+                throw new IllegalStateException("Unexpected token: " + reader.peek() + ".");
+        }
+    }
+}
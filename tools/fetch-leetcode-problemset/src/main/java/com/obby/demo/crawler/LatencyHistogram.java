@@ -0,0 +1,69 @@
+package com.obby.demo.crawler;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of latencies in microseconds, with 16 buckets per power of two, so a percentile is accurate
+ * to about 6%.
+ */
+final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray((64 - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS);
+
+    void record(long nanos) {
+        counts.incrementAndGet(index(Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos))));
+    }
+
+    /**
+     * Latency below which a ratio of the recorded latencies fall.
+     *
+     * @param ratio ratio, such as 0.99
+     * @return latency in milliseconds, 0 if nothing is recorded
+     */
+    double percentile(double ratio) {
+        long total = 0;
+
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+
+        long rank = (long) Math.ceil(ratio * total);
+        long seen = 0;
+
+        for (int i = 0; i < counts.length() && total > 0; i++) {
+            seen += counts.get(i);
+
+            if (seen >= Math.max(1, rank)) {
+                return upperBound(i) / 1000.0;
+            }
+        }
+
+        return 0;
+    }
+
+    private static int index(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+
+        return ((exponent - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) | subBucket;
+    }
+
+    private static long upperBound(int index) {
+        int row = index >>> SUB_BUCKET_BITS;
+        int subBucket = index & (SUB_BUCKETS - 1);
+
+        if (row == 0) {
+            return subBucket;
+        }
+
+        return ((long) (SUB_BUCKETS | subBucket) + 1 << (row - 1)) - 1;
+    }
+}
@@ -0,0 +1,1101 @@
+package com.obby.demo.crawler;
+
+import com.google.common.collect.Lists;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingInputStream;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.obby.demo.model.Question;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.io.input.TeeInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * LeetCode client.
+ * <p>
+ * Each response body is read once as a stream: it is copied verbatim to its archive in the {@link ArchiveStore}
+ * while a {@link JsonReader} binds the fields the models need, without building
+ * intermediate element trees.
+ * <p>
+ * Responses of the operations cached by the {@link ResponseCache} are served from their archive while fresh, and
+ * revalidated afterwards. Their bodies are received whole, to be compared with the archived ones before being
+ * archived.
+ */
+@Component
+public class LeetcodeClient {
+    private static final Logger logger = LoggerFactory.getLogger(LeetcodeClient.class);
+
+    /**
+     * Consecutive batch failures after which batching is given up, assuming the server does not support it.
+     */
+    private static final int MAX_BATCH_FAILURES = 3;
+
+    private final Gson gson = new Gson();
+
+    private final AtomicInteger batchFailures = new AtomicInteger();
+
+    private final CrawlerProperties properties;
+
+    private final ArchiveStore archives;
+
+    private final RequestScheduler scheduler;
+
+    private final HttpTransport transport;
+
+    private final ResponseCache cache;
+
+    private final MeterRegistry registry;
+
+    private final URI graphqlUri;
+
+    /**
+     * Whether GraphQL requests are sent as persisted queries, until the server turns one down as not supported.
+     */
+    private volatile boolean persistedQueries;
+
+    public LeetcodeClient(
+            CrawlerProperties properties,
+            ArchiveStore archives,
+            RequestScheduler scheduler,
+            HttpTransport transport,
+            ResponseCache cache,
+            MeterRegistry registry
+    ) {
+        this.properties = properties;
+        this.archives = archives;
+        this.scheduler = scheduler;
+        this.transport = transport;
+        this.cache = cache;
+        this.registry = registry;
+        this.graphqlUri = URI.create(properties.getBaseUrl() + "/graphql/");
+        this.persistedQueries = properties.getHttp().isPersistedQueries();
+
+        // Question refers to itself through similarQuestions, and Gson may hand a half-built adapter
+        // to another thread while resolving such a type, so resolve it before the workers start.
+        gson.getAdapter(Question.class);
+    }
+
+    /**
+     * Fetch all question slugs.
+     *
+     * @return all question slugs
+     * @throws Exception exception
+     */
+    public List<String> fetchQuestionSlugs() throws Exception {
+        return fetchProblems().stream().map(Problem::getSlug).collect(Collectors.toList());
+    }
+
+    /**
+     * Fetch all free questions of the problem listing.
+     *
+     * @return all free questions
+     * @throws Exception exception
+     */
+    public List<Problem> fetchProblems() throws Exception {
+        return exchange(
+                "problems",
+                new HttpTransport.Request(
+                        "GET",
+                        URI.create(properties.getBaseUrl() + "/api/problems/all/"),
+                        Map.of(),
+                        null
+                ),
+                "questions.json",
+                this::parseProblems
+        );
+    }
+
+    /**
+     * Load all free questions from an archived problem listing.
+     *
+     * @param key archive key of the problem listing
+     * @return all free questions, empty if the listing is not archived
+     * @throws Exception exception
+     */
+    public List<Problem> loadProblems(String key) throws Exception {
+        if (!archives.contains(key)) {
+            return new ArrayList<>();
+        }
+
+        return read(archives.open(key), null, this::parseProblems);
+    }
+
+    /**
+     * Fetch the slugs of the questions of the day.
+     *
+     * @return question slugs
+     * @throws Exception exception
+     */
+    public List<String> fetchDailyQuestionSlugs() throws Exception {
+        return exchange(
+                GraphqlQueries.QUESTION_OF_TODAY_REQUEST,
+                properties.getBaseUrl() + "/problemset/all/",
+                null,
+                this::parseDailyQuestionSlugs
+        );
+    }
+
+    /**
+     * Fetch a question by the slug.
+     *
+     * @param slug question slug
+     * @return question
+     * @throws Exception exception
+     */
+    public Question fetchQuestion(String slug) throws Exception {
+        return exchange(
+                GraphqlQueries.QUESTION_DATA_REQUEST,
+                properties.getBaseUrl() + "/problems/" + slug + "/",
+                "questions/" + slug + "/question.json",
+                reader -> parseQuestion(slug, reader),
+                slug
+        );
+    }
+
+    /**
+     * Fetch all solution slugs by the question slug.
+     *
+     * @param questionSlug question slug
+     * @return all solution slugs
+     * @throws Exception exception
+     */
+    public List<String> fetchSolutionSlugs(String questionSlug) throws Exception {
+        return fetchSolutionSlugs(questionSlug, page -> {
+        });
+    }
+
+    /**
+     * Fetch the solution slugs by the question slug, in pages of {@code crawler.solutions.page-size} slugs ordered
+     * by {@code crawler.solutions.order-by}, up to {@code crawler.solutions.limit} slugs.
+     * <p>
+     * Each page is handed to the consumer as soon as it arrives, before the next page is requested, without the
+     * slugs of the previous pages: a solution published while paging shifts the listing, so a page may repeat the
+     * last slugs of the previous one. Paging stops at the total the listing reports, or at a page adding no slugs,
+     * as a listing ignoring the skip would send the first page over and over.
+     *
+     * @param questionSlug question slug
+     * @param consumer     page consumer
+     * @return all solution slugs, each once
+     * @throws Exception exception
+     */
+    public List<String> fetchSolutionSlugs(String questionSlug, PageConsumer consumer) throws Exception {
+        CrawlerProperties.Solutions solutions = properties.getSolutions();
+        int pageSize = solutions.getPageSize();
+        int limit = solutions.getLimit();
+        Set<String> slugs = new LinkedHashSet<>();
+
+        for (int page = 0; ; page++) {
+            int first = pageSize > 0 ? pageSize : limit;
+
+            if (pageSize > 0 && limit > 0) {
+                first = Math.min(first, limit - slugs.size());
+            }
+
+            SolutionPage listing = exchange(
+                    GraphqlQueries.QUESTION_SOLUTION_ARTICLES_REQUEST,
+                    properties.getBaseUrl() + "/problems/" + questionSlug + "/solution/",
+                    "questions/" + questionSlug + (pageSize > 0 ? "/solutions-" + page : "/solutions") + ".json",
+                    reader -> parseSolutionSlugs(questionSlug, reader),
+                    questionSlug,
+                    first > 0 ? first : null,
+                    first > 0 ? page * pageSize : null,
+                    solutions.getOrderBy()
+            );
+
+            List<String> added = listing.slugs.stream().filter(slugs::add).collect(Collectors.toList());
+
+            consumer.accept(added);
+
+            if (pageSize <= 0
+                    || listing.slugs.size() < first
+                    || added.isEmpty()
+                    || (listing.total >= 0 && (long) (page + 1) * pageSize >= listing.total)
+                    || (limit > 0 && slugs.size() >= limit)) {
+                return new ArrayList<>(slugs);
+            }
+        }
+    }
+
+    /**
+     * Fetch a solution by the question slug and the solution slug.
+     *
+     * @param questionSlug question slug
+     * @param slug         solution slug
+     * @return solution
+     * @throws Exception exception
+     */
+    public Question.Solution fetchSolution(String questionSlug, String slug) throws Exception {
+        return exchange(
+                GraphqlQueries.SOLUTION_DETAIL_ARTICLE_REQUEST,
+                solutionReferer(questionSlug, slug),
+                solutionKey(questionSlug, slug),
+                reader -> parseSolution(slug, reader),
+                slug,
+                "DEFAULT"
+        );
+    }
+
+    /**
+     * Fetch a solution by the question slug and the solution slug asynchronously.
+     *
+     * @param questionSlug question slug
+     * @param slug         solution slug
+     * @return solution
+     * @throws Exception exception
+     */
+    public CompletableFuture<Question.Solution> fetchSolutionAsync(String questionSlug, String slug) throws Exception {
+        return exchangeAsync(
+                GraphqlQueries.SOLUTION_DETAIL_ARTICLE_REQUEST,
+                solutionReferer(questionSlug, slug),
+                solutionKey(questionSlug, slug),
+                reader -> parseSolution(slug, reader),
+                slug,
+                "DEFAULT"
+        );
+    }
+
+    private String solutionReferer(String questionSlug, String slug) {
+        return properties.getBaseUrl() + "/problems/" + questionSlug + "/solution/" + slug + "/";
+    }
+
+    /**
+     * Fetch several questions in batched requests of {@code crawler.batch-size} questions.
+     * <p>
+     * Each question is archived as if fetched by {@link #fetchQuestion(String)}. A question missing from its batch
+     * response, or whose batch failed, is left out, to be fetched on its own.
+     *
+     * @param slugs question slugs
+     * @return questions by slug
+     * @throws Exception exception
+     */
+    public Map<String, Question> fetchQuestions(List<String> slugs) throws Exception {
+        Map<String, Question> questions = new HashMap<>();
+
+        if (!isBatching()) {
+            return questions;
+        }
+
+        List<String> requested = new ArrayList<>();
+
+        // Fresh questions are left out, to be read from their archive.
+        for (String slug : slugs) {
+            if (!isFresh(cached("questionData", "questions/" + slug + "/question.json"))) {
+                requested.add(slug);
+            }
+        }
+
+        for (List<String> batch : Lists.partition(requested, properties.getBatchSize())) {
+            if (batch.size() == 1) {
+                continue;
+            }
+
+            Map<String, String> aliases = new LinkedHashMap<>();
+
+            for (int i = 0; i < batch.size(); i++) {
+                aliases.put(GraphqlQueries.questionAlias(i), batch.get(i));
+            }
+
+            try {
+                questions.putAll(exchange(
+                        GraphqlQueries.questionDataBatchRequest(batch.size()),
+                        properties.getBaseUrl() + "/problems/" + batch.get(0) + "/",
+                        null,
+                        reader -> parseBatch(
+                                reader,
+                                aliases,
+                                "questionData",
+                                "question",
+                                slug -> "questions/" + slug + "/question.json",
+                                Question.class
+                        ),
+                        batch.toArray()
+                ));
+                batchFailures.set(0);
+            } catch (Exception e) {
+                batchFailed("Questions " + batch, e);
+            }
+        }
+
+        return questions;
+    }
+
+    /**
+     * Fetch several solutions asynchronously, in batched requests of {@code crawler.batch-size} solutions.
+     * <p>
+     * Each solution is archived as if fetched by {@link #fetchSolution(String, String)}. A solution missing from
+     * its batch response, or whose batch failed, falls back to a request of its own.
+     *
+     * @param questionSlug question slug
+     * @param slugs        solution slugs
+     * @return solutions by slug
+     * @throws Exception exception
+     */
+    public Map<String, CompletableFuture<Question.Solution>> fetchSolutionsAsync(
+            String questionSlug,
+            List<String> slugs
+    ) throws Exception {
+        Map<String, CompletableFuture<Question.Solution>> solutions = new LinkedHashMap<>();
+        List<String> requested = new ArrayList<>();
+
+        // Fresh solutions are left out of the batches, to be read from their archive.
+        for (String slug : slugs) {
+            if (isFresh(cached("solutionDetailArticle", solutionKey(questionSlug, slug)))) {
+                solutions.put(slug, fetchSolutionAsync(questionSlug, slug));
+            } else {
+                requested.add(slug);
+            }
+        }
+
+        for (List<String> batch : Lists.partition(requested, Math.max(1, properties.getBatchSize()))) {
+            if (batch.size() == 1 || !isBatching()) {
+                for (String slug : batch) {
+                    solutions.put(slug, fetchSolutionAsync(questionSlug, slug));
+                }
+
+                continue;
+            }
+
+            Map<String, String> aliases = new LinkedHashMap<>();
+
+            for (int i = 0; i < batch.size(); i++) {
+                aliases.put(GraphqlQueries.solutionAlias(i), batch.get(i));
+            }
+
+            List<Object> variables = new ArrayList<>(batch.size() + 1);
+
+            variables.add("DEFAULT");
+            variables.addAll(batch);
+
+            CompletableFuture<Map<String, Question.Solution>> response = exchangeAsync(
+                    GraphqlQueries.solutionDetailArticleBatchRequest(batch.size()),
+                    properties.getBaseUrl() + "/problems/" + questionSlug + "/solution/",
+                    null,
+                    reader -> parseBatch(
+                            reader,
+                            aliases,
+                            "solutionDetailArticle",
+                            "solutionArticle",
+                            slug -> solutionKey(questionSlug, slug),
+                            Question.Solution.class
+                    ),
+                    variables.toArray()
+            ).whenComplete((batchSolutions, error) -> {
+                if (error == null) {
+                    batchFailures.set(0);
+                } else {
+                    batchFailed("Question [" + questionSlug + "] solutions " + batch, error);
+                }
+            });
+
+            for (String slug : batch) {
+                solutions.put(slug, response
+                        .handle((batchSolutions, error) -> error == null ? batchSolutions.get(slug) : null)
+                        .thenCompose(solution -> {
+                            if (solution != null) {
+                                return CompletableFuture.completedFuture(solution);
+                            }
+
+                            try {
+                                return fetchSolutionAsync(questionSlug, slug);
+                            } catch (Exception e) {
+                                return CompletableFuture.failedFuture(e);
+                            }
+                        }));
+            }
+        }
+
+        return solutions;
+    }
+
+    /**
+     * Whether the response of a solution is archived, so it can be loaded without requesting it.
+     *
+     * @param questionSlug question slug
+     * @param slug         solution slug
+     * @return whether archived
+     * @throws Exception exception
+     */
+    public boolean isSolutionArchived(String questionSlug, String slug) throws Exception {
+        return archives.contains(solutionKey(questionSlug, slug));
+    }
+
+    /**
+     * Load a question from its archived response, without requesting it.
+     *
+     * @param slug question slug
+     * @return question
+     * @throws Exception exception
+     */
+    public Question loadQuestion(String slug) throws Exception {
+        return read(archives.open("questions/" + slug + "/question.json"), null, reader -> parseQuestion(slug, reader));
+    }
+
+    /**
+     * Load a solution from its archived response, without requesting it.
+     *
+     * @param questionSlug question slug
+     * @param slug         solution slug
+     * @return solution
+     * @throws Exception exception
+     */
+    public Question.Solution loadSolution(String questionSlug, String slug) throws Exception {
+        return read(
+                archives.open(solutionKey(questionSlug, slug)),
+                null,
+                reader -> parseSolution(slug, reader)
+        );
+    }
+
+    private static String solutionKey(String questionSlug, String slug) {
+        return "questions/" + questionSlug + "/solutions/" + slug + ".json";
+    }
+
+    private HttpTransport.Request graphql(String referer, byte[] body) {
+        return new HttpTransport.Request(
+                "POST",
+                graphqlUri,
+                Map.of(
+                        HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE,
+                        HttpHeaders.ORIGIN, properties.getBaseUrl(),
+                        HttpHeaders.REFERER, referer
+                ),
+                body
+        );
+    }
+
+    /**
+     * Send a GraphQL request, as a persisted query first if {@code crawler.http.persisted-queries} is enabled.
+     * <p>
+     * A persisted query unknown to the server is sent again with its document, registering it, and persisted
+     * queries are given up once the server turns one down as not supported.
+     *
+     * @param template request template
+     * @param referer  referer
+     * @param archive  archive key of the response body, null if not archived
+     * @param parser   response body parser
+     * @param values   values of the variables of the template
+     * @param <T>      result type
+     * @return result
+     * @throws Exception exception
+     */
+    private <T> T exchange(
+            GraphqlTemplate template,
+            String referer,
+            String archive,
+            Parser<T> parser,
+            Object... values
+    ) throws Exception {
+        String operation = template.getOperationName();
+
+        if (persistedQueries) {
+            try {
+                return exchange(
+                        operation,
+                        graphql(referer, template.encode(GraphqlTemplate.Mode.PERSISTED, values)),
+                        archive,
+                        parser
+                );
+            } catch (Exception e) {
+                if (!isPersistedQueryMissed(operation, e)) {
+                    throw e;
+                }
+            }
+        }
+
+        return exchange(operation, graphql(referer, template.encode(fullMode(), values)), archive, parser);
+    }
+
+    /**
+     * Send a GraphQL request asynchronously, as {@link #exchange(GraphqlTemplate, String, String, Parser, Object...)}.
+     */
+    private <T> CompletableFuture<T> exchangeAsync(
+            GraphqlTemplate template,
+            String referer,
+            String archive,
+            Parser<T> parser,
+            Object... values
+    ) {
+        String operation = template.getOperationName();
+
+        if (!persistedQueries) {
+            return exchangeAsync(operation, graphql(referer, template.encode(fullMode(), values)), archive, parser);
+        }
+
+        return exchangeAsync(
+                operation,
+                graphql(referer, template.encode(GraphqlTemplate.Mode.PERSISTED, values)),
+                archive,
+                parser
+        ).handle((result, error) -> {
+            if (error == null) {
+                return CompletableFuture.completedFuture(result);
+            }
+
+            if (!isPersistedQueryMissed(operation, error)) {
+                return CompletableFuture.<T>failedFuture(error);
+            }
+
+            return exchangeAsync(operation, graphql(referer, template.encode(fullMode(), values)), archive, parser);
+        }).thenCompose(Function.identity());
+    }
+
+    /**
+     * Mode of a request sending its document, registering it under its hash while persisted queries are used.
+     */
+    private GraphqlTemplate.Mode fullMode() {
+        return persistedQueries ? GraphqlTemplate.Mode.REGISTER : GraphqlTemplate.Mode.FULL;
+    }
+
+    /**
+     * Whether a persisted query failed as unknown or unsupported by the server, to be sent again with its
+     * document. A server turning down requests without a document with {@code 400 Bad Request} is taken as not
+     * supporting persisted queries.
+     */
+    private boolean isPersistedQueryMissed(String operation, Throwable error) {
+        Throwable cause = error;
+
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+
+        boolean supported;
+
+        if (cause instanceof GraphqlTemplate.PersistedQueryException) {
+            supported = ((GraphqlTemplate.PersistedQueryException) cause).isSupported();
+        } else if (cause instanceof RestClientResponseException
+                && ((RestClientResponseException) cause).getRawStatusCode() == HttpStatus.BAD_REQUEST.value()) {
+            supported = false;
+        } else {
+            return false;
+        }
+
+        Counter.builder("crawler.persisted-queries.missed")
+                .description("Persisted queries sent again with their document")
+                .tag("operation", operation)
+                .tag("reason", supported ? "not-found" : "not-supported")
+                .register(registry)
+                .increment();
+
+        if (!supported && persistedQueries) {
+            persistedQueries = false;
+
+            logger.warn("Persisted queries not supported by the server, sending documents instead.");
+        }
+
+        return true;
+    }
+
+    /**
+     * Send a request through the scheduler and parse the response body as it streams in.
+     *
+     * @param operation operation name
+     * @param request   request
+     * @param archive   archive key of the response body, null if not archived
+     * @param parser    response body parser
+     * @param <T>       result type
+     * @return result
+     * @throws Exception exception
+     */
+    private <T> T exchange(String operation, HttpTransport.Request request, String archive, Parser<T> parser)
+            throws Exception {
+        ResponseCache.Entry cached = cached(operation, archive);
+
+        if (isFresh(cached)) {
+            cache.record(operation, ResponseCache.Outcome.FRESH);
+
+            return read(archives.open(archive), null, parser);
+        }
+
+        HttpTransport.Request conditional = cache.conditional(request, cached);
+
+        return scheduler.execute(
+                operation,
+                () -> transport.exchange(conditional, response -> receive(operation, response, archive, cached, parser))
+        );
+    }
+
+    /**
+     * Send a request through the scheduler asynchronously.
+     *
+     * @param operation operation name
+     * @param request   request
+     * @param archive   archive key of the response body, null if not archived
+     * @param parser    response body parser
+     * @param <T>       result type
+     * @return result
+     */
+    private <T> CompletableFuture<T> exchangeAsync(
+            String operation,
+            HttpTransport.Request request,
+            String archive,
+            Parser<T> parser
+    ) {
+        ResponseCache.Entry cached;
+
+        try {
+            cached = cached(operation, archive);
+
+            if (isFresh(cached)) {
+                cache.record(operation, ResponseCache.Outcome.FRESH);
+
+                return CompletableFuture.completedFuture(read(archives.open(archive), null, parser));
+            }
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        HttpTransport.Request conditional = cache.conditional(request, cached);
+
+        return scheduler.submit(
+                operation,
+                () -> transport.exchangeAsync(
+                        conditional,
+                        response -> receive(operation, response, archive, cached, parser)
+                )
+        );
+    }
+
+    /**
+     * Cache entry of a response, provided its archive is still there to serve it.
+     */
+    private ResponseCache.Entry cached(String operation, String archive) throws IOException {
+        ResponseCache.Entry entry = cache.get(operation, archive);
+
+        return entry != null && archives.contains(archive) ? entry : null;
+    }
+
+    private boolean isFresh(ResponseCache.Entry entry) {
+        return entry != null && cache.isFresh(entry);
+    }
+
+    /**
+     * Read a response, counting its bytes in {@code crawler.bytes.downloaded}.
+     */
+    private <T> T receive(
+            String operation,
+            HttpTransport.Response response,
+            String archive,
+            ResponseCache.Entry cached,
+            Parser<T> parser
+    ) throws IOException {
+        CountingInputStream in = new CountingInputStream(GraphqlTemplate.checkPersistedQuery(response.getBody()));
+
+        try {
+            if (archive == null || !cache.isCached(operation)) {
+                return read(in, archive, parser);
+            }
+
+            if (cached != null && response.getStatus() == HttpStatus.NOT_MODIFIED.value()) {
+                ByteStreams.exhaust(in);
+                cache.revalidated(archive, cached);
+                cache.record(operation, ResponseCache.Outcome.NOT_MODIFIED);
+
+                return read(archives.open(archive), null, parser);
+            }
+
+            byte[] body = ByteStreams.toByteArray(in);
+            T result = read(new ByteArrayInputStream(body), null, parser);
+
+            store(operation, archive, cached, response.getHeaders(), body);
+
+            return result;
+        } finally {
+            Counter.builder("crawler.bytes.downloaded")
+                    .description("Response bytes received")
+                    .baseUnit("bytes")
+                    .tag("operation", operation)
+                    .register(registry)
+                    .increment(in.getCount());
+        }
+    }
+
+    private <T> T read(InputStream body, String archive, Parser<T> parser) throws IOException {
+        ByteArrayOutputStream copy = archive == null ? null : new ByteArrayOutputStream();
+        T result;
+
+        try (InputStream in = copy == null ? body : new TeeInputStream(body, copy)) {
+            result = parser.parse(new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+
+            // Drain what the parser did not need, so the archive gets the whole body.
+            ByteStreams.exhaust(in);
+        }
+
+        // A body cut off or failing to parse is not archived, as it would be trusted by the next crawl.
+        if (copy != null) {
+            try (OutputStream out = archives.create(archive)) {
+                copy.writeTo(out);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Bind the aliased results of a batch response, archiving each in the shape of a single response.
+     *
+     * @param reader    reader positioned at the response body
+     * @param aliases   slugs by alias
+     * @param operation operation of the single response
+     * @param field     field of the single response
+     * @param archive   archive key of a single response by slug
+     * @param type      result type
+     * @param <T>       result type
+     * @return results by slug, without the null ones
+     * @throws IOException exception
+     */
+    private <T> Map<String, T> parseBatch(
+            JsonReader reader,
+            Map<String, String> aliases,
+            String operation,
+            String field,
+            Function<String, String> archive,
+            Class<T> type
+    ) throws IOException {
+        Map<String, T> results = new HashMap<>();
+
+        if (!JsonStreams.select(reader, "data")) {
+            return results;
+        }
+
+        reader.beginObject();
+
+        while (reader.hasNext()) {
+            String slug = aliases.get(reader.nextName());
+
+            if (slug == null || reader.peek() == JsonToken.NULL) {
+                reader.skipValue();
+                continue;
+            }
+
+            StringWriter json = new StringWriter();
+
+            JsonStreams.copy(reader, new JsonWriter(json));
+
+            String key = archive.apply(slug);
+            byte[] body = ("{\"data\":{\"" + field + "\":" + json + "}}").getBytes(StandardCharsets.UTF_8);
+
+            if (cache.isCached(operation)) {
+                store(operation, key, cached(operation, key), null, body);
+            } else {
+                try (OutputStream out = archives.create(key)) {
+                    out.write(body);
+                }
+            }
+
+            results.put(slug, gson.fromJson(json.toString(), type));
+        }
+
+        return results;
+    }
+
+    /**
+     * Archive a response body of a cached operation, unless it has the fingerprint of the archived one, and record
+     * it in the cache.
+     */
+    private void store(
+            String operation,
+            String archive,
+            ResponseCache.Entry cached,
+            HttpHeaders headers,
+            byte[] body
+    ) throws IOException {
+        String fingerprint = ResponseCache.fingerprint(body);
+
+        if (cached != null && fingerprint.equals(cached.getFingerprint())) {
+            cache.record(operation, ResponseCache.Outcome.UNCHANGED);
+        } else {
+            try (OutputStream out = archives.create(archive)) {
+                out.write(body);
+            }
+
+            cache.record(operation, cached == null ? ResponseCache.Outcome.MISS : ResponseCache.Outcome.CHANGED);
+        }
+
+        cache.put(archive, headers, fingerprint, body.length);
+    }
+
+    private boolean isBatching() {
+        return properties.getBatchSize() > 1 && batchFailures.get() < MAX_BATCH_FAILURES;
+    }
+
+    private void batchFailed(String batch, Throwable error) {
+        if (batchFailures.incrementAndGet() == MAX_BATCH_FAILURES) {
+            logger.warn("Batches failed " + MAX_BATCH_FAILURES + " times in a row, batching disabled.");
+        }
+
+        logger.warn(batch + " batch failed, falling back to single requests.", error);
+    }
+
+    private List<Problem> parseProblems(JsonReader reader) throws IOException {
+        List<Problem> problems = new ArrayList<>();
+
+        if (!JsonStreams.select(reader, "stat_status_pairs")) {
+            throw new IllegalStateException("Problem listing not found.");
+        }
+
+        reader.beginArray();
+
+        while (reader.hasNext()) {
+            Problem problem = parseProblem(reader);
+
+            if (problem != null) {
+                problems.add(problem);
+            }
+        }
+
+        reader.endArray();
+
+        return problems;
+    }
+
+    /**
+     * Parse a problem listing entry.
+     *
+     * @param reader reader positioned at the entry
+     * @return problem, null if the question is paid only
+     * @throws IOException exception
+     */
+    private Problem parseProblem(JsonReader reader) throws IOException {
+        Problem problem = new Problem();
+        StringWriter fingerprint = new StringWriter();
+        JsonWriter writer = new JsonWriter(fingerprint);
+        boolean paidOnly = false;
+
+        problem.setSolutionCount(-1);
+        problem.setAcceptedCount(-1);
+        writer.beginObject();
+        reader.beginObject();
+
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "stat":
+                    reader.beginObject();
+
+                    while (reader.hasNext()) {
+                        String name = reader.nextName();
+
+                        if ("total_acs".equals(name) && reader.peek() == JsonToken.NUMBER) {
+                            problem.setAcceptedCount(reader.nextLong());
+                        } else if ("total_acs".equals(name) || "total_submitted".equals(name)) {
+                            reader.skipValue();
+                        } else if ("total_column_articles".equals(name)) {
+                            if (reader.peek() == JsonToken.NUMBER) {
+                                problem.setSolutionCount(reader.nextLong());
+                            } else {
+                                reader.skipValue();
+                            }
+                        } else if ("question__title_slug".equals(name)) {
+                            problem.setSlug(reader.nextString());
+                            writer.name(name).value(problem.getSlug());
+                        } else {
+                            writer.name(name);
+                            JsonStreams.copy(reader, writer);
+                        }
+                    }
+
+                    reader.endObject();
+                    break;
+                case "difficulty":
+                    writer.name("difficulty");
+                    JsonStreams.copy(reader, writer);
+                    break;
+                case "paid_only":
+                    paidOnly = reader.nextBoolean();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+
+        reader.endObject();
+        writer.endObject();
+
+        if (paidOnly) {
+            return null;
+        }
+
+        problem.setFingerprint(Hashing.sha256().hashString(fingerprint.toString(), StandardCharsets.UTF_8).toString());
+
+        return problem;
+    }
+
+    private List<String> parseDailyQuestionSlugs(JsonReader reader) throws IOException {
+        List<String> slugs = new ArrayList<>();
+
+        if (!JsonStreams.select(reader, "data", "todayRecord") || reader.peek() != JsonToken.BEGIN_ARRAY) {
+            return slugs;
+        }
+
+        reader.beginArray();
+
+        while (reader.hasNext()) {
+            reader.beginObject();
+
+            while (reader.hasNext()) {
+                if ("question".equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                    reader.beginObject();
+
+                    while (reader.hasNext()) {
+                        if ("questionTitleSlug".equals(reader.nextName()) && reader.peek() == JsonToken.STRING) {
+                            slugs.add(reader.nextString());
+                        } else {
+                            reader.skipValue();
+                        }
+                    }
+
+                    reader.endObject();
+                } else {
+                    reader.skipValue();
+                }
+            }
+
+            reader.endObject();
+        }
+
+        reader.endArray();
+
+        return slugs;
+    }
+
+    private SolutionPage parseSolutionSlugs(String questionSlug, JsonReader reader) throws IOException {
+        if (!JsonStreams.select(reader, "data", "questionSolutionArticles")) {
+            throw new IllegalStateException("Question [" + questionSlug + "] solutions not found.");
+        }
+
+        List<String> slugs = null;
+        int total = -1;
+
+        reader.beginObject();
+
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+
+            if (reader.peek() == JsonToken.NULL) {
+                reader.skipValue();
+            } else if ("totalNum".equals(name)) {
+                total = reader.nextInt();
+            } else if ("edges".equals(name)) {
+                slugs = parseEdges(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+
+        reader.endObject();
+
+        if (slugs == null) {
+            throw new IllegalStateException("Question [" + questionSlug + "] solutions not found.");
+        }
+
+        return new SolutionPage(slugs, total);
+    }
+
+    private List<String> parseEdges(JsonReader reader) throws IOException {
+        List<String> slugs = new ArrayList<>();
+
+        reader.beginArray();
+
+        while (reader.hasNext()) {
+            reader.beginObject();
+
+            while (reader.hasNext()) {
+                if (!"node".equals(reader.nextName())) {
+                    reader.skipValue();
+                    continue;
+                }
+
+                reader.beginObject();
+
+                while (reader.hasNext()) {
+                    if ("slug".equals(reader.nextName())) {
+                        slugs.add(reader.nextString());
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+
+                reader.endObject();
+            }
+
+            reader.endObject();
+        }
+
+        reader.endArray();
+
+        return slugs;
+    }
+
+    private Question parseQuestion(String slug, JsonReader reader) throws IOException {
+        if (!JsonStreams.select(reader, "data", "question")) {
+            throw new IllegalStateException("Question [" + slug + "] not found.");
+        }
+
+        return gson.fromJson(reader, Question.class);
+    }
+
+    private Question.Solution parseSolution(String slug, JsonReader reader) throws IOException {
+        if (!JsonStreams.select(reader, "data", "solutionArticle")) {
+            throw new IllegalStateException("Solution [" + slug + "] not found.");
+        }
+
+        return gson.fromJson(reader, Question.Solution.class);
+    }
+
+    @FunctionalInterface
+    public interface PageConsumer {
+        void accept(List<String> page) throws Exception;
+    }
+
+    @FunctionalInterface
+    private interface Parser<T> {
+        T parse(JsonReader reader) throws IOException;
+    }
+
+    /**
+     * Page of solution slugs, with the total of the listing, -1 if not reported.
+     */
+    private static final class SolutionPage {
+        private final List<String> slugs;
+
+        private final int total;
+
+        private SolutionPage(List<String> slugs, int total) {
+            this.slugs = slugs;
+            this.total = total;
+        }
+    }
+}
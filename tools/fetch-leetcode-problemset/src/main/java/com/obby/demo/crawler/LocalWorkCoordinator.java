@@ -0,0 +1,72 @@
+package com.obby.demo.crawler;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Coordinator of a crawl run by this node alone, leasing its shards in memory.
+ */
+@Component
+@ConditionalOnProperty(name = "crawler.coordination.type", havingValue = "local", matchIfMissing = true)
+public class LocalWorkCoordinator implements WorkCoordinator {
+    private List<List<String>> shards = new ArrayList<>();
+
+    private final BitSet leased = new BitSet();
+
+    private final BitSet completed = new BitSet();
+
+    @Override
+    public synchronized List<List<String>> plan(List<List<String>> shards) {
+        this.shards = shards;
+        leased.clear();
+        completed.clear();
+
+        return shards;
+    }
+
+    @Override
+    public synchronized Lease claim() {
+        int shard = leased.nextClearBit(0);
+
+        if (shard >= shards.size()) {
+            return null;
+        }
+
+        leased.set(shard);
+
+        return new Lease() {
+            @Override
+            public List<String> slugs() {
+                return shards.get(shard);
+            }
+
+            @Override
+            public boolean renew() {
+                return true;
+            }
+
+            @Override
+            public void complete() {
+                synchronized (LocalWorkCoordinator.this) {
+                    completed.set(shard);
+                }
+            }
+
+            @Override
+            public void release() {
+                synchronized (LocalWorkCoordinator.this) {
+                    leased.clear(shard);
+                }
+            }
+        };
+    }
+
+    @Override
+    public synchronized boolean isFinished() {
+        return completed.cardinality() == shards.size();
+    }
+}
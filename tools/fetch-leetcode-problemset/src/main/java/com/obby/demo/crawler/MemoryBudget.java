@@ -0,0 +1,175 @@
+package com.obby.demo.crawler;
+
+import com.obby.demo.model.Question;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Caps the approximate heap size of the solutions fetched and not yet written.
+ * <p>
+ * A fetch reserves an estimate of its size before it starts. Reservations are granted in order as long as they fit,
+ * and wait in a queue otherwise, without holding a thread, like admissions of the {@link RequestScheduler}. Once
+ * the solutions arrive, their reservation is adjusted to their actual size, which may overdraw the budget and hold
+ * back later reservations until enough is written.
+ */
+final class MemoryBudget {
+    /**
+     * Approximate heap size of a solution without its strings.
+     */
+    private static final int SOLUTION_OVERHEAD = 256;
+
+    private final long capacity;
+
+    private final Queue<Reservation> waiters = new ArrayDeque<>();
+
+    private long used;
+
+    MemoryBudget(long capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Reserve bytes, granted once they fit in the budget, or at once if nothing else is reserved so that a
+     * reservation larger than the whole budget can still proceed alone.
+     *
+     * @param bytes bytes
+     * @return reservation
+     */
+    Reservation reserve(long bytes) {
+        Reservation reservation = new Reservation(bytes);
+
+        synchronized (this) {
+            waiters.add(reservation);
+        }
+
+        drain();
+
+        return reservation;
+    }
+
+    synchronized long used() {
+        return used;
+    }
+
+    /**
+     * Approximate heap size of a solution, counting two bytes a character as the worst case of compact strings.
+     *
+     * @param solution solution
+     * @return bytes
+     */
+    static long sizeOf(Question.Solution solution) {
+        return SOLUTION_OVERHEAD + 2L * (length(solution.getTitle()) + length(solution.getSummary())
+                + length(solution.getContent()));
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    private void drain() {
+        List<Reservation> granted = new ArrayList<>();
+
+        synchronized (this) {
+            while (!waiters.isEmpty()) {
+                Reservation reservation = waiters.peek();
+
+                if (reservation.granted.isDone()) {
+                    waiters.poll();
+                    continue;
+                }
+
+                if (used > 0 && used + reservation.held > capacity) {
+                    break;
+                }
+
+                waiters.poll();
+                used += reservation.held;
+                granted.add(reservation);
+            }
+        }
+
+        // Complete outside the lock, as completion starts the fetches waiting for the reservations.
+        for (Reservation reservation : granted) {
+            // Withdrawn meanwhile, so release what was just granted.
+            if (!reservation.granted.complete(null)) {
+                reservation.release();
+            }
+        }
+    }
+
+    final class Reservation implements AutoCloseable {
+        private final CompletableFuture<Void> granted = new CompletableFuture<>();
+
+        private long held;
+
+        private boolean closed;
+
+        private Reservation(long bytes) {
+            this.held = bytes;
+        }
+
+        /**
+         * Completion of the reservation, cancelled if the reservation is closed first.
+         *
+         * @return completion
+         */
+        CompletableFuture<Void> granted() {
+            return granted;
+        }
+
+        /**
+         * Change the bytes held by a granted reservation, such as once the actual size of what it reserved for is
+         * known. A closed reservation is left as it is, as what it reserved for is dropped.
+         *
+         * @param delta bytes to add, negative to release
+         */
+        void adjust(long delta) {
+            synchronized (MemoryBudget.this) {
+                if (closed) {
+                    return;
+                }
+
+                delta = Math.max(delta, -held);
+                held += delta;
+                used += delta;
+            }
+
+            if (delta < 0) {
+                drain();
+            }
+        }
+
+        /**
+         * Release what the reservation still holds, or withdraw it if it is not granted yet.
+         */
+        @Override
+        public void close() {
+            if (granted.cancel(false)) {
+                synchronized (MemoryBudget.this) {
+                    closed = true;
+                }
+            } else {
+                release();
+            }
+        }
+
+        private void release() {
+            long released;
+
+            synchronized (MemoryBudget.this) {
+                released = held;
+                held = 0;
+                closed = true;
+                used -= released;
+            }
+
+            if (released > 0) {
+                drain();
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.obby.demo.crawler;
+
+import lombok.Data;
+
+/**
+ * A free question of the problem listing.
+ */
+@Data
+public class Problem {
+    private String slug;
+
+    /**
+     * Hash of the listing fields describing the question itself, excluding the counters that change with
+     * every submission or solution.
+     */
+    private String fingerprint;
+
+    /**
+     * Number of solution articles, {@code -1} if unknown.
+     */
+    private long solutionCount;
+
+    /**
+     * Number of accepted submissions, {@code -1} if unknown.
+     */
+    private long acceptedCount;
+}
@@ -0,0 +1,493 @@
+package com.obby.demo.crawler;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Admits every LeetCode request through a token bucket and an adaptive concurrency limit, and retries
+ * throttled or failed requests with jittered exponential backoff.
+ * <p>
+ * The concurrency limit follows AIMD: it grows by one every {@code limit} uncongested responses and is
+ * multiplied by the backoff ratio when a response is slow, throttled (429), a server error (5xx) or an I/O
+ * failure.
+ * <p>
+ * Admission never blocks a thread by itself: requests wait in a queue and are admitted as tokens refill and
+ * in-flight requests complete, so asynchronous requests can queue up without holding threads.
+ * <p>
+ * Requests are timed per operation and outcome ({@code success}, {@code retried} or {@code failed}) in the
+ * {@code crawler.requests} timer, next to gauges of the admission state.
+ */
+@Component
+public class RequestScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(RequestScheduler.class);
+
+    private final CrawlerProperties.Scheduler properties;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Queue<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("request-scheduler-%d").setDaemon(true).build()
+    );
+
+    private final AtomicLong requests = new AtomicLong();
+
+    private final AtomicLong failures = new AtomicLong();
+
+    private final AtomicLong retries = new AtomicLong();
+
+    private final AtomicLong throttled = new AtomicLong();
+
+    private final AtomicLong waitNanos = new AtomicLong();
+
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    private final MeterRegistry registry;
+
+    private final Counter throttledCounter;
+
+    private double tokens;
+
+    private long refilledAt = System.nanoTime();
+
+    private double limit;
+
+    private int inFlight;
+
+    private long lastDecreaseAt;
+
+    private boolean drainScheduled;
+
+    public RequestScheduler(CrawlerProperties properties, MeterRegistry registry) {
+        this.properties = properties.getScheduler();
+        this.tokens = this.properties.getBurst();
+        this.limit = this.properties.getInitialConcurrency();
+        this.registry = registry;
+        this.throttledCounter = Counter.builder("crawler.requests.throttled")
+                .description("Requests answered with 429")
+                .register(registry);
+
+        // Gauges read the fields without the lock: a scrape may see a slightly stale value, never block a request.
+        Gauge.builder("crawler.requests.in-flight", this, scheduler -> scheduler.inFlight)
+                .description("Requests in flight")
+                .strongReference(true)
+                .register(registry);
+        Gauge.builder("crawler.requests.queued", this, scheduler -> scheduler.waiters.size())
+                .description("Requests waiting for admission")
+                .strongReference(true)
+                .register(registry);
+        Gauge.builder("crawler.requests.concurrency-limit", this, scheduler -> scheduler.limit)
+                .description("Adaptive concurrency limit")
+                .strongReference(true)
+                .register(registry);
+        Gauge.builder("crawler.requests.tokens", this, scheduler -> scheduler.tokens)
+                .description("Tokens left in the bucket")
+                .strongReference(true)
+                .register(registry);
+    }
+
+    /**
+     * Execute a request on the calling thread once admitted, retrying it while it fails with a retryable error.
+     *
+     * @param operation operation name, used for logging and metrics
+     * @param request   request
+     * @param <T>       result type
+     * @return result
+     * @throws Exception the last failure once attempts are exhausted, or a non-retryable failure
+     */
+    public <T> T execute(String operation, Callable<T> request) throws Exception {
+        for (int attempt = 1; ; attempt++) {
+            CompletableFuture<Void> admission = admit();
+
+            try {
+                admission.get();
+            } catch (InterruptedException e) {
+                if (!admission.cancel(false)) {
+                    release(0, false);
+                }
+
+                throw e;
+            }
+
+            requests.incrementAndGet();
+
+            long start = System.nanoTime();
+
+            try {
+                T result = request.call();
+
+                succeeded(operation, System.nanoTime() - start);
+
+                return result;
+            } catch (Exception e) {
+                long delay = failed(operation, attempt, e, System.nanoTime() - start);
+
+                if (delay < 0) {
+                    throw e;
+                }
+
+                TimeUnit.MILLISECONDS.sleep(delay);
+            }
+        }
+    }
+
+    /**
+     * Submit an asynchronous request to be started once admitted, retrying it while it fails with a retryable
+     * error.
+     *
+     * @param operation operation name, used for logging and metrics
+     * @param request   request starter
+     * @param <T>       result type
+     * @return result, completed exceptionally with the last failure once attempts are exhausted, or with a
+     * non-retryable failure
+     */
+    public <T> CompletableFuture<T> submit(String operation, Supplier<CompletableFuture<T>> request) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+
+        attempt(operation, request, 1, result);
+
+        return result;
+    }
+
+    /**
+     * Requests sent so far, retries included, without taking a snapshot of the rest of the state.
+     *
+     * @return requests
+     */
+    public long requests() {
+        return requests.get();
+    }
+
+    /**
+     * Snapshot of the scheduler state.
+     *
+     * @return metrics
+     */
+    public Metrics metrics() {
+        lock.lock();
+
+        try {
+            refill();
+
+            Metrics metrics = new Metrics();
+
+            metrics.setPermitsPerSecond(properties.getPermitsPerSecond());
+            metrics.setAvailableTokens(tokens);
+            metrics.setConcurrencyLimit((int) limit);
+            metrics.setInFlight(inFlight);
+            metrics.setQueued(waiters.size());
+            metrics.setUtilization(inFlight / Math.floor(limit));
+            metrics.setWaitMillis(TimeUnit.NANOSECONDS.toMillis(waitNanos.get()));
+            metrics.setLatencyP50Millis(latencies.percentile(0.5));
+            metrics.setLatencyP99Millis(latencies.percentile(0.99));
+            metrics.setRequests(requests.get());
+            metrics.setFailures(failures.get());
+            metrics.setRetries(retries.get());
+            metrics.setThrottled(throttled.get());
+
+            return metrics;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private <T> void attempt(
+            String operation,
+            Supplier<CompletableFuture<T>> request,
+            int attempt,
+            CompletableFuture<T> result
+    ) {
+        admit().thenRun(() -> {
+            requests.incrementAndGet();
+
+            long start = System.nanoTime();
+            CompletableFuture<T> response;
+
+            try {
+                response = request.get();
+            } catch (Exception e) {
+                response = CompletableFuture.failedFuture(e);
+            }
+
+            response.whenComplete((value, error) -> {
+                if (error == null) {
+                    succeeded(operation, System.nanoTime() - start);
+                    result.complete(value);
+
+                    return;
+                }
+
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause()
+                        : error;
+                long delay = cause instanceof Exception
+                        ? failed(operation, attempt, (Exception) cause, System.nanoTime() - start)
+                        : -1;
+
+                if (delay < 0) {
+                    if (!(cause instanceof Exception)) {
+                        release(System.nanoTime() - start, false);
+                        timer(operation, "failed").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    }
+
+                    result.completeExceptionally(cause);
+
+                    return;
+                }
+
+                timer.schedule(() -> attempt(operation, request, attempt + 1, result), delay, TimeUnit.MILLISECONDS);
+            });
+        });
+    }
+
+    private void succeeded(String operation, long latency) {
+        release(latency, false);
+        timer(operation, "success").record(latency, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Release a failed request and decide whether to retry it.
+     *
+     * @return retry delay in milliseconds, negative if the request is not retried
+     */
+    private long failed(String operation, int attempt, Exception e, long latency) {
+        boolean retryable = isRetryable(e);
+
+        release(latency, retryable);
+
+        if (!retryable || attempt >= properties.getMaxAttempts()) {
+            failures.incrementAndGet();
+            timer(operation, "failed").record(latency, TimeUnit.NANOSECONDS);
+
+            return -1;
+        }
+
+        long delay = retryDelay(attempt, e);
+
+        retries.incrementAndGet();
+        timer(operation, "retried").record(latency, TimeUnit.NANOSECONDS);
+        logger.warn("Request [" + operation + "] failed (" + e.getMessage() + "), attempt "
+                + attempt + "/" + properties.getMaxAttempts() + ", retrying in " + delay + "ms.");
+
+        return delay;
+    }
+
+    private CompletableFuture<Void> admit() {
+        CompletableFuture<Void> admission = new CompletableFuture<>();
+        long start = System.nanoTime();
+
+        admission.thenRun(() -> waitNanos.addAndGet(System.nanoTime() - start));
+
+        lock.lock();
+
+        try {
+            waiters.add(admission);
+        } finally {
+            lock.unlock();
+        }
+
+        drain();
+
+        return admission;
+    }
+
+    private void release(long latency, boolean failed) {
+        // Requests released without a response, such as cancelled admissions, have no latency.
+        if (latency > 0) {
+            latencies.record(latency);
+        }
+
+        lock.lock();
+
+        try {
+            long now = System.nanoTime();
+
+            inFlight--;
+
+            if (failed || latency > properties.getLatencyThreshold().toNanos()) {
+                // Decrease at most once per threshold window, so a burst of failures from the same
+                // congestion event does not collapse the limit to the minimum.
+                if (now - lastDecreaseAt > properties.getLatencyThreshold().toNanos()) {
+                    limit = Math.max(properties.getMinConcurrency(), limit * properties.getBackoffRatio());
+                    lastDecreaseAt = now;
+                }
+            } else {
+                limit = Math.min(properties.getMaxConcurrency(), limit + 1 / limit);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        drain();
+    }
+
+    /**
+     * Admit waiting requests while tokens and concurrency allow, and schedule another drain for the next token
+     * if requests are left waiting only for it.
+     */
+    private void drain() {
+        List<CompletableFuture<Void>> admitted = new ArrayList<>();
+
+        lock.lock();
+
+        try {
+            refill();
+
+            while (!waiters.isEmpty() && inFlight < (int) limit && tokens >= 1) {
+                CompletableFuture<Void> admission = waiters.poll();
+
+                if (admission.isDone()) {
+                    continue;
+                }
+
+                tokens -= 1;
+                inFlight++;
+                admitted.add(admission);
+            }
+
+            // Without a concurrency slot only a release can help, otherwise wait for the next token.
+            if (!waiters.isEmpty() && inFlight < (int) limit && !drainScheduled) {
+                drainScheduled = true;
+                timer.schedule(
+                        () -> {
+                            lock.lock();
+
+                            try {
+                                drainScheduled = false;
+                            } finally {
+                                lock.unlock();
+                            }
+
+                            drain();
+                        },
+                        (long) Math.ceil((1 - tokens) / properties.getPermitsPerSecond() * TimeUnit.SECONDS.toNanos(1)),
+                        TimeUnit.NANOSECONDS
+                );
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // Complete outside the lock, as completion runs the admitted requests' continuations.
+        for (CompletableFuture<Void> admission : admitted) {
+            if (!admission.complete(null)) {
+                release(0, false);
+            }
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+
+        tokens = Math.min(
+                properties.getBurst(),
+                tokens + (now - refilledAt) * properties.getPermitsPerSecond() / TimeUnit.SECONDS.toNanos(1)
+        );
+        refilledAt = now;
+    }
+
+    private boolean isRetryable(Exception e) {
+        if (e instanceof ExecutionException && e.getCause() instanceof Exception) {
+            return isRetryable((Exception) e.getCause());
+        }
+
+        if (e instanceof RestClientResponseException) {
+            int status = ((RestClientResponseException) e).getRawStatusCode();
+
+            if (status == 429) {
+                throttled.incrementAndGet();
+                throttledCounter.increment();
+            }
+
+            return status == 429 || status >= 500;
+        }
+
+        return e instanceof ResourceAccessException;
+    }
+
+    private Timer timer(String operation, String outcome) {
+        return Timer.builder("crawler.requests")
+                .description("Request attempts, from admission to response")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private long retryDelay(int attempt, Exception e) {
+        long ceiling = Math.min(
+                properties.getRetryMaxDelay().toMillis(),
+                properties.getRetryBaseDelay().toMillis() << Math.min(attempt - 1, 30)
+        );
+        long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+
+        if (e instanceof RestClientResponseException) {
+            HttpHeaders headers = ((RestClientResponseException) e).getResponseHeaders();
+            String retryAfter = headers == null ? null : headers.getFirst(HttpHeaders.RETRY_AFTER);
+
+            if (retryAfter != null && retryAfter.matches("\\d+")) {
+                delay = Math.max(delay, TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter)));
+            }
+        }
+
+        return delay;
+    }
+
+    @Data
+    public static class Metrics {
+        private double permitsPerSecond;
+        private double availableTokens;
+        private int concurrencyLimit;
+        private int inFlight;
+        /**
+         * Requests waiting for admission.
+         */
+        private int queued;
+        /**
+         * Requests in flight relative to the concurrency limit.
+         */
+        private double utilization;
+        /**
+         * Total time requests spent waiting for admission.
+         */
+        private long waitMillis;
+        /**
+         * Median response latency.
+         */
+        private double latencyP50Millis;
+        /**
+         * 99th percentile response latency.
+         */
+        private double latencyP99Millis;
+        private long requests;
+        private long failures;
+        private long retries;
+        private long throttled;
+    }
+}
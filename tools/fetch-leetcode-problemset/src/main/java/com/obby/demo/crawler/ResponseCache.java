@@ -0,0 +1,318 @@
+package com.obby.demo.crawler;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Validators and fingerprints of the responses archived in the {@link ArchiveStore}, so that a response is only
+ * downloaded again when it may have changed.
+ * <p>
+ * Entries are keyed by the archive key of a response, which is derived from its operation and variables, such as
+ * {@code questions/two-sum/solutions/two-sum-a.json}, and only kept for the operations of
+ * {@code crawler.http.cache.operations}. Within {@code crawler.http.cache.ttl} of being fetched or revalidated, a
+ * response is read from its archive without a request. After that, it is requested with {@code If-None-Match} or
+ * {@code If-Modified-Since} when the server sent an {@code ETag} or a {@code Last-Modified}; a
+ * {@code 304 Not Modified}, or a body with the fingerprint of the archived one, leaves the archive as it is.
+ * <p>
+ * The least recently used entries are evicted beyond {@code crawler.http.cache.max-size} of responses. Only the
+ * entries are, not the archived responses, which results are built from. Entries are kept in
+ * {@code storage/http-cache.tsv}, loaded on first use and saved at the end of a crawl.
+ */
+@Component
+public class ResponseCache {
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCache.class);
+
+    private static final String FILE = "http-cache.tsv";
+
+    private final CrawlerProperties.Http.Cache properties;
+
+    private final Storage storage;
+
+    private final MeterRegistry registry;
+
+    private final Cache<String, Entry> entries;
+
+    private volatile boolean loaded;
+
+    private volatile boolean dirty;
+
+    public ResponseCache(CrawlerProperties properties, Storage storage, MeterRegistry registry) {
+        this.properties = properties.getHttp().getCache();
+        this.storage = storage;
+        this.registry = registry;
+        this.entries = CacheBuilder.newBuilder()
+                .maximumWeight(this.properties.getMaxSize().toBytes())
+                .<String, Entry>weigher((key, entry) -> (int) Math.min(Integer.MAX_VALUE, entry.size))
+                .build();
+
+        Gauge.builder("crawler.http.cache.entries", entries, Cache::size)
+                .description("Cached responses")
+                .register(registry);
+    }
+
+    /**
+     * Whether the responses of an operation are cached.
+     *
+     * @param operation operation name
+     * @return whether cached
+     */
+    public boolean isCached(String operation) {
+        return properties.isEnabled() && properties.getOperations().contains(operation);
+    }
+
+    /**
+     * Cache entry of a response.
+     *
+     * @param operation operation name
+     * @param key       archive key of the response
+     * @return entry, null if there is none or the operation is not cached
+     * @throws IOException exception
+     */
+    public Entry get(String operation, String key) throws IOException {
+        if (key == null || !isCached(operation)) {
+            return null;
+        }
+
+        load();
+
+        return entries.getIfPresent(key);
+    }
+
+    /**
+     * Whether a response can be used without asking the server.
+     *
+     * @param entry entry
+     * @return whether fresh
+     */
+    public boolean isFresh(Entry entry) {
+        return System.currentTimeMillis() - entry.validated < properties.getTtl().toMillis();
+    }
+
+    /**
+     * Add the validators of a cached response to a request, so the server can answer that it is not modified.
+     *
+     * @param request request
+     * @param entry   entry, null if the response is not cached
+     * @return conditional request, or the request itself if there are no validators
+     */
+    public HttpTransport.Request conditional(HttpTransport.Request request, Entry entry) {
+        if (entry == null || (entry.etag == null && entry.lastModified == null)) {
+            return request;
+        }
+
+        Map<String, String> headers = new LinkedHashMap<>(request.getHeaders());
+
+        if (entry.etag != null) {
+            headers.put(HttpHeaders.IF_NONE_MATCH, entry.etag);
+        }
+
+        if (entry.lastModified != null) {
+            headers.put(HttpHeaders.IF_MODIFIED_SINCE, entry.lastModified);
+        }
+
+        return new HttpTransport.Request(request.getMethod(), request.getUri(), headers, request.getBody());
+    }
+
+    /**
+     * Record a response just received.
+     *
+     * @param key         archive key of the response
+     * @param headers     response headers, null if the response is part of a batch and has no validators
+     * @param fingerprint fingerprint of the body
+     * @param size        size of the body
+     */
+    public void put(String key, HttpHeaders headers, String fingerprint, long size) {
+        entries.put(key, new Entry(
+                System.currentTimeMillis(),
+                size,
+                fingerprint,
+                headers == null ? null : headers.getETag(),
+                headers == null ? null : headers.getFirst(HttpHeaders.LAST_MODIFIED)
+        ));
+        dirty = true;
+    }
+
+    /**
+     * Record a response the server answered is not modified.
+     *
+     * @param key   archive key of the response
+     * @param entry entry
+     */
+    public void revalidated(String key, Entry entry) {
+        entries.put(key, new Entry(
+                System.currentTimeMillis(),
+                entry.size,
+                entry.fingerprint,
+                entry.etag,
+                entry.lastModified
+        ));
+        dirty = true;
+    }
+
+    /**
+     * Count how a response of an operation was served, in {@code crawler.http.cache}.
+     *
+     * @param operation operation name
+     * @param outcome   outcome
+     */
+    public void record(String operation, Outcome outcome) {
+        Counter.builder("crawler.http.cache")
+                .description("Responses of cached operations by how they were served")
+                .tag("operation", operation)
+                .tag("outcome", outcome.name().toLowerCase().replace('_', '-'))
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Save the entries if any changed, least recently validated first.
+     *
+     * @throws IOException exception
+     */
+    public synchronized void save() throws IOException {
+        if (!dirty) {
+            return;
+        }
+
+        dirty = false;
+
+        Path path = storage.basePath(FILE);
+        Path temporaryPath = storage.basePath(FILE + ".tmp");
+        List<Map.Entry<String, Entry>> sorted = new ArrayList<>(entries.asMap().entrySet());
+
+        sorted.sort(Comparator.comparingLong(entry -> entry.getValue().validated));
+
+        try (BufferedWriter writer = Files.newBufferedWriter(temporaryPath, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Entry> entry : sorted) {
+                Entry value = entry.getValue();
+
+                writer.write(String.join(
+                        "\t",
+                        entry.getKey(),
+                        Long.toString(value.validated),
+                        Long.toString(value.size),
+                        value.fingerprint,
+                        value.etag == null ? "" : value.etag,
+                        value.lastModified == null ? "" : value.lastModified
+                ));
+                writer.newLine();
+            }
+        }
+
+        Files.move(temporaryPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Fingerprint of a response body.
+     *
+     * @param body body
+     * @return fingerprint
+     */
+    public static String fingerprint(byte[] body) {
+        return Hashing.sha256().hashBytes(body).toString();
+    }
+
+    private void load() throws IOException {
+        if (loaded) {
+            return;
+        }
+
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+
+            Path path = storage.resolve(FILE);
+
+            if (Files.exists(path)) {
+                for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                    String[] fields = line.split("\t", -1);
+
+                    // Entries are saved whole, so a malformed line is only left by an older format.
+                    if (fields.length != 6) {
+                        continue;
+                    }
+
+                    entries.put(fields[0], new Entry(
+                            Long.parseLong(fields[1]),
+                            Long.parseLong(fields[2]),
+                            fields[3],
+                            fields[4].isEmpty() ? null : fields[4],
+                            fields[5].isEmpty() ? null : fields[5]
+                    ));
+                }
+
+                logger.info("Response cache loaded. Entries: " + entries.size() + ".");
+            }
+
+            loaded = true;
+        }
+    }
+
+    public enum Outcome {
+        /**
+         * Read from the archive without a request.
+         */
+        FRESH,
+        /**
+         * Answered not modified by the server.
+         */
+        NOT_MODIFIED,
+        /**
+         * Received again with the same fingerprint.
+         */
+        UNCHANGED,
+        /**
+         * Received again with another fingerprint.
+         */
+        CHANGED,
+        /**
+         * Received without a cache entry.
+         */
+        MISS
+    }
+
+    public static final class Entry {
+        private final long validated;
+
+        private final long size;
+
+        private final String fingerprint;
+
+        private final String etag;
+
+        private final String lastModified;
+
+        private Entry(long validated, long size, String fingerprint, String etag, String lastModified) {
+            this.validated = validated;
+            this.size = size;
+            this.fingerprint = fingerprint;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+    }
+}
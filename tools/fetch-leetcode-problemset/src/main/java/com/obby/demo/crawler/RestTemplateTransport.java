@@ -0,0 +1,67 @@
+package com.obby.demo.crawler;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Blocking transport, one thread per request in flight. Asynchronous requests run on a pool of
+ * {@code crawler.solution-workers} threads.
+ */
+@Component
+@ConditionalOnProperty(name = "crawler.http.client", havingValue = "blocking", matchIfMissing = true)
+public class RestTemplateTransport implements HttpTransport {
+    private final RestTemplate restTemplate;
+
+    private final ExecutorService executor;
+
+    public RestTemplateTransport(CrawlerProperties properties) {
+        this.restTemplate = new RestTemplateBuilder()
+                .setConnectTimeout(properties.getHttp().getConnectTimeout())
+                .setReadTimeout(properties.getHttp().getTimeout())
+                .build();
+        this.executor = Executors.newFixedThreadPool(
+                properties.getSolutionWorkers(),
+                new ThreadFactoryBuilder().setNameFormat("solution-%d").setDaemon(true).build()
+        );
+    }
+
+    @Override
+    public <T> T exchange(Request request, ResponseReader<T> reader) {
+        return restTemplate.execute(
+                request.getUri(),
+                HttpMethod.valueOf(request.getMethod()),
+                httpRequest -> {
+                    request.getHeaders().forEach(httpRequest.getHeaders()::set);
+
+                    if (request.getBody() != null) {
+                        httpRequest.getBody().write(request.getBody());
+                    }
+                },
+                response -> reader.read(new Response(
+                        response.getRawStatusCode(),
+                        response.getHeaders(),
+                        response.getBody()
+                ))
+        );
+    }
+
+    @Override
+    public <T> CompletableFuture<T> exchangeAsync(Request request, ResponseReader<T> reader) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return exchange(request, reader);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+}
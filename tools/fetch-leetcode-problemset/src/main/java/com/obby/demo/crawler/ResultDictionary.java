@@ -0,0 +1,385 @@
+package com.obby.demo.crawler;
+
+import com.google.common.hash.Hashing;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.obby.demo.model.Question;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Dictionary of the values repeated across the results, shared by the results of the compact format.
+ * <p>
+ * A compact result is the same JSON document as a plain one, except that topic tags, solution tags and authors are
+ * written as the number of their entry in the dictionary, and code snippets as a {@code [language, code]} pair
+ * where the language is an entry and the code is either inline or, for a template already seen in another
+ * snippet, an entry too. Decoding accepts both forms, so plain and compact results can be read alike.
+ * <p>
+ * The dictionary is appended to {@code storage/result-dictionary.jsonl}, one {@code [kind, value]} line per entry,
+ * before any result refers to it. Entries are numbered per kind in the order they are appended and are never
+ * removed, so a reader meeting an entry it does not know yet reads the lines appended since.
+ * <p>
+ * The hash of a code seen once is appended as a {@code SEEN_CODE} line too, which is not an entry, so a code
+ * becomes a template on its second occurrence even across restarts, and the compact output depends only on the
+ * results written before.
+ */
+public final class ResultDictionary {
+    private static final String PATH = "result-dictionary.jsonl";
+
+    private final Gson gson = new Gson();
+
+    private final Storage storage;
+
+    private final Map<Kind, List<JsonElement>> entries = new EnumMap<>(Kind.class);
+
+    private final Map<Kind, Map<JsonElement, Integer>> ids = new EnumMap<>(Kind.class);
+
+    /**
+     * Hashes of the codes seen once, which become templates when seen again, as stored in the dictionary.
+     */
+    private final Set<Long> codes = new HashSet<>();
+
+    private long loaded = -1;
+
+    private FileChannel channel;
+
+    private boolean dirty;
+
+    ResultDictionary(Storage storage) {
+        this.storage = storage;
+
+        for (Kind kind : Kind.values()) {
+            entries.put(kind, new ArrayList<>());
+            ids.put(kind, new HashMap<>());
+        }
+    }
+
+    /**
+     * Adapters reading results of either format.
+     *
+     * @return type adapter factory
+     */
+    public TypeAdapterFactory decoder() {
+        return new Adapters(false);
+    }
+
+    /**
+     * Adapters writing results of the compact format, appending the values not in the dictionary yet.
+     *
+     * @return type adapter factory
+     */
+    TypeAdapterFactory encoder() {
+        return new Adapters(true);
+    }
+
+    /**
+     * Force the entries appended so far to disk.
+     *
+     * @throws IOException exception
+     */
+    synchronized void force() throws IOException {
+        if (dirty) {
+            channel.force(false);
+            dirty = false;
+        }
+    }
+
+    private synchronized JsonElement entry(Kind kind, int id) throws IOException {
+        List<JsonElement> values = entries.get(kind);
+
+        if (id >= values.size()) {
+            load();
+        }
+
+        if (id < 0 || id >= values.size()) {
+            throw new JsonParseException("Dictionary entry [" + kind + " " + id + "] not found.");
+        }
+
+        return values.get(id);
+    }
+
+    private synchronized int id(Kind kind, JsonElement value) throws IOException {
+        if (loaded < 0) {
+            load();
+        }
+
+        Integer id = ids.get(kind).get(value);
+
+        return id != null ? id : append(kind, value);
+    }
+
+    /**
+     * Template entry of a code, null to write the code inline the first time it is seen.
+     */
+    private synchronized Integer templateId(String code) throws IOException {
+        if (loaded < 0) {
+            load();
+        }
+
+        JsonPrimitive value = new JsonPrimitive(code);
+        Integer id = ids.get(Kind.TEMPLATE).get(value);
+
+        if (id != null) {
+            return id;
+        }
+
+        long hash = Hashing.murmur3_128().hashString(code, StandardCharsets.UTF_8).asLong();
+
+        if (codes.add(hash)) {
+            write(Kind.SEEN_CODE, new JsonPrimitive(hash));
+
+            return null;
+        }
+
+        return append(Kind.TEMPLATE, value);
+    }
+
+    private int append(Kind kind, JsonElement value) throws IOException {
+        write(kind, value);
+
+        return add(kind, value);
+    }
+
+    /**
+     * Append a line to the dictionary file.
+     */
+    private void write(Kind kind, JsonElement value) throws IOException {
+        JsonArray line = new JsonArray();
+
+        line.add(kind.name());
+        line.add(value);
+
+        if (channel == null) {
+            channel = FileChannel.open(
+                    storage.basePath(PATH),
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND
+            );
+
+            // The last line may be torn by a crash while it was appended, and is cut off before appending after it,
+            // as it would otherwise run into the next line.
+            load();
+            channel.truncate(loaded);
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap((gson.toJson(line) + "\n").getBytes(StandardCharsets.UTF_8));
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        loaded = channel.position();
+        dirty = true;
+    }
+
+    private int add(Kind kind, JsonElement value) {
+        List<JsonElement> values = entries.get(kind);
+
+        ids.get(kind).put(value, values.size());
+        values.add(value);
+
+        return values.size() - 1;
+    }
+
+    /**
+     * Read the complete lines appended since the dictionary was last read.
+     */
+    private void load() throws IOException {
+        Path path = storage.resolve(PATH);
+
+        loaded = Math.max(loaded, 0);
+
+        if (!Files.exists(path)) {
+            return;
+        }
+
+        byte[] bytes;
+
+        try (SeekableByteChannel in = Files.newByteChannel(path)) {
+            bytes = Channels.newInputStream(in.position(loaded)).readAllBytes();
+        }
+
+        int start = 0;
+
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == '\n') {
+                JsonArray line = JsonParser.parseString(new String(bytes, start, i - start, StandardCharsets.UTF_8))
+                        .getAsJsonArray();
+
+                Kind kind = Kind.valueOf(line.get(0).getAsString());
+
+                if (kind == Kind.SEEN_CODE) {
+                    codes.add(line.get(1).getAsLong());
+                } else {
+                    add(kind, line.get(1));
+                }
+
+                start = i + 1;
+            }
+        }
+
+        // A line still being appended by another writer is read once complete.
+        loaded += start;
+    }
+
+    private enum Kind {
+        TOPIC_TAG,
+        SOLUTION_TAG,
+        AUTHOR,
+        LANGUAGE,
+        TEMPLATE,
+        /**
+         * Hash of a code seen once, not an entry.
+         */
+        SEEN_CODE
+    }
+
+    private final class Adapters implements TypeAdapterFactory {
+        private final boolean encode;
+
+        private Adapters(boolean encode) {
+            this.encode = encode;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            Class<? super T> rawType = type.getRawType();
+
+            if (rawType == Question.CodeSnippet.class) {
+                return (TypeAdapter<T>) new SnippetAdapter(gson.getDelegateAdapter(this, TypeToken.get(
+                        Question.CodeSnippet.class
+                )));
+            }
+
+            Kind kind = rawType == Question.TopicTag.class ? Kind.TOPIC_TAG
+                    : rawType == Question.Solution.Tag.class ? Kind.SOLUTION_TAG
+                    : rawType == Question.Solution.Author.class ? Kind.AUTHOR
+                    : null;
+
+            return kind == null ? null : new EntryAdapter<>(kind, gson.getDelegateAdapter(this, type));
+        }
+
+        /**
+         * Reads and writes a value as its entry.
+         */
+        private final class EntryAdapter<T> extends TypeAdapter<T> {
+            private final Kind kind;
+
+            private final TypeAdapter<T> delegate;
+
+            private EntryAdapter(Kind kind, TypeAdapter<T> delegate) {
+                this.kind = kind;
+                this.delegate = delegate;
+            }
+
+            @Override
+            public void write(JsonWriter out, T value) throws IOException {
+                if (!encode || value == null) {
+                    delegate.write(out, value);
+                    return;
+                }
+
+                out.value(id(kind, delegate.toJsonTree(value)));
+            }
+
+            @Override
+            public T read(JsonReader in) throws IOException {
+                if (in.peek() != JsonToken.NUMBER) {
+                    return delegate.read(in);
+                }
+
+                // Each read builds its own value, so a caller changing it leaves the entry alone.
+                return delegate.fromJsonTree(entry(kind, in.nextInt()));
+            }
+        }
+
+        /**
+         * Reads and writes a code snippet as its language entry and its code, inline or as a template entry.
+         */
+        private final class SnippetAdapter extends TypeAdapter<Question.CodeSnippet> {
+            private final TypeAdapter<Question.CodeSnippet> delegate;
+
+            private SnippetAdapter(TypeAdapter<Question.CodeSnippet> delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public void write(JsonWriter out, Question.CodeSnippet value) throws IOException {
+                if (!encode || value == null) {
+                    delegate.write(out, value);
+                    return;
+                }
+
+                JsonObject language = delegate.toJsonTree(value).getAsJsonObject();
+
+                language.remove("code");
+                out.beginArray();
+                out.value(id(Kind.LANGUAGE, language));
+
+                Integer template = value.getCode() == null ? null : templateId(value.getCode());
+
+                if (template != null) {
+                    out.value(template);
+                } else {
+                    out.value(value.getCode());
+                }
+
+                out.endArray();
+            }
+
+            @Override
+            public Question.CodeSnippet read(JsonReader in) throws IOException {
+                if (in.peek() != JsonToken.BEGIN_ARRAY) {
+                    return delegate.read(in);
+                }
+
+                in.beginArray();
+
+                Question.CodeSnippet snippet = delegate.fromJsonTree(entry(Kind.LANGUAGE, in.nextInt()));
+
+                switch (in.peek()) {
+                    case NUMBER:
+                        snippet.setCode(entry(Kind.TEMPLATE, in.nextInt()).getAsString());
+                        break;
+                    case NULL:
+                        in.nextNull();
+                        break;
+                    default:
+                        snippet.setCode(in.nextString());
+                }
+
+                in.endArray();
+
+                return snippet;
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.obby.demo.crawler;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
+import com.obby.demo.model.Question;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Streams a result to its file: the question first, then its solutions one by one, so a question never has to be
+ * held in memory with all its solutions.
+ * <p>
+ * The result is written to {@code <result>.part}, handed over to the {@link DiskWriter} once committed to be forced
+ * and renamed over the result with the rest of its batch, so a result is either replaced whole or left as it was.
+ * The output is the same as serializing the whole question at once.
+ */
+final class ResultWriter implements Closeable {
+    private final Gson gson;
+
+    private final Path path;
+
+    private final Path temporaryPath;
+
+    private final FileChannel channel;
+
+    private final JsonWriter writer;
+
+    private boolean committed;
+
+    ResultWriter(Gson gson, Path path) throws IOException {
+        this.gson = gson;
+        this.path = path;
+        this.temporaryPath = path.resolveSibling(path.getFileName() + ".part");
+        this.channel = FileChannel.open(
+                temporaryPath,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING
+        );
+        this.writer = gson.newJsonWriter(new BufferedWriter(new OutputStreamWriter(
+                Channels.newOutputStream(channel),
+                StandardCharsets.UTF_8
+        )));
+    }
+
+    /**
+     * Write the question, without its solutions, and open the solution array.
+     *
+     * @param question question
+     * @throws IOException exception
+     */
+    void question(Question question) throws IOException {
+        JsonObject fields = gson.toJsonTree(question).getAsJsonObject();
+
+        fields.remove("solutions");
+        writer.beginObject();
+
+        for (Map.Entry<String, JsonElement> field : fields.entrySet()) {
+            writer.name(field.getKey());
+            gson.toJson(field.getValue(), writer);
+        }
+
+        writer.name("solutions");
+        writer.beginArray();
+    }
+
+    void solution(Question.Solution solution) throws IOException {
+        gson.toJson(solution, Question.Solution.class, writer);
+    }
+
+    /**
+     * Close the solution array and queue the result to replace the previous one.
+     *
+     * @param diskWriter writer forcing and renaming the result
+     * @return completion of the rename, with the bytes written
+     * @throws IOException exception
+     */
+    CompletableFuture<Long> commit(DiskWriter diskWriter) throws IOException {
+        writer.endArray();
+        writer.endObject();
+        writer.flush();
+
+        long size = channel.size();
+
+        writer.close();
+        committed = true;
+
+        return diskWriter.move(temporaryPath, path).thenApply(moved -> size);
+    }
+
+    /**
+     * Discard the result unless committed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!committed) {
+            // Closing the writer would fail on the unfinished document, and what it buffers is discarded anyway.
+            channel.close();
+            Files.deleteIfExists(temporaryPath);
+        }
+    }
+}
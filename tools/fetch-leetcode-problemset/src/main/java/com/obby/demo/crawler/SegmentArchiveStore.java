@@ -0,0 +1,327 @@
+package com.obby.demo.crawler;
+
+import com.google.common.hash.Hashing;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stores the archives gzip compressed in append-only segment files under {@code storage/archive/}, instead of a
+ * file per response.
+ * <p>
+ * Archives are addressed by the SHA-256 of their content: an archive whose content is already stored, such as an
+ * unchanged response fetched again, only adds an index entry. Each line of {@code index.log} maps a key to
+ * {@code <key> <sha256> <segment> <offset> <length>}, or {@code <key> -} once deleted, and the last line of a key
+ * wins. Every stored content is a gzip member of its own, so a whole segment also reads as one gzip stream.
+ * <p>
+ * Replaced content is not reclaimed from the segments.
+ */
+@Component
+@ConditionalOnProperty(name = "crawler.archive.format", havingValue = "segments", matchIfMissing = true)
+public class SegmentArchiveStore implements ArchiveStore, Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(SegmentArchiveStore.class);
+
+    private static final String DELETED = "-";
+
+    private final Storage storage;
+
+    private final long segmentSize;
+
+    private final Counter bytesWritten;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final Map<String, Entry> contents = new ConcurrentHashMap<>();
+
+    private volatile boolean opened;
+
+    private int segmentNumber;
+
+    private FileChannel segment;
+
+    private BufferedWriter index;
+
+    public SegmentArchiveStore(CrawlerProperties properties, Storage storage, MeterRegistry registry) {
+        this.storage = storage;
+        this.segmentSize = properties.getArchive().getSegmentSize().toBytes();
+        this.bytesWritten = Counter.builder("crawler.bytes.written")
+                .description("Bytes written to disk")
+                .baseUnit("bytes")
+                .tag("store", "segments")
+                .register(registry);
+    }
+
+    @Override
+    public OutputStream create(String key) throws IOException {
+        if (key.contains("\t") || key.contains("\n")) {
+            throw new IllegalArgumentException("Invalid archive key [" + key + "].");
+        }
+
+        return new ByteArrayOutputStream() {
+            private boolean closed;
+
+            @Override
+            public void close() throws IOException {
+                if (!closed) {
+                    closed = true;
+                    put(key, toByteArray());
+                }
+            }
+        };
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        open();
+
+        Entry entry = entries.get(key);
+
+        if (entry == null) {
+            throw new NoSuchFileException(key);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(entry.length);
+
+        try (FileChannel channel = FileChannel.open(segmentPath(entry.segment), StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, entry.offset + buffer.position()) < 0) {
+                    throw new EOFException("Archive [" + key + "] truncated.");
+                }
+            }
+        }
+
+        return new GZIPInputStream(new ByteArrayInputStream(buffer.array()));
+    }
+
+    @Override
+    public boolean contains(String key) throws IOException {
+        open();
+
+        return entries.containsKey(key);
+    }
+
+    @Override
+    public synchronized void delete(String key) throws IOException {
+        open();
+
+        if (entries.remove(key) != null) {
+            append(key + "\t" + DELETED);
+        }
+    }
+
+    @Override
+    public synchronized void copy(String source, String target) throws IOException {
+        open();
+
+        Entry entry = entries.get(source);
+
+        if (entry == null) {
+            throw new NoSuchFileException(source);
+        }
+
+        index(target, entry);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!opened) {
+            return;
+        }
+
+        segment.close();
+        index.close();
+        entries.clear();
+        contents.clear();
+        opened = false;
+    }
+
+    private void put(String key, byte[] content) throws IOException {
+        String hash = Hashing.sha256().hashBytes(content).toString();
+        // Compress outside the lock, unless the content is known to be stored already.
+        byte[] compressed = contents.containsKey(hash) ? null : compress(content);
+
+        synchronized (this) {
+            open();
+
+            Entry entry = contents.get(hash);
+
+            if (entry == null) {
+                if (segment.size() > 0 && segment.size() + compressed.length > segmentSize) {
+                    roll(segmentNumber + 1);
+                }
+
+                entry = new Entry(hash, segmentNumber, segment.size(), compressed.length);
+
+                ByteBuffer buffer = ByteBuffer.wrap(compressed);
+
+                while (buffer.hasRemaining()) {
+                    segment.write(buffer);
+                }
+
+                contents.put(hash, entry);
+                bytesWritten.increment(compressed.length);
+            }
+
+            index(key, entry);
+        }
+    }
+
+    private void index(String key, Entry entry) throws IOException {
+        append(key + "\t" + entry.hash + "\t" + entry.segment + "\t" + entry.offset + "\t" + entry.length);
+        entries.put(key, entry);
+    }
+
+    private void append(String line) throws IOException {
+        index.write(line);
+        index.newLine();
+        index.flush();
+    }
+
+    /**
+     * Load the index and open the last segment for appending, on first use.
+     */
+    private void open() throws IOException {
+        if (opened) {
+            return;
+        }
+
+        synchronized (this) {
+            if (opened) {
+                return;
+            }
+
+            Path indexPath = storage.basePath("archive/index.log");
+            Map<Integer, Long> segmentSizes = new HashMap<>();
+            int last = 0;
+
+            if (Files.exists(indexPath)) {
+                List<String> lines = Files.readAllLines(indexPath, StandardCharsets.UTF_8);
+
+                for (String line : lines) {
+                    String[] fields = line.split("\t");
+
+                    if (fields.length == 2 && DELETED.equals(fields[1])) {
+                        entries.remove(fields[0]);
+                        continue;
+                    }
+
+                    // The last line may be torn, or refer to content not fully written, by a crash.
+                    if (fields.length != 5) {
+                        continue;
+                    }
+
+                    Entry entry = new Entry(
+                            fields[1],
+                            Integer.parseInt(fields[2]),
+                            Long.parseLong(fields[3]),
+                            Integer.parseInt(fields[4])
+                    );
+                    Path segmentPath = segmentPath(entry.segment);
+                    long size = segmentSizes.computeIfAbsent(entry.segment, number -> {
+                        try {
+                            return Files.exists(segmentPath) ? Files.size(segmentPath) : 0;
+                        } catch (IOException e) {
+                            return 0L;
+                        }
+                    });
+
+                    if (entry.offset + entry.length > size) {
+                        continue;
+                    }
+
+                    entries.put(fields[0], entry);
+                    contents.putIfAbsent(entry.hash, entry);
+                    last = Math.max(last, entry.segment);
+                }
+
+                logger.info("Archive index loaded. Archives: " + entries.size()
+                        + ". Contents: " + contents.size() + ".");
+            }
+
+            index = Files.newBufferedWriter(
+                    indexPath,
+                    StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND
+            );
+
+            // Start on a fresh line in case the last entry was torn.
+            index.newLine();
+            index.flush();
+
+            roll(last);
+            opened = true;
+        }
+    }
+
+    private void roll(int number) throws IOException {
+        if (segment != null) {
+            segment.close();
+        }
+
+        segmentNumber = number;
+        segment = FileChannel.open(
+                storage.basePath(segmentName(number)),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND
+        );
+    }
+
+    private Path segmentPath(int number) {
+        return storage.resolve(segmentName(number));
+    }
+
+    private static String segmentName(int number) {
+        return String.format("archive/segment-%05d.gz", number);
+    }
+
+    private static byte[] compress(byte[] content) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(content.length / 4 + 64);
+
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(content);
+        }
+
+        return compressed.toByteArray();
+    }
+
+    private static final class Entry {
+        private final String hash;
+        private final int segment;
+        private final long offset;
+        private final int length;
+
+        private Entry(String hash, int segment, long offset, int length) {
+            this.hash = hash;
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.obby.demo.crawler;
+
+import org.apache.commons.io.FileUtils;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+
+@Component
+public class Storage {
+    private final CrawlerProperties properties;
+
+    private final ResultDictionary dictionary = new ResultDictionary(this);
+
+    public Storage(CrawlerProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Dictionary shared by the results of the compact format.
+     *
+     * @return dictionary
+     */
+    public ResultDictionary dictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Resolve a path under the storage directory to be written, creating its parent directories.
+     *
+     * @param path path relative to the storage directory
+     * @return path
+     * @throws IOException exception
+     */
+    public Path basePath(String path) throws IOException {
+        File file = new File(properties.getStoragePath(), path);
+
+        FileUtils.forceMkdirParent(file);
+
+        return file.toPath();
+    }
+
+    /**
+     * Resolve a path under the storage directory to be read, without creating any directory.
+     *
+     * @param path path relative to the storage directory
+     * @return path
+     */
+    public Path resolve(String path) {
+        return new File(properties.getStoragePath(), path).toPath();
+    }
+}
@@ -0,0 +1,69 @@
+package com.obby.demo.crawler;
+
+import java.util.List;
+
+/**
+ * Shares the questions of a crawl between the nodes running it.
+ * <p>
+ * The questions are split into shards, and a node works on a shard under a lease. A lease is renewed while the
+ * node works and expires otherwise, so the shards of a node that stopped are claimed by the others. A question may
+ * thus be crawled twice, which only writes the same result again.
+ */
+public interface WorkCoordinator {
+
+    /**
+     * Publish the shards of the crawl, unless a node already did.
+     *
+     * @param shards question slugs of each shard, in the order they should be crawled
+     * @return shards of the crawl, as published by the first node
+     * @throws Exception exception
+     */
+    List<List<String>> plan(List<List<String>> shards) throws Exception;
+
+    /**
+     * Claim a shard neither completed nor leased, in the order of the plan.
+     *
+     * @return lease, null if there is no shard to claim for now
+     * @throws Exception exception
+     */
+    Lease claim() throws Exception;
+
+    /**
+     * Whether every shard of the crawl is completed.
+     *
+     * @return whether finished
+     * @throws Exception exception
+     */
+    boolean isFinished() throws Exception;
+
+    interface Lease {
+        /**
+         * Question slugs of the shard.
+         *
+         * @return question slugs
+         */
+        List<String> slugs();
+
+        /**
+         * Extend the lease.
+         *
+         * @return false if the lease expired and the shard was claimed by another node
+         * @throws Exception exception
+         */
+        boolean renew() throws Exception;
+
+        /**
+         * Record the shard as completed.
+         *
+         * @throws Exception exception
+         */
+        void complete() throws Exception;
+
+        /**
+         * Give the shard up, so that it can be claimed again at once.
+         *
+         * @throws Exception exception
+         */
+        void release() throws Exception;
+    }
+}
@@ -0,0 +1,495 @@
+package com.obby.demo.export;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.obby.demo.crawler.CrawlerProperties;
+import com.obby.demo.crawler.Storage;
+import com.obby.demo.model.Question;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Exports the results under {@code storage/result/} to normalized tables of an embedded H2 database, for analytical
+ * queries such as the acceptance rate by topic tag and difficulty, or the solutions per author.
+ * <p>
+ * The export is incremental: the size and modification time of each exported result are recorded, and only the
+ * results changed since are read again. A question is upserted by its title slug and a solution by its uuid, while
+ * the rows depending on them, such as tags and code snippets, are replaced. Questions whose result is gone are
+ * deleted.
+ * <p>
+ * Statements are batched, and committed every {@code crawler.export.batch-size} questions.
+ */
+@Component
+public class DatabaseExporter {
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseExporter.class);
+
+    private static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS question (" +
+                    "title_slug VARCHAR PRIMARY KEY, " +
+                    "title VARCHAR, " +
+                    "translated_title VARCHAR, " +
+                    "difficulty VARCHAR, " +
+                    "is_paid_only BOOLEAN, " +
+                    "content CLOB, " +
+                    "translated_content CLOB, " +
+                    "solution_count INT)",
+            "CREATE INDEX IF NOT EXISTS question_difficulty ON question (difficulty)",
+            "CREATE TABLE IF NOT EXISTS stats (" +
+                    "title_slug VARCHAR PRIMARY KEY, " +
+                    "total_accepted BIGINT, " +
+                    "total_submission BIGINT, " +
+                    "acceptance_rate DOUBLE)",
+            "CREATE TABLE IF NOT EXISTS topic_tag (" +
+                    "slug VARCHAR PRIMARY KEY, " +
+                    "name VARCHAR, " +
+                    "translated_name VARCHAR)",
+            "CREATE TABLE IF NOT EXISTS question_topic_tag (" +
+                    "title_slug VARCHAR, " +
+                    "tag_slug VARCHAR, " +
+                    "PRIMARY KEY (title_slug, tag_slug))",
+            "CREATE INDEX IF NOT EXISTS question_topic_tag_tag ON question_topic_tag (tag_slug)",
+            "CREATE TABLE IF NOT EXISTS similar_question (" +
+                    "title_slug VARCHAR, " +
+                    "similar_slug VARCHAR, " +
+                    "PRIMARY KEY (title_slug, similar_slug))",
+            "CREATE TABLE IF NOT EXISTS code_snippet (" +
+                    "title_slug VARCHAR, " +
+                    "lang_slug VARCHAR, " +
+                    "lang VARCHAR, " +
+                    "code CLOB, " +
+                    "PRIMARY KEY (title_slug, lang_slug))",
+            "CREATE INDEX IF NOT EXISTS code_snippet_lang ON code_snippet (lang_slug)",
+            "CREATE TABLE IF NOT EXISTS solution (" +
+                    "uuid VARCHAR PRIMARY KEY, " +
+                    "title_slug VARCHAR, " +
+                    "slug VARCHAR, " +
+                    "title VARCHAR, " +
+                    "author VARCHAR, " +
+                    "charge_type VARCHAR, " +
+                    "by_leetcode BOOLEAN, " +
+                    "created_at TIMESTAMP, " +
+                    "hit_count BIGINT, " +
+                    "summary VARCHAR, " +
+                    "content CLOB, " +
+                    "exported_at BIGINT)",
+            "CREATE INDEX IF NOT EXISTS solution_question ON solution (title_slug)",
+            "CREATE INDEX IF NOT EXISTS solution_author ON solution (author)",
+            "CREATE TABLE IF NOT EXISTS solution_tag (" +
+                    "uuid VARCHAR, " +
+                    "tag_slug VARCHAR, " +
+                    "name VARCHAR, " +
+                    "PRIMARY KEY (uuid, tag_slug))",
+            "CREATE INDEX IF NOT EXISTS solution_tag_tag ON solution_tag (tag_slug)",
+            "CREATE TABLE IF NOT EXISTS exported_result (" +
+                    "title_slug VARCHAR PRIMARY KEY, " +
+                    "size BIGINT, " +
+                    "modified_at BIGINT)"
+    };
+
+    private static final String DELETE_TOPIC_TAGS = "DELETE FROM question_topic_tag WHERE title_slug = ?";
+
+    private static final String DELETE_SIMILAR_QUESTIONS = "DELETE FROM similar_question WHERE title_slug = ?";
+
+    private static final String DELETE_CODE_SNIPPETS = "DELETE FROM code_snippet WHERE title_slug = ?";
+
+    private static final String DELETE_SOLUTION_TAGS =
+            "DELETE FROM solution_tag WHERE uuid IN (SELECT uuid FROM solution WHERE title_slug = ?)";
+
+    private static final String MERGE_QUESTION = "MERGE INTO question (title_slug, title, translated_title, " +
+            "difficulty, is_paid_only, content, translated_content, solution_count) KEY (title_slug) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String MERGE_STATS = "MERGE INTO stats (title_slug, total_accepted, total_submission, " +
+            "acceptance_rate) KEY (title_slug) VALUES (?, ?, ?, ?)";
+
+    private static final String MERGE_TOPIC_TAG =
+            "MERGE INTO topic_tag (slug, name, translated_name) KEY (slug) VALUES (?, ?, ?)";
+
+    private static final String MERGE_QUESTION_TOPIC_TAG =
+            "MERGE INTO question_topic_tag (title_slug, tag_slug) KEY (title_slug, tag_slug) VALUES (?, ?)";
+
+    private static final String MERGE_SIMILAR_QUESTION =
+            "MERGE INTO similar_question (title_slug, similar_slug) KEY (title_slug, similar_slug) VALUES (?, ?)";
+
+    private static final String MERGE_CODE_SNIPPET = "MERGE INTO code_snippet (title_slug, lang_slug, lang, code) " +
+            "KEY (title_slug, lang_slug) VALUES (?, ?, ?, ?)";
+
+    private static final String MERGE_SOLUTION = "MERGE INTO solution (uuid, title_slug, slug, title, author, " +
+            "charge_type, by_leetcode, created_at, hit_count, summary, content, exported_at) KEY (uuid) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String MERGE_SOLUTION_TAG =
+            "MERGE INTO solution_tag (uuid, tag_slug, name) KEY (uuid, tag_slug) VALUES (?, ?, ?)";
+
+    private static final String DELETE_STALE_SOLUTIONS =
+            "DELETE FROM solution WHERE title_slug = ? AND exported_at <> ?";
+
+    private static final String MERGE_EXPORTED_RESULT =
+            "MERGE INTO exported_result (title_slug, size, modified_at) KEY (title_slug) VALUES (?, ?, ?)";
+
+    /**
+     * Statements of an export, executed in this order so that the rows depending on a question are deleted before
+     * being inserted again, and its solutions left out of its result are deleted once the others are upserted.
+     */
+    private static final String[] STATEMENTS = {
+            DELETE_TOPIC_TAGS,
+            DELETE_SIMILAR_QUESTIONS,
+            DELETE_CODE_SNIPPETS,
+            DELETE_SOLUTION_TAGS,
+            MERGE_QUESTION,
+            MERGE_STATS,
+            MERGE_TOPIC_TAG,
+            MERGE_QUESTION_TOPIC_TAG,
+            MERGE_SIMILAR_QUESTION,
+            MERGE_CODE_SNIPPET,
+            MERGE_SOLUTION,
+            MERGE_SOLUTION_TAG,
+            DELETE_STALE_SOLUTIONS,
+            MERGE_EXPORTED_RESULT
+    };
+
+    /**
+     * Statements deleting a question, dependent rows first.
+     */
+    private static final String[] DELETE_QUESTION = {
+            DELETE_TOPIC_TAGS,
+            DELETE_SIMILAR_QUESTIONS,
+            DELETE_CODE_SNIPPETS,
+            DELETE_SOLUTION_TAGS,
+            "DELETE FROM solution WHERE title_slug = ?",
+            "DELETE FROM stats WHERE title_slug = ?",
+            "DELETE FROM question WHERE title_slug = ?",
+            "DELETE FROM exported_result WHERE title_slug = ?"
+    };
+
+    private final Gson gson;
+
+    private final CrawlerProperties.Export properties;
+
+    private final Storage storage;
+
+    public DatabaseExporter(CrawlerProperties properties, Storage storage) {
+        this.properties = properties.getExport();
+        this.storage = storage;
+        this.gson = new GsonBuilder().registerTypeAdapterFactory(storage.dictionary().decoder()).create();
+    }
+
+    /**
+     * JDBC URL of the database.
+     *
+     * @return JDBC URL
+     * @throws IOException exception
+     */
+    public String url() throws IOException {
+        return properties.getUrl().isBlank()
+                ? "jdbc:h2:file:" + storage.basePath("problemset").toAbsolutePath()
+                : properties.getUrl();
+    }
+
+    /**
+     * Export the results changed since the previous export.
+     *
+     * @return number of questions exported
+     * @throws Exception exception
+     */
+    public int export() throws Exception {
+        logger.info("Exporting to [" + url() + "]...");
+
+        Path resultPath = storage.resolve("result");
+        long exportedAt = System.currentTimeMillis();
+        int exported = 0;
+
+        Files.createDirectories(resultPath);
+
+        try (Connection connection = DriverManager.getConnection(url())) {
+            connection.setAutoCommit(false);
+
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : SCHEMA) {
+                    statement.execute(sql);
+                }
+            }
+
+            Map<String, long[]> previous = exportedResults(connection);
+            Set<String> slugs = new HashSet<>();
+
+            try (Batch batch = new Batch(connection, STATEMENTS);
+                 DirectoryStream<Path> results = Files.newDirectoryStream(resultPath, "*.json")) {
+                int pending = 0;
+
+                for (Path result : results) {
+                    String fileName = result.getFileName().toString();
+                    String slug = fileName.substring(0, fileName.length() - ".json".length());
+                    BasicFileAttributes attributes = Files.readAttributes(result, BasicFileAttributes.class);
+                    long size = attributes.size();
+                    long modifiedAt = attributes.lastModifiedTime().toMillis();
+                    long[] exportedResult = previous.get(slug);
+
+                    slugs.add(slug);
+
+                    if (exportedResult != null && exportedResult[0] == size && exportedResult[1] == modifiedAt) {
+                        continue;
+                    }
+
+                    exportQuestion(batch, result, slug, exportedAt);
+                    batch.add(MERGE_EXPORTED_RESULT, slug, size, modifiedAt);
+                    exported++;
+
+                    if (++pending >= Math.max(1, properties.getBatchSize())) {
+                        batch.execute();
+                        connection.commit();
+                        pending = 0;
+                    }
+                }
+
+                batch.execute();
+                connection.commit();
+            }
+
+            int deleted = deleteQuestions(connection, previous.keySet(), slugs);
+
+            connection.commit();
+
+            logger.info("Exported. Questions exported: " + exported + ". Questions deleted: " + deleted + ".");
+        }
+
+        return exported;
+    }
+
+    /**
+     * Add the statements exporting a result, reading its question before streaming its solutions one at a time.
+     */
+    private void exportQuestion(Batch batch, Path result, String slug, long exportedAt) throws Exception {
+        JsonObject fields = new JsonObject();
+        Question question = null;
+        int solutionCount = 0;
+
+        batch.add(DELETE_TOPIC_TAGS, slug);
+        batch.add(DELETE_SIMILAR_QUESTIONS, slug);
+        batch.add(DELETE_CODE_SNIPPETS, slug);
+        batch.add(DELETE_SOLUTION_TAGS, slug);
+
+        try (JsonReader reader = new JsonReader(Files.newBufferedReader(result))) {
+            reader.beginObject();
+
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+
+                if (!"solutions".equals(name) || reader.peek() != JsonToken.BEGIN_ARRAY) {
+                    fields.add(name, gson.fromJson(reader, JsonElement.class));
+                    continue;
+                }
+
+                // Results are written question first, so its fields are all read by now.
+                question = gson.fromJson(fields, Question.class);
+                reader.beginArray();
+
+                while (reader.hasNext()) {
+                    exportSolution(batch, slug, gson.fromJson(reader, Question.Solution.class), exportedAt);
+                    solutionCount++;
+                }
+
+                reader.endArray();
+            }
+
+            reader.endObject();
+        }
+
+        if (question == null) {
+            question = gson.fromJson(fields, Question.class);
+        }
+
+        batch.add(
+                MERGE_QUESTION,
+                slug,
+                question.getTitle(),
+                question.getTranslatedTitle(),
+                question.getDifficulty(),
+                question.getIsPaidOnly(),
+                question.getContent(),
+                question.getTranslatedContent(),
+                solutionCount
+        );
+
+        Question.Stats stats = question.getStats();
+
+        if (stats != null) {
+            Long accepted = stats.getTotalAcceptedRaw();
+            Long submission = stats.getTotalSubmissionRaw();
+
+            batch.add(
+                    MERGE_STATS,
+                    slug,
+                    accepted,
+                    submission,
+                    accepted != null && submission != null && submission > 0
+                            ? (double) accepted / submission
+                            : null
+            );
+        }
+
+        if (question.getTopicTags() != null) {
+            for (Question.TopicTag tag : question.getTopicTags()) {
+                batch.add(MERGE_TOPIC_TAG, tag.getSlug(), tag.getName(), tag.getTranslatedName());
+                batch.add(MERGE_QUESTION_TOPIC_TAG, slug, tag.getSlug());
+            }
+        }
+
+        if (question.getSimilarQuestions() != null) {
+            for (Question similar : question.getSimilarQuestions()) {
+                batch.add(MERGE_SIMILAR_QUESTION, slug, similar.getTitleSlug());
+            }
+        }
+
+        if (question.getCodeSnippets() != null) {
+            for (Question.CodeSnippet snippet : question.getCodeSnippets()) {
+                batch.add(MERGE_CODE_SNIPPET, slug, snippet.getLangSlug(), snippet.getLang(), snippet.getCode());
+            }
+        }
+
+        batch.add(DELETE_STALE_SOLUTIONS, slug, exportedAt);
+    }
+
+    private void exportSolution(Batch batch, String slug, Question.Solution solution, long exportedAt)
+            throws SQLException {
+        // Results fetched from a server leaving uuids out are keyed by their slugs instead.
+        String uuid = solution.getUuid() != null ? solution.getUuid() : slug + "/" + solution.getSlug();
+
+        batch.add(
+                MERGE_SOLUTION,
+                uuid,
+                slug,
+                solution.getSlug(),
+                solution.getTitle(),
+                solution.getAuthor() == null ? null : solution.getAuthor().getUsername(),
+                solution.getChargeType(),
+                solution.getByLeetcode(),
+                solution.getCreatedAt() == null ? null : new Timestamp(solution.getCreatedAt().getTime()),
+                solution.getHitCount(),
+                solution.getSummary(),
+                solution.getContent(),
+                exportedAt
+        );
+
+        if (solution.getTags() != null) {
+            for (Question.Solution.Tag tag : solution.getTags()) {
+                batch.add(MERGE_SOLUTION_TAG, uuid, tag.getSlug(), tag.getName());
+            }
+        }
+    }
+
+    /**
+     * Size and modification time of each exported result by slug.
+     */
+    private static Map<String, long[]> exportedResults(Connection connection) throws SQLException {
+        Map<String, long[]> results = new HashMap<>();
+
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(
+                     "SELECT title_slug, size, modified_at FROM exported_result"
+             )) {
+            while (resultSet.next()) {
+                results.put(resultSet.getString(1), new long[]{resultSet.getLong(2), resultSet.getLong(3)});
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Delete the questions exported before whose result is gone.
+     */
+    private static int deleteQuestions(Connection connection, Set<String> exported, Set<String> slugs)
+            throws SQLException {
+        List<String> deleted = new ArrayList<>(exported);
+
+        deleted.removeAll(slugs);
+
+        if (deleted.isEmpty()) {
+            return 0;
+        }
+
+        try (Batch batch = new Batch(connection, DELETE_QUESTION)) {
+            for (String slug : deleted) {
+                for (String sql : DELETE_QUESTION) {
+                    batch.add(sql, slug);
+                }
+            }
+
+            batch.execute();
+        }
+
+        return deleted.size();
+    }
+
+    /**
+     * Prepared statements of a connection, each batching its rows until executed in the order given.
+     */
+    private static final class Batch implements AutoCloseable {
+        private final Map<String, PreparedStatement> statements = new LinkedHashMap<>();
+
+        private Batch(Connection connection, String... sqls) throws SQLException {
+            try {
+                for (String sql : sqls) {
+                    statements.put(sql, connection.prepareStatement(sql));
+                }
+            } catch (SQLException e) {
+                close();
+                throw e;
+            }
+        }
+
+        void add(String sql, Object... parameters) throws SQLException {
+            PreparedStatement statement = statements.get(sql);
+
+            for (int i = 0; i < parameters.length; i++) {
+                if (parameters[i] == null) {
+                    statement.setNull(i + 1, Types.NULL);
+                } else {
+                    statement.setObject(i + 1, parameters[i]);
+                }
+            }
+
+            statement.addBatch();
+        }
+
+        void execute() throws SQLException {
+            for (PreparedStatement statement : statements.values()) {
+                statement.executeBatch();
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            for (PreparedStatement statement : statements.values()) {
+                statement.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,455 @@
+package com.obby.demo.graph;
+
+import com.google.common.primitives.UnsignedBytes;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Similar-question graph memory-mapped from its file, with the questions numbered densely in slug order.
+ * <p>
+ * Edges, the topic tags of each question and the questions of each tag are held in compressed sparse rows: an
+ * offset array indexed by node, and the ids of all the rows one after the other. Slugs are looked up by binary
+ * search in their sorted byte strings, so nothing is boxed and the graph stays resident at a few bytes per edge.
+ * <p>
+ * The file is a header of six ints, magic, version, then the counts of nodes, edges, tags and question tags,
+ * followed by the int arrays edge offsets, edge targets, tag offsets, question tags, tag question offsets, tag
+ * questions, slug offsets and tag slug offsets, then the UTF-8 bytes of the slugs and of the tag slugs.
+ */
+final class SimilarQuestionGraph {
+    private static final int MAGIC = 0x53514752;
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 6 * Integer.BYTES;
+
+    private static final Comparator<byte[]> BYTES = UnsignedBytes.lexicographicalComparator();
+
+    private final int nodeCount;
+
+    private final int tagCount;
+
+    private final IntBuffer edgeOffsets;
+
+    private final IntBuffer edges;
+
+    private final IntBuffer tagOffsets;
+
+    private final IntBuffer tags;
+
+    private final IntBuffer tagNodeOffsets;
+
+    private final IntBuffer tagNodes;
+
+    private final IntBuffer slugOffsets;
+
+    private final IntBuffer tagSlugOffsets;
+
+    private final ByteBuffer slugs;
+
+    private final ByteBuffer tagSlugs;
+
+    /**
+     * Inverse document frequency of each tag.
+     */
+    private final float[] tagWeights;
+
+    /**
+     * Sum of the weights of the tags of each question.
+     */
+    private final float[] nodeWeights;
+
+    private SimilarQuestionGraph(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(Integer.BYTES) != VERSION) {
+            throw new IOException("Not a similar-question graph of version " + VERSION + ".");
+        }
+
+        nodeCount = buffer.getInt(2 * Integer.BYTES);
+
+        int edgeCount = buffer.getInt(3 * Integer.BYTES);
+
+        tagCount = buffer.getInt(4 * Integer.BYTES);
+
+        int nodeTagCount = buffer.getInt(5 * Integer.BYTES);
+        int[] position = {HEADER_SIZE};
+
+        edgeOffsets = ints(buffer, position, nodeCount + 1);
+        edges = ints(buffer, position, edgeCount);
+        tagOffsets = ints(buffer, position, nodeCount + 1);
+        tags = ints(buffer, position, nodeTagCount);
+        tagNodeOffsets = ints(buffer, position, tagCount + 1);
+        tagNodes = ints(buffer, position, nodeTagCount);
+        slugOffsets = ints(buffer, position, nodeCount + 1);
+        tagSlugOffsets = ints(buffer, position, tagCount + 1);
+        slugs = bytes(buffer, position, slugOffsets.get(nodeCount));
+        tagSlugs = bytes(buffer, position, tagSlugOffsets.get(tagCount));
+        tagWeights = new float[tagCount];
+        nodeWeights = new float[nodeCount];
+
+        for (int tag = 0; tag < tagCount; tag++) {
+            int frequency = tagNodeOffsets.get(tag + 1) - tagNodeOffsets.get(tag);
+
+            tagWeights[tag] = (float) Math.log(1 + (double) nodeCount / Math.max(frequency, 1));
+        }
+
+        for (int node = 0; node < nodeCount; node++) {
+            for (int i = tagOffsets.get(node); i < tagOffsets.get(node + 1); i++) {
+                nodeWeights[node] += tagWeights[tags.get(i)];
+            }
+        }
+    }
+
+    /**
+     * Map a graph file.
+     *
+     * @param path graph file
+     * @return graph
+     * @throws IOException exception
+     */
+    static SimilarQuestionGraph open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping outlives the channel, and a file moved over this one leaves it intact.
+            return new SimilarQuestionGraph(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Write a graph file, replacing the previous one whole.
+     *
+     * @param path    graph file
+     * @param similar slugs of the similar questions of each question
+     * @param topics  topic tag slugs of each question
+     * @throws IOException exception
+     */
+    static void write(Path path, Map<String, List<String>> similar, Map<String, List<String>> topics)
+            throws IOException {
+        Set<String> nodeSet = new TreeSet<>(similar.keySet());
+        Set<String> tagSet = new TreeSet<>();
+
+        similar.values().forEach(nodeSet::addAll);
+        topics.keySet().forEach(nodeSet::add);
+        topics.values().forEach(tagSet::addAll);
+
+        byte[][] nodeSlugs = sorted(nodeSet);
+        byte[][] tagSlugs = sorted(tagSet);
+        int[] edgeOffsets = new int[nodeSlugs.length + 1];
+        int[] tagOffsets = new int[nodeSlugs.length + 1];
+        int[] tagNodeOffsets = new int[tagSlugs.length + 1];
+        List<int[]> edgeRows = new ArrayList<>();
+        List<int[]> tagRows = new ArrayList<>();
+        Map<Integer, List<Integer>> tagNodes = new HashMap<>();
+
+        for (int node = 0; node < nodeSlugs.length; node++) {
+            String slug = new String(nodeSlugs[node], StandardCharsets.UTF_8);
+            int[] edgeRow = ids(nodeSlugs, similar.getOrDefault(slug, List.of()));
+            int[] tagRow = ids(tagSlugs, topics.getOrDefault(slug, List.of()));
+
+            edgeRows.add(edgeRow);
+            tagRows.add(tagRow);
+            edgeOffsets[node + 1] = edgeOffsets[node] + edgeRow.length;
+            tagOffsets[node + 1] = tagOffsets[node] + tagRow.length;
+
+            for (int tag : tagRow) {
+                tagNodes.computeIfAbsent(tag, key -> new ArrayList<>()).add(node);
+            }
+        }
+
+        for (int tag = 0; tag < tagSlugs.length; tag++) {
+            tagNodeOffsets[tag + 1] = tagNodeOffsets[tag] + tagNodes.getOrDefault(tag, List.of()).size();
+        }
+
+        Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(
+                temporaryPath
+        )))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(nodeSlugs.length);
+            out.writeInt(edgeOffsets[nodeSlugs.length]);
+            out.writeInt(tagSlugs.length);
+            out.writeInt(tagOffsets[nodeSlugs.length]);
+            writeInts(out, edgeOffsets);
+
+            for (int[] row : edgeRows) {
+                writeInts(out, row);
+            }
+
+            writeInts(out, tagOffsets);
+
+            for (int[] row : tagRows) {
+                writeInts(out, row);
+            }
+
+            writeInts(out, tagNodeOffsets);
+
+            for (int tag = 0; tag < tagSlugs.length; tag++) {
+                for (int node : tagNodes.getOrDefault(tag, List.of())) {
+                    out.writeInt(node);
+                }
+            }
+
+            writeInts(out, offsets(nodeSlugs));
+            writeInts(out, offsets(tagSlugs));
+
+            for (byte[] slug : nodeSlugs) {
+                out.write(slug);
+            }
+
+            for (byte[] slug : tagSlugs) {
+                out.write(slug);
+            }
+        }
+
+        Files.move(temporaryPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    int size() {
+        return nodeCount;
+    }
+
+    /**
+     * Id of a question.
+     *
+     * @param slug question slug
+     * @return id, -1 if not in the graph
+     */
+    int id(String slug) {
+        return search(slugs, slugOffsets, nodeCount, slug.getBytes(StandardCharsets.UTF_8));
+    }
+
+    String slug(int id) {
+        return string(slugs, slugOffsets, id);
+    }
+
+    /**
+     * Questions reachable from a question within a number of hops, breadth first.
+     *
+     * @param id   question id
+     * @param hops maximum number of hops
+     * @return ids and hop counts of the questions, nearest first, without the question itself
+     */
+    List<int[]> neighbours(int id, int hops) {
+        List<int[]> neighbours = new ArrayList<>();
+        BitSet visited = new BitSet(nodeCount);
+        int[] queue = new int[nodeCount];
+        int head = 0;
+        int tail = 0;
+
+        queue[tail++] = id;
+        visited.set(id);
+
+        for (int hop = 1; hop <= hops && head < tail; hop++) {
+            int levelEnd = tail;
+
+            while (head < levelEnd) {
+                int node = queue[head++];
+
+                for (int i = edgeOffsets.get(node); i < edgeOffsets.get(node + 1); i++) {
+                    int target = edges.get(i);
+
+                    if (!visited.get(target)) {
+                        visited.set(target);
+                        queue[tail++] = target;
+                        neighbours.add(new int[]{target, hop});
+                    }
+                }
+            }
+        }
+
+        return neighbours;
+    }
+
+    /**
+     * Questions most similar to a question: the weighted Jaccard similarity of their topic tags, each tag weighted
+     * by its inverse document frequency, plus {@code 1 / hops} for the questions within a number of hops.
+     *
+     * @param id    question id
+     * @param hops  maximum number of hops of the graph boost
+     * @param limit maximum number of questions
+     * @return ids of the questions by descending score, and the scores
+     */
+    List<Similarity> similar(int id, int hops, int limit) {
+        float[] scores = new float[nodeCount];
+        float[] shared = new float[nodeCount];
+        BitSet candidates = new BitSet(nodeCount);
+
+        for (int i = tagOffsets.get(id); i < tagOffsets.get(id + 1); i++) {
+            int tag = tags.get(i);
+
+            for (int j = tagNodeOffsets.get(tag); j < tagNodeOffsets.get(tag + 1); j++) {
+                shared[tagNodes.get(j)] += tagWeights[tag];
+                candidates.set(tagNodes.get(j));
+            }
+        }
+
+        for (int node = candidates.nextSetBit(0); node >= 0; node = candidates.nextSetBit(node + 1)) {
+            scores[node] = shared[node] / (nodeWeights[id] + nodeWeights[node] - shared[node]);
+        }
+
+        for (int[] neighbour : neighbours(id, hops)) {
+            scores[neighbour[0]] += 1f / neighbour[1];
+            candidates.set(neighbour[0]);
+        }
+
+        candidates.clear(id);
+
+        PriorityQueue<Similarity> top = new PriorityQueue<>(Comparator.comparingDouble(Similarity::score)
+                .thenComparing(Similarity::id, Comparator.reverseOrder()));
+
+        for (int node = candidates.nextSetBit(0); node >= 0; node = candidates.nextSetBit(node + 1)) {
+            top.add(new Similarity(node, scores[node]));
+
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        Similarity[] similar = top.toArray(new Similarity[0]);
+
+        Arrays.sort(similar, top.comparator().reversed());
+
+        return Arrays.asList(similar);
+    }
+
+    /**
+     * Tag slugs of a question.
+     *
+     * @param id question id
+     * @return tag slugs
+     */
+    List<String> tags(int id) {
+        List<String> slugs = new ArrayList<>();
+
+        for (int i = tagOffsets.get(id); i < tagOffsets.get(id + 1); i++) {
+            slugs.add(string(tagSlugs, tagSlugOffsets, tags.get(i)));
+        }
+
+        return slugs;
+    }
+
+    private static IntBuffer ints(ByteBuffer buffer, int[] position, int count) {
+        IntBuffer ints = buffer.duplicate().position(position[0]).slice().asIntBuffer().limit(count);
+
+        position[0] += count * Integer.BYTES;
+
+        return ints;
+    }
+
+    private static ByteBuffer bytes(ByteBuffer buffer, int[] position, int count) {
+        ByteBuffer bytes = buffer.duplicate().position(position[0]).slice().limit(count);
+
+        position[0] += count;
+
+        return bytes;
+    }
+
+    private static int search(ByteBuffer bytes, IntBuffer offsets, int count, byte[] key) {
+        int low = 0;
+        int high = count - 1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int start = offsets.get(middle);
+            int length = offsets.get(middle + 1) - start;
+            int comparison = 0;
+
+            for (int i = 0; i < Math.min(length, key.length) && comparison == 0; i++) {
+                comparison = UnsignedBytes.compare(bytes.get(start + i), key[i]);
+            }
+
+            if (comparison == 0) {
+                comparison = Integer.compare(length, key.length);
+            }
+
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+
+        return -1;
+    }
+
+    private static String string(ByteBuffer bytes, IntBuffer offsets, int id) {
+        byte[] value = new byte[offsets.get(id + 1) - offsets.get(id)];
+
+        bytes.duplicate().position(offsets.get(id)).get(value);
+
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static byte[][] sorted(Set<String> values) {
+        return values.stream()
+                .map(value -> value.getBytes(StandardCharsets.UTF_8))
+                .sorted(BYTES)
+                .toArray(byte[][]::new);
+    }
+
+    /**
+     * Distinct ids of the slugs, in order of first appearance.
+     */
+    private static int[] ids(byte[][] sorted, List<String> slugs) {
+        return slugs.stream()
+                .mapToInt(slug -> Arrays.binarySearch(sorted, slug.getBytes(StandardCharsets.UTF_8), BYTES))
+                .distinct()
+                .toArray();
+    }
+
+    private static int[] offsets(byte[][] values) {
+        int[] offsets = new int[values.length + 1];
+
+        for (int i = 0; i < values.length; i++) {
+            offsets[i + 1] = offsets[i] + values[i].length;
+        }
+
+        return offsets;
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    static final class Similarity {
+        private final int id;
+
+        private final float score;
+
+        private Similarity(int id, float score) {
+            this.id = id;
+            this.score = score;
+        }
+
+        int id() {
+            return id;
+        }
+
+        float score() {
+            return score;
+        }
+    }
+}
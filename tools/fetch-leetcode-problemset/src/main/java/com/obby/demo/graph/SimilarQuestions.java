@@ -0,0 +1,222 @@
+package com.obby.demo.graph;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.obby.demo.crawler.Storage;
+import com.obby.demo.model.Question;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Similar-question graph of the crawled questions, built from the results once crawled and stored in
+ * {@code storage/similar-questions.graph}, from which it is memory-mapped.
+ * <p>
+ * Questions only known as similar to another, such as paid ones, are in the graph without topic tags. Edges follow
+ * the similar questions of each result as listed, so the graph is directed.
+ */
+@Component
+public class SimilarQuestions {
+    private static final Logger logger = LoggerFactory.getLogger(SimilarQuestions.class);
+
+    private static final String PATH = "similar-questions.graph";
+
+    /**
+     * Fields of a result the graph is built from.
+     */
+    private static final Set<String> FIELDS = Set.of("titleSlug", "similarQuestions", "topicTags");
+
+    /**
+     * Hops within which similar questions add to the score of a question.
+     */
+    private static final int SIMILAR_HOPS = 2;
+
+    private final Storage storage;
+
+    private final Gson gson;
+
+    private volatile SimilarQuestionGraph graph;
+
+    public SimilarQuestions(Storage storage) {
+        this.storage = storage;
+        this.gson = new GsonBuilder().registerTypeAdapterFactory(storage.dictionary().decoder()).create();
+    }
+
+    /**
+     * Map the stored graph, building it first if there is none but there are results.
+     *
+     * @throws IOException exception
+     */
+    public void load() throws IOException {
+        Path path = storage.resolve(PATH);
+
+        if (Files.exists(path)) {
+            graph = SimilarQuestionGraph.open(path);
+            logger.info("Similar-question graph loaded. Questions: " + graph.size() + ".");
+        } else if (Files.isDirectory(storage.resolve("result/"))) {
+            build();
+        }
+    }
+
+    /**
+     * Build the graph from the results under {@code storage/result/}, replacing the stored one.
+     *
+     * @throws IOException exception
+     */
+    public void build() throws IOException {
+        Path results = storage.resolve("result/");
+        Map<String, List<String>> similar = new HashMap<>();
+        Map<String, List<String>> topics = new HashMap<>();
+
+        if (Files.isDirectory(results)) {
+            try (DirectoryStream<Path> paths = Files.newDirectoryStream(results, "*.json")) {
+                for (Path path : paths) {
+                    try {
+                        Question question = read(path);
+
+                        if (question.getTitleSlug() == null) {
+                            continue;
+                        }
+
+                        similar.put(question.getTitleSlug(), question.getSimilarQuestions() == null
+                                ? List.of()
+                                : question.getSimilarQuestions().stream()
+                                .map(Question::getTitleSlug)
+                                .filter(Objects::nonNull)
+                                .collect(Collectors.toList()));
+                        topics.put(question.getTitleSlug(), question.getTopicTags() == null
+                                ? List.of()
+                                : question.getTopicTags().stream()
+                                .map(Question.TopicTag::getSlug)
+                                .filter(Objects::nonNull)
+                                .collect(Collectors.toList()));
+                    } catch (RuntimeException e) {
+                        logger.warn("Result [" + path + "] not added to the similar-question graph.", e);
+                    }
+                }
+            }
+        }
+
+        Path path = storage.basePath(PATH);
+
+        SimilarQuestionGraph.write(path, similar, topics);
+        graph = SimilarQuestionGraph.open(path);
+        logger.info("Similar-question graph built. Questions: " + graph.size() + ".");
+    }
+
+    /**
+     * Questions reachable from a question within a number of hops.
+     *
+     * @param slug question slug
+     * @param hops maximum number of hops
+     * @return questions, nearest first, null if the question is not in the graph
+     */
+    public SimilarQuestionsResult neighbours(String slug, int hops) {
+        long start = System.nanoTime();
+        SimilarQuestionGraph graph = this.graph;
+        int id = graph == null ? -1 : graph.id(slug);
+
+        if (id < 0) {
+            return null;
+        }
+
+        List<SimilarQuestionsResult.Neighbour> questions = new ArrayList<>();
+
+        for (int[] neighbour : graph.neighbours(id, hops)) {
+            questions.add(neighbour(graph, neighbour[0], neighbour[1], null));
+        }
+
+        return result(questions, start);
+    }
+
+    /**
+     * Questions most similar to a question, by the weighted similarity of their topic tags and their distance in
+     * the graph.
+     *
+     * @param slug  question slug
+     * @param limit maximum number of questions
+     * @return questions by descending score, null if the question is not in the graph
+     */
+    public SimilarQuestionsResult similar(String slug, int limit) {
+        long start = System.nanoTime();
+        SimilarQuestionGraph graph = this.graph;
+        int id = graph == null ? -1 : graph.id(slug);
+
+        if (id < 0) {
+            return null;
+        }
+
+        Map<Integer, Integer> hops = new HashMap<>();
+        List<SimilarQuestionsResult.Neighbour> questions = new ArrayList<>();
+
+        for (int[] neighbour : graph.neighbours(id, SIMILAR_HOPS)) {
+            hops.put(neighbour[0], neighbour[1]);
+        }
+
+        for (SimilarQuestionGraph.Similarity similarity : graph.similar(id, SIMILAR_HOPS, limit)) {
+            questions.add(neighbour(graph, similarity.id(), hops.get(similarity.id()), similarity.score()));
+        }
+
+        return result(questions, start);
+    }
+
+    private Question read(Path path) throws IOException {
+        JsonObject fields = new JsonObject();
+
+        try (JsonReader reader = new JsonReader(Files.newBufferedReader(path))) {
+            reader.beginObject();
+
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+
+                if (FIELDS.contains(name)) {
+                    fields.add(name, gson.fromJson(reader, JsonElement.class));
+                } else {
+                    reader.skipValue();
+                }
+            }
+        }
+
+        return gson.fromJson(fields, Question.class);
+    }
+
+    private static SimilarQuestionsResult.Neighbour neighbour(
+            SimilarQuestionGraph graph,
+            int id,
+            Integer hops,
+            Float score
+    ) {
+        SimilarQuestionsResult.Neighbour neighbour = new SimilarQuestionsResult.Neighbour();
+
+        neighbour.setSlug(graph.slug(id));
+        neighbour.setHops(hops);
+        neighbour.setScore(score);
+        neighbour.setTags(graph.tags(id));
+
+        return neighbour;
+    }
+
+    private static SimilarQuestionsResult result(List<SimilarQuestionsResult.Neighbour> questions, long start) {
+        SimilarQuestionsResult result = new SimilarQuestionsResult();
+
+        result.setQuestions(questions);
+        result.setTookMicros((System.nanoTime() - start) / 1000);
+
+        return result;
+    }
+}
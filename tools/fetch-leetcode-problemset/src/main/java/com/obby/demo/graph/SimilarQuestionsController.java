@@ -0,0 +1,51 @@
+package com.obby.demo.graph;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("/questions")
+public class SimilarQuestionsController {
+    private final SimilarQuestions similarQuestions;
+
+    public SimilarQuestionsController(SimilarQuestions similarQuestions) {
+        this.similarQuestions = similarQuestions;
+    }
+
+    /**
+     * Questions reachable through similar questions.
+     *
+     * @param slug question slug
+     * @param hops maximum number of hops
+     * @return questions, nearest first
+     */
+    @GetMapping("/{slug}/neighbours")
+    public SimilarQuestionsResult neighbours(@PathVariable String slug, @RequestParam(defaultValue = "1") int hops) {
+        return found(similarQuestions.neighbours(slug, Math.min(Math.max(hops, 1), 5)));
+    }
+
+    /**
+     * Questions most similar to a question by topic tags and similar questions.
+     *
+     * @param slug  question slug
+     * @param limit maximum number of questions
+     * @return questions by descending score
+     */
+    @GetMapping("/{slug}/similar")
+    public SimilarQuestionsResult similar(@PathVariable String slug, @RequestParam(defaultValue = "10") int limit) {
+        return found(similarQuestions.similar(slug, Math.min(Math.max(limit, 0), 100)));
+    }
+
+    private static SimilarQuestionsResult found(SimilarQuestionsResult result) {
+        if (result == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+
+        return result;
+    }
+}
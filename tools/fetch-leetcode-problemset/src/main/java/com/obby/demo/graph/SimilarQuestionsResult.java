@@ -0,0 +1,25 @@
+package com.obby.demo.graph;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class SimilarQuestionsResult {
+    private long tookMicros;
+    private List<Neighbour> questions;
+
+    @Data
+    public static class Neighbour {
+        private String slug;
+        /**
+         * Hops from the question in the similar-question graph, null if farther than the query looked.
+         */
+        private Integer hops;
+        /**
+         * Similarity score, null for a neighbour query.
+         */
+        private Float score;
+        private List<String> tags;
+    }
+}
@@ -0,0 +1,39 @@
+package com.obby.demo.model;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Binds a field that LeetCode serves as a JSON document inside a string, such as {@code similarQuestions} and
+ * {@code stats}, while still reading and writing it as plain JSON elsewhere.
+ */
+public class EmbeddedJsonAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        TypeAdapter<T> delegate = gson.getAdapter(type);
+
+        return new TypeAdapter<T>() {
+            @Override
+            public void write(JsonWriter out, T value) throws IOException {
+                delegate.write(out, value);
+            }
+
+            @Override
+            public T read(JsonReader in) throws IOException {
+                if (in.peek() == JsonToken.STRING) {
+                    return delegate.fromJson(in.nextString());
+                }
+
+                return delegate.read(in);
+            }
+        };
+    }
+}
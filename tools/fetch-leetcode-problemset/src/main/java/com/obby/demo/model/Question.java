@@ -1,5 +1,7 @@
 package com.obby.demo.model;
 
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.annotations.SerializedName;
 import lombok.Data;
 
 import java.util.Date;
@@ -14,9 +16,11 @@ public class Question {
     private String translatedContent;
     private Boolean isPaidOnly;
     private String difficulty;
+    @JsonAdapter(EmbeddedJsonAdapterFactory.class)
     private List<Question> similarQuestions;
     private List<TopicTag> topicTags;
     private List<CodeSnippet> codeSnippets;
+    @JsonAdapter(EmbeddedJsonAdapterFactory.class)
     private Stats stats;
     private List<String> hints;
     private List<Solution> solutions;
@@ -53,11 +57,20 @@ public class Question {
         private String identifier;
         private List<Tag> tags;
         private Date createdAt;
+        private Author author;
         private String summary;
         private Boolean byLeetcode;
         private String content;
+        private Long hitCount;
+        @SerializedName(value = "questionTitleSlug", alternate = "question")
+        @JsonAdapter(QuestionTitleSlugAdapter.class)
         private String questionTitleSlug;
 
+        @Data
+        public static class Author {
+            private String username;
+        }
+
         @Data
         public static class Tag {
             private String name;
@@ -0,0 +1,43 @@
+package com.obby.demo.model;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Binds the question title slug of a solution, either from the plain string or from the {@code question} object
+ * LeetCode nests it in.
+ */
+public class QuestionTitleSlugAdapter extends TypeAdapter<String> {
+
+    @Override
+    public void write(JsonWriter out, String value) throws IOException {
+        out.value(value);
+    }
+
+    @Override
+    public String read(JsonReader in) throws IOException {
+        if (in.peek() != JsonToken.BEGIN_OBJECT) {
+            return in.nextString();
+        }
+
+        String slug = null;
+
+        in.beginObject();
+
+        while (in.hasNext()) {
+            if ("questionTitleSlug".equals(in.nextName()) && in.peek() == JsonToken.STRING) {
+                slug = in.nextString();
+            } else {
+                in.skipValue();
+            }
+        }
+
+        in.endObject();
+
+        return slug;
+    }
+}
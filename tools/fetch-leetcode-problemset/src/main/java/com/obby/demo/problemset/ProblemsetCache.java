@@ -0,0 +1,336 @@
+package com.obby.demo.problemset;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.gson.ExclusionStrategy;
+import com.google.gson.FieldAttributes;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.obby.demo.crawler.CrawlerProperties;
+import com.obby.demo.crawler.Storage;
+import com.obby.demo.model.Question;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Read-through cache of the results under {@code storage/result/}, bounded by the approximate heap size of the
+ * cached questions.
+ * <p>
+ * A question is cached without its contents and its solutions, which hold most of a result and are each loaded
+ * into an entry of their own only when asked for, so listing the details of a question does not hold its
+ * statement, code snippets or solutions. Strings repeated across questions, such as tag names, difficulties and languages, are
+ * interned. An entry is tagged with the size and modification time of its file, checked on every read, so a
+ * result written by a crawl replaces the cached one.
+ */
+@Component
+public class ProblemsetCache {
+    private static final Pattern SLUG = Pattern.compile("[\\w-]+");
+
+    /**
+     * Approximate heap size of an object without its strings.
+     */
+    private static final int OBJECT_OVERHEAD = 64;
+
+    /**
+     * Fields of {@link Question} held by the contents entry.
+     */
+    private static final Set<String> CONTENTS = Set.of("content", "translatedContent", "codeSnippets");
+
+    private final Gson questionGson;
+
+    private final Gson contentsGson;
+
+    private final Gson solutionsGson;
+
+    private final Interner<String> strings = Interners.newWeakInterner();
+
+    private final Storage storage;
+
+    private final Cache<Key, Entry<?>> cache;
+
+    public ProblemsetCache(CrawlerProperties properties, Storage storage, MeterRegistry registry) {
+        this.storage = storage;
+        this.questionGson = gson(
+                storage,
+                field -> field.getName().equals("solutions") || CONTENTS.contains(field.getName())
+        );
+        this.contentsGson = gson(storage, field -> !CONTENTS.contains(field.getName()));
+        this.solutionsGson = gson(storage, field -> !field.getName().equals("solutions"));
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(properties.getServing().getCacheSize().toBytes())
+                .<Key, Entry<?>>weigher((key, entry) -> entry.weight)
+                .recordStats()
+                .build();
+
+        GuavaCacheMetrics.monitor(registry, cache, "problemset");
+    }
+
+    /**
+     * Version of the stored result of a question, changed whenever the result is written.
+     *
+     * @param slug question slug
+     * @return version, usable as an entity tag, null if the question is not stored
+     * @throws IOException exception
+     */
+    public String version(String slug) throws IOException {
+        Path path = path(slug);
+
+        if (path == null) {
+            return null;
+        }
+
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+
+            return "\"" + Long.toHexString(attributes.size())
+                    + "-" + Long.toHexString(attributes.lastModifiedTime().toMillis()) + "\"";
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Question without its contents and solutions.
+     *
+     * @param slug question slug
+     * @return question, null if not stored
+     * @throws IOException exception
+     */
+    public Question question(String slug) throws IOException {
+        return get(new Key(slug, Part.QUESTION), this::readQuestion);
+    }
+
+    /**
+     * Contents of a question: a question holding only its content, translated content and code snippets.
+     *
+     * @param slug question slug
+     * @return contents, null if the question is not stored
+     * @throws IOException exception
+     */
+    public Question contents(String slug) throws IOException {
+        return get(new Key(slug, Part.CONTENTS), this::readContents);
+    }
+
+    /**
+     * Solutions of a question.
+     *
+     * @param slug question slug
+     * @return solutions, null if the question is not stored
+     * @throws IOException exception
+     */
+    public List<Question.Solution> solutions(String slug) throws IOException {
+        return get(new Key(slug, Part.SOLUTIONS), this::readSolutions);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T get(Key key, Loader<T> loader) throws IOException {
+        String version = version(key.slug);
+
+        if (version == null) {
+            cache.invalidate(key);
+
+            return null;
+        }
+
+        Entry<?> entry = cache.getIfPresent(key);
+
+        // Concurrent misses of the same key may load it twice, which is cheaper than locking every read.
+        if (entry == null || !entry.version.equals(version)) {
+            entry = loader.load(key.slug, version);
+            cache.put(key, entry);
+        }
+
+        return (T) entry.value;
+    }
+
+    private Entry<Question> readQuestion(String slug, String version) throws IOException {
+        Question question;
+
+        try (Reader reader = Files.newBufferedReader(path(slug))) {
+            question = questionGson.fromJson(reader, Question.class);
+        }
+
+        long weight = OBJECT_OVERHEAD + size(question.getTitle()) + size(question.getTranslatedTitle());
+
+        question.setDifficulty(intern(question.getDifficulty()));
+
+        if (question.getTopicTags() != null) {
+            for (Question.TopicTag tag : question.getTopicTags()) {
+                tag.setName(intern(tag.getName()));
+                tag.setSlug(intern(tag.getSlug()));
+                tag.setTranslatedName(intern(tag.getTranslatedName()));
+                weight += OBJECT_OVERHEAD;
+            }
+        }
+
+        if (question.getSimilarQuestions() != null) {
+            for (Question similar : question.getSimilarQuestions()) {
+                similar.setDifficulty(intern(similar.getDifficulty()));
+                weight += OBJECT_OVERHEAD + size(similar.getTitle()) + size(similar.getTranslatedTitle());
+            }
+        }
+
+        if (question.getHints() != null) {
+            for (String hint : question.getHints()) {
+                weight += size(hint);
+            }
+        }
+
+        return new Entry<>(version, question, weight);
+    }
+
+    private Entry<Question> readContents(String slug, String version) throws IOException {
+        Question contents;
+
+        try (Reader reader = Files.newBufferedReader(path(slug))) {
+            contents = contentsGson.fromJson(reader, Question.class);
+        }
+
+        long weight = OBJECT_OVERHEAD + size(contents.getContent()) + size(contents.getTranslatedContent());
+
+        if (contents.getCodeSnippets() != null) {
+            for (Question.CodeSnippet snippet : contents.getCodeSnippets()) {
+                snippet.setLang(intern(snippet.getLang()));
+                snippet.setLangSlug(intern(snippet.getLangSlug()));
+                weight += OBJECT_OVERHEAD + size(snippet.getCode());
+            }
+        }
+
+        return new Entry<>(version, contents, weight);
+    }
+
+    private Entry<List<Question.Solution>> readSolutions(String slug, String version) throws IOException {
+        Question question;
+
+        try (Reader reader = Files.newBufferedReader(path(slug))) {
+            question = solutionsGson.fromJson(reader, Question.class);
+        }
+
+        List<Question.Solution> solutions = question.getSolutions() == null
+                ? new ArrayList<>()
+                : question.getSolutions();
+        long weight = OBJECT_OVERHEAD;
+
+        for (Question.Solution solution : solutions) {
+            solution.setChargeType(intern(solution.getChargeType()));
+            solution.setQuestionTitleSlug(intern(solution.getQuestionTitleSlug()));
+            weight += OBJECT_OVERHEAD + size(solution.getTitle()) + size(solution.getSummary())
+                    + size(solution.getContent());
+
+            if (solution.getTags() != null) {
+                for (Question.Solution.Tag tag : solution.getTags()) {
+                    tag.setName(intern(tag.getName()));
+                    tag.setNameTranslated(intern(tag.getNameTranslated()));
+                    tag.setSlug(intern(tag.getSlug()));
+                    weight += OBJECT_OVERHEAD;
+                }
+            }
+        }
+
+        return new Entry<>(version, solutions, weight);
+    }
+
+    private Path path(String slug) {
+        return slug != null && SLUG.matcher(slug).matches() ? storage.resolve("result/" + slug + ".json") : null;
+    }
+
+    private String intern(String value) {
+        return value == null ? null : strings.intern(value);
+    }
+
+    /**
+     * Approximate heap size of a string, counting two bytes a character as the worst case of compact strings.
+     */
+    private static long size(String value) {
+        return value == null ? 0 : 2L * value.length();
+    }
+
+    /**
+     * Gson reading results of either format and skipping the fields of {@link Question} matching a filter,
+     * without binding their values.
+     */
+    private static Gson gson(Storage storage, Predicate<FieldAttributes> skipped) {
+        return new GsonBuilder()
+                .registerTypeAdapterFactory(storage.dictionary().decoder())
+                .addDeserializationExclusionStrategy(new ExclusionStrategy() {
+                    @Override
+                    public boolean shouldSkipField(FieldAttributes field) {
+                        return field.getDeclaringClass() == Question.class && skipped.test(field);
+                    }
+
+                    @Override
+                    public boolean shouldSkipClass(Class<?> type) {
+                        return false;
+                    }
+                })
+                .create();
+    }
+
+    @FunctionalInterface
+    private interface Loader<T> {
+        Entry<T> load(String slug, String version) throws IOException;
+    }
+
+    private enum Part {
+        QUESTION,
+        CONTENTS,
+        SOLUTIONS
+    }
+
+    private static final class Key {
+        private final String slug;
+        private final Part part;
+
+        private Key(String slug, Part part) {
+            this.slug = slug;
+            this.part = part;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            Key key = (Key) o;
+
+            return part == key.part && slug.equals(key.slug);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * slug.hashCode() + part.hashCode();
+        }
+    }
+
+    private static final class Entry<T> {
+        private final String version;
+        private final T value;
+        private final int weight;
+
+        private Entry(String version, T value, long weight) {
+            this.version = version;
+            this.value = value;
+            this.weight = (int) Math.min(Integer.MAX_VALUE, weight);
+        }
+    }
+}
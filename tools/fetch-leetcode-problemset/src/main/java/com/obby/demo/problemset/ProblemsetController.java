@@ -0,0 +1,174 @@
+package com.obby.demo.problemset;
+
+import com.obby.demo.content.ContentConverter;
+import com.obby.demo.content.ConvertedContent;
+import com.obby.demo.model.Question;
+import com.obby.demo.search.SearchIndex;
+import com.obby.demo.search.SearchResult;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serves the crawled problem set, answering conditional requests with 304 while a result is unchanged.
+ */
+@RestController
+@RequestMapping("/questions")
+public class ProblemsetController {
+    private final ProblemsetCache cache;
+
+    private final SearchIndex index;
+
+    private final ContentConverter content;
+
+    public ProblemsetController(ProblemsetCache cache, SearchIndex index, ContentConverter content) {
+        this.cache = cache;
+        this.index = index;
+        this.content = content;
+    }
+
+    /**
+     * List the questions, filtered by keywords, difficulty and tags.
+     *
+     * @param q          keywords, all of which must match
+     * @param difficulty difficulty, such as Easy
+     * @param tags       tag slugs or names, all of which must match
+     * @param offset     number of questions to skip
+     * @param limit      maximum number of questions
+     * @param request    request
+     * @return questions, null if not modified
+     */
+    @GetMapping
+    public SearchResult questions(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(required = false) String difficulty,
+            @RequestParam(required = false) List<String> tags,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "50") int limit,
+            WebRequest request
+    ) {
+        if (request.checkNotModified("\"" + index.version() + "\"")) {
+            return null;
+        }
+
+        return index.search(q, difficulty, tags, Math.max(offset, 0), Math.min(Math.max(limit, 0), 1000));
+    }
+
+    /**
+     * Question without its solutions.
+     *
+     * @param slug    question slug
+     * @param request request
+     * @return question, null if not modified
+     * @throws IOException exception
+     */
+    @GetMapping("/{slug}")
+    public Question question(@PathVariable String slug, WebRequest request) throws IOException {
+        if (request.checkNotModified(version(slug))) {
+            return null;
+        }
+
+        Question cached = found(cache.question(slug));
+        Question contents = found(cache.contents(slug));
+        // Both are cached and shared, so the response is a copy of them rather than either filled in.
+        Question question = new Question();
+
+        question.setTitleSlug(cached.getTitleSlug());
+        question.setTitle(cached.getTitle());
+        question.setContent(contents.getContent());
+        question.setTranslatedTitle(cached.getTranslatedTitle());
+        question.setTranslatedContent(contents.getTranslatedContent());
+        question.setIsPaidOnly(cached.getIsPaidOnly());
+        question.setDifficulty(cached.getDifficulty());
+        question.setSimilarQuestions(cached.getSimilarQuestions());
+        question.setTopicTags(cached.getTopicTags());
+        question.setCodeSnippets(contents.getCodeSnippets());
+        question.setStats(cached.getStats());
+        question.setHints(cached.getHints());
+
+        return question;
+    }
+
+    /**
+     * Solutions of a question.
+     *
+     * @param slug    question slug
+     * @param request request
+     * @return solutions, null if not modified
+     * @throws IOException exception
+     */
+    @GetMapping("/{slug}/solutions")
+    public List<Question.Solution> solutions(@PathVariable String slug, WebRequest request) throws IOException {
+        if (request.checkNotModified(version(slug))) {
+            return null;
+        }
+
+        return found(cache.solutions(slug));
+    }
+
+    /**
+     * Contents of a question and its solutions, converted to Markdown, with their code blocks and images.
+     *
+     * @param slug      question slug
+     * @param solutions whether to include the solution contents
+     * @param request   request
+     * @return contents, null if not modified
+     * @throws IOException exception
+     */
+    @GetMapping("/{slug}/content")
+    public QuestionContent content(
+            @PathVariable String slug,
+            @RequestParam(defaultValue = "true") boolean solutions,
+            WebRequest request
+    ) throws IOException {
+        if (request.checkNotModified(version(slug))) {
+            return null;
+        }
+
+        Question question = found(cache.contents(slug));
+        QuestionContent questionContent = new QuestionContent();
+
+        questionContent.setContent(content.convert(question.getContent(), ContentConverter.Format.HTML));
+        questionContent.setTranslatedContent(content.convert(
+                question.getTranslatedContent(),
+                ContentConverter.Format.HTML
+        ));
+
+        if (solutions) {
+            Map<String, ConvertedContent> solutionContents = new LinkedHashMap<>();
+
+            for (Question.Solution solution : found(cache.solutions(slug))) {
+                solutionContents.put(
+                        solution.getSlug(),
+                        content.convert(solution.getContent(), ContentConverter.Format.MARKDOWN)
+                );
+            }
+
+            questionContent.setSolutions(solutionContents);
+        }
+
+        return questionContent;
+    }
+
+    private String version(String slug) throws IOException {
+        return found(cache.version(slug));
+    }
+
+    private static <T> T found(T value) {
+        if (value == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+
+        return value;
+    }
+}
@@ -0,0 +1,19 @@
+package com.obby.demo.problemset;
+
+import com.obby.demo.content.ConvertedContent;
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * Contents of a question and its solutions, converted to Markdown.
+ */
+@Data
+public class QuestionContent {
+    private ConvertedContent content;
+    private ConvertedContent translatedContent;
+    /**
+     * Solution contents by solution slug, in the order of the solutions.
+     */
+    private Map<String, ConvertedContent> solutions;
+}
@@ -0,0 +1,35 @@
+package com.obby.demo.search;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+public class SearchController {
+    private final SearchIndex index;
+
+    public SearchController(SearchIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * Search the crawled questions and solutions.
+     *
+     * @param q          keywords, all of which must match
+     * @param difficulty difficulty, such as Easy
+     * @param tags       tag slugs or names, all of which must match
+     * @param limit      maximum number of hits
+     * @return hits
+     */
+    @GetMapping("/search")
+    public SearchResult search(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(required = false) String difficulty,
+            @RequestParam(required = false) List<String> tags,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        return index.search(q, difficulty, tags, Math.min(Math.max(limit, 0), 100));
+    }
+}
@@ -0,0 +1,465 @@
+package com.obby.demo.search;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.obby.demo.crawler.CrawlerProperties;
+import com.obby.demo.crawler.Storage;
+import com.obby.demo.model.Question;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory inverted index of the crawled questions, with their solutions folded into the question they belong to.
+ * <p>
+ * Each term maps to the questions containing it, in the order they were indexed, with a weight summing the
+ * occurrences of the term in each field times the field weight: a match in a title counts far more than one in a
+ * solution. A query matches the questions containing all its terms, ranked by BM25-like saturated weights times
+ * the inverse document frequency of each term.
+ * <p>
+ * Questions are indexed as the crawl completes them and, at startup, from the results stored by previous crawls.
+ * A question indexed again replaces its previous document, whose postings are not reclaimed.
+ */
+@Component
+public class SearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndex.class);
+
+    private static final float TITLE_WEIGHT = 10;
+
+    private static final float TAG_WEIGHT = 5;
+
+    private static final float HINT_WEIGHT = 2;
+
+    private static final float CONTENT_WEIGHT = 1;
+
+    private static final float SOLUTION_SUMMARY_WEIGHT = 0.5f;
+
+    private static final float SOLUTION_CONTENT_WEIGHT = 0.2f;
+
+    /**
+     * Weight at which a term is half as relevant as it can get in a question, as BM25's k1.
+     */
+    private static final float SATURATION = 1.2f;
+
+    private final Gson gson;
+
+    private final Storage storage;
+
+    private final CrawlerProperties.Search properties;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Postings> postings = new HashMap<>();
+
+    private final List<Document> documents = new ArrayList<>();
+
+    private final Map<String, Integer> ids = new HashMap<>();
+
+    private final BitSet deleted = new BitSet();
+
+    private volatile long version;
+
+    public SearchIndex(CrawlerProperties properties, Storage storage) {
+        this.storage = storage;
+        this.properties = properties.getSearch();
+        this.gson = new GsonBuilder().registerTypeAdapterFactory(storage.dictionary().decoder()).create();
+
+        gson.getAdapter(Question.class);
+    }
+
+    /**
+     * Index a question and its solutions, replacing its previous document.
+     *
+     * @param question question
+     */
+    public void add(Question question) {
+        add(question, true);
+    }
+
+    /**
+     * Start indexing a question whose solutions are handed over one by one, as they are crawled.
+     *
+     * @param question question, without its solutions
+     * @return indexer, adding the question to the index once committed, or doing nothing if indexing while
+     * crawling is disabled
+     */
+    public Indexer indexer(Question question) {
+        return new Indexer(question, properties.isEnabled());
+    }
+
+    /**
+     * Index the results stored under {@code storage/result/} that are not indexed yet.
+     *
+     * @throws IOException exception
+     */
+    public void load() throws IOException {
+        Path results = storage.resolve("result/");
+
+        if (!Files.isDirectory(results)) {
+            return;
+        }
+
+        int count = 0;
+
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(results, "*.json")) {
+            for (Path path : paths) {
+                try (Reader reader = Files.newBufferedReader(path)) {
+                    Question question = gson.fromJson(reader, Question.class);
+
+                    if (question != null && question.getTitleSlug() != null) {
+                        add(question, false);
+                        count++;
+                    }
+                } catch (RuntimeException e) {
+                    logger.warn("Result [" + path + "] not indexed.", e);
+                }
+            }
+        }
+
+        logger.info("Search index loaded. Results: " + count + ".");
+    }
+
+    /**
+     * Find the questions matching all the terms of a query and the filters.
+     *
+     * @param query      query, blank to match every question
+     * @param difficulty difficulty, such as Easy, null for any
+     * @param tags       tag slugs or names the questions must all have, null or empty for any
+     * @param limit      maximum number of hits
+     * @return hits by descending score, in indexing order without a query
+     */
+    public SearchResult search(String query, String difficulty, Collection<String> tags, int limit) {
+        return search(query, difficulty, tags, 0, limit);
+    }
+
+    /**
+     * Find a page of the questions matching all the terms of a query and the filters.
+     *
+     * @param query      query, blank to match every question
+     * @param difficulty difficulty, such as Easy, null for any
+     * @param tags       tag slugs or names the questions must all have, null or empty for any
+     * @param offset     number of hits to skip
+     * @param limit      maximum number of hits
+     * @return hits by descending score, in indexing order without a query
+     */
+    public SearchResult search(String query, String difficulty, Collection<String> tags, int offset, int limit) {
+        long start = System.nanoTime();
+        Set<String> terms = new LinkedHashSet<>();
+
+        Tokenizer.query(query, terms::add);
+
+        Set<String> requiredTags = tags == null
+                ? Set.of()
+                : tags.stream().map(tag -> tag.toLowerCase(Locale.ROOT)).collect(Collectors.toSet());
+        PriorityQueue<Hit> top = new PriorityQueue<>(Comparator.comparingDouble(Hit::score).thenComparing(
+                Hit::id,
+                Comparator.reverseOrder()
+        ));
+        SearchResult result = new SearchResult();
+
+        lock.readLock().lock();
+
+        try {
+            int total = 0;
+            Postings[] lists = new Postings[terms.size()];
+            int i = 0;
+
+            for (String term : terms) {
+                lists[i] = postings.get(term);
+
+                if (lists[i++] == null) {
+                    return result(result, List.of(), 0, start);
+                }
+            }
+
+            // Walk the shortest list, looking the others up, so the cost follows the rarest term.
+            Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+
+            float[] idfs = new float[lists.length];
+            int documentCount = documents.size();
+
+            for (i = 0; i < lists.length; i++) {
+                idfs[i] = (float) Math.log(1 + (documentCount - lists[i].size + 0.5) / (lists[i].size + 0.5));
+            }
+
+            int[] cursors = new int[lists.length];
+            int candidates = lists.length == 0 ? documentCount : lists[0].size;
+
+            candidate:
+            for (int c = 0; c < candidates; c++) {
+                int id = lists.length == 0 ? c : lists[0].ids[c];
+                float score = 0;
+
+                if (deleted.get(id) || !documents.get(id).matches(difficulty, requiredTags)) {
+                    continue;
+                }
+
+                for (i = 0; i < lists.length; i++) {
+                    int position = i == 0 ? c : Arrays.binarySearch(lists[i].ids, cursors[i], lists[i].size, id);
+
+                    // Candidates come by ascending id, so the next search can start where this one ended.
+                    cursors[i] = position < 0 ? -position - 1 : position;
+
+                    if (position < 0) {
+                        continue candidate;
+                    }
+
+                    float weight = lists[i].weights[position];
+
+                    score += idfs[i] * weight * (SATURATION + 1) / (weight + SATURATION);
+                }
+
+                total++;
+
+                if (limit > 0) {
+                    top.add(new Hit(id, score));
+
+                    if (top.size() > offset + limit) {
+                        top.poll();
+                    }
+                }
+            }
+
+            List<SearchResult.Hit> hits = new ArrayList<>(top.size());
+
+            while (top.size() > offset) {
+                Hit hit = top.poll();
+
+                hits.add(documents.get(hit.id).hit(hit.score));
+            }
+
+            Collections.reverse(hits);
+
+            return result(result, hits, total, start);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Version of the index, changed by every question indexed.
+     *
+     * @return version
+     */
+    public long version() {
+        return version;
+    }
+
+    private SearchResult result(SearchResult result, List<SearchResult.Hit> hits, int total, long start) {
+        result.setTotal(total);
+        result.setHits(hits);
+        result.setTookMicros((System.nanoTime() - start) / 1000);
+
+        return result;
+    }
+
+    private void add(Question question, boolean replace) {
+        Indexer indexer = new Indexer(question, true);
+
+        if (question.getSolutions() != null) {
+            question.getSolutions().forEach(indexer::solution);
+        }
+
+        indexer.commit(replace);
+    }
+
+    private static void field(String text, float weight, Map<String, float[]> weights) {
+        Tokenizer.index(text, term -> weights.computeIfAbsent(term, key -> new float[1])[0] += weight);
+    }
+
+    /**
+     * Terms of a question being indexed, added to the index on commit.
+     */
+    public final class Indexer {
+        private final Question question;
+
+        private final boolean enabled;
+
+        private final Map<String, float[]> weights = new HashMap<>();
+
+        private Indexer(Question question, boolean enabled) {
+            this.question = question;
+            this.enabled = enabled;
+
+            if (!enabled) {
+                return;
+            }
+
+            field(question.getTitle(), TITLE_WEIGHT, weights);
+            field(question.getTranslatedTitle(), TITLE_WEIGHT, weights);
+            field(question.getContent(), CONTENT_WEIGHT, weights);
+            field(question.getTranslatedContent(), CONTENT_WEIGHT, weights);
+
+            if (question.getTopicTags() != null) {
+                for (Question.TopicTag tag : question.getTopicTags()) {
+                    field(tag.getName(), TAG_WEIGHT, weights);
+                    field(tag.getTranslatedName(), TAG_WEIGHT, weights);
+                }
+            }
+
+            if (question.getHints() != null) {
+                for (String hint : question.getHints()) {
+                    field(hint, HINT_WEIGHT, weights);
+                }
+            }
+        }
+
+        public void solution(Question.Solution solution) {
+            if (enabled && properties.isSolutions()) {
+                field(solution.getSummary(), SOLUTION_SUMMARY_WEIGHT, weights);
+                field(solution.getContent(), SOLUTION_CONTENT_WEIGHT, weights);
+            }
+        }
+
+        /**
+         * Add the question to the index, replacing its previous document.
+         */
+        public void commit() {
+            if (enabled) {
+                commit(true);
+            }
+        }
+
+        private void commit(boolean replace) {
+            Document document = new Document(question);
+
+            lock.writeLock().lock();
+
+            try {
+                Integer previous = ids.get(question.getTitleSlug());
+
+                if (previous != null) {
+                    if (!replace) {
+                        return;
+                    }
+
+                    deleted.set(previous);
+                }
+
+                int id = documents.size();
+
+                documents.add(document);
+                ids.put(question.getTitleSlug(), id);
+
+                for (Map.Entry<String, float[]> entry : weights.entrySet()) {
+                    postings.computeIfAbsent(entry.getKey(), term -> new Postings()).add(id, entry.getValue()[0]);
+                }
+
+                version++;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Questions containing a term, by ascending id, with the weight of the term in each.
+     */
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private float[] weights = new float[4];
+        private int size;
+
+        private void add(int id, float weight) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+
+            ids[size] = id;
+            weights[size++] = weight;
+        }
+    }
+
+    /**
+     * Stored fields of a question, returned with its hits and used for filtering.
+     */
+    private static final class Document {
+        private final String slug;
+        private final String title;
+        private final String translatedTitle;
+        private final String difficulty;
+        private final List<String> tags;
+        private final Set<String> tagKeys = new HashSet<>();
+
+        private Document(Question question) {
+            slug = question.getTitleSlug();
+            title = question.getTitle();
+            translatedTitle = question.getTranslatedTitle();
+            difficulty = question.getDifficulty() == null ? null : question.getDifficulty().intern();
+            tags = new ArrayList<>();
+
+            if (question.getTopicTags() != null) {
+                for (Question.TopicTag tag : question.getTopicTags()) {
+                    if (tag.getSlug() != null) {
+                        tags.add(tag.getSlug().intern());
+                    }
+
+                    for (String key : Arrays.asList(tag.getSlug(), tag.getName(), tag.getTranslatedName())) {
+                        if (key != null) {
+                            tagKeys.add(key.toLowerCase(Locale.ROOT).intern());
+                        }
+                    }
+                }
+            }
+        }
+
+        private boolean matches(String difficulty, Set<String> tags) {
+            return (difficulty == null || difficulty.equalsIgnoreCase(this.difficulty)) && tagKeys.containsAll(tags);
+        }
+
+        private SearchResult.Hit hit(float score) {
+            SearchResult.Hit hit = new SearchResult.Hit();
+
+            hit.setSlug(slug);
+            hit.setTitle(title);
+            hit.setTranslatedTitle(translatedTitle);
+            hit.setDifficulty(difficulty);
+            hit.setTags(tags);
+            hit.setScore(score);
+
+            return hit;
+        }
+    }
+
+    private static final class Hit {
+        private final int id;
+        private final float score;
+
+        private Hit(int id, float score) {
+            this.id = id;
+            this.score = score;
+        }
+
+        private int id() {
+            return id;
+        }
+
+        private float score() {
+            return score;
+        }
+    }
+}
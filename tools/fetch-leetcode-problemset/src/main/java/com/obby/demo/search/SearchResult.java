@@ -0,0 +1,25 @@
+package com.obby.demo.search;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class SearchResult {
+    /**
+     * Questions matching the query and the filters, of which the top ones are returned as hits.
+     */
+    private int total;
+    private long tookMicros;
+    private List<Hit> hits;
+
+    @Data
+    public static class Hit {
+        private String slug;
+        private String title;
+        private String translatedTitle;
+        private String difficulty;
+        private List<String> tags;
+        private float score;
+    }
+}
@@ -0,0 +1,240 @@
+package com.obby.demo.search;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Splits text into index terms, skipping HTML tags and decoding HTML entities on the way.
+ * <p>
+ * Runs of letters and digits become lower-cased words. Chinese, Japanese and Korean text has no spaces between
+ * words, so a run of such characters becomes its overlapping bigrams, plus its single characters when indexing,
+ * which lets a query of one character match as well.
+ */
+final class Tokenizer {
+    /**
+     * Longer words, such as base64 images or hashes in solutions, are not worth indexing.
+     */
+    private static final int MAX_WORD_LENGTH = 32;
+
+    private static final Map<String, Character> ENTITIES = Map.of(
+            "nbsp", ' ',
+            "lt", '<',
+            "gt", '>',
+            "amp", '&',
+            "quot", '"',
+            "apos", '\''
+    );
+
+    /**
+     * Elements whose tags are skipped. A {@code <} before any other name is a separator, as in {@code i<n}.
+     */
+    private static final Set<String> ELEMENTS = Set.of(
+            "a", "b", "blockquote", "br", "code", "del", "details", "div", "em", "font", "h1", "h2", "h3", "h4", "h5",
+            "h6", "hr", "i", "img", "kbd", "li", "ol", "p", "pre", "s", "script", "span", "strong", "style", "sub",
+            "summary", "sup", "table", "tbody", "td", "th", "thead", "tr", "u", "ul"
+    );
+
+    private final boolean query;
+
+    private final Consumer<String> terms;
+
+    private final StringBuilder word = new StringBuilder();
+
+    private int previousIdeograph = -1;
+
+    private int ideographs;
+
+    private Tokenizer(boolean query, Consumer<String> terms) {
+        this.query = query;
+        this.terms = terms;
+    }
+
+    /**
+     * Split text into index terms.
+     *
+     * @param text  text, plain or HTML
+     * @param terms term consumer, called once per occurrence
+     */
+    static void index(String text, Consumer<String> terms) {
+        if (text != null) {
+            new Tokenizer(false, terms).run(text);
+        }
+    }
+
+    /**
+     * Split a query into terms: as when indexing, except that single characters of a longer ideograph run are
+     * left out, as its bigrams are more selective.
+     *
+     * @param text  query
+     * @param terms term consumer
+     */
+    static void query(String text, Consumer<String> terms) {
+        if (text != null) {
+            new Tokenizer(true, terms).run(text);
+        }
+    }
+
+    private void run(String text) {
+        int length = text.length();
+
+        for (int i = 0; i < length; ) {
+            char c = text.charAt(i);
+
+            if (c == '<' && text.startsWith("<!--", i)) {
+                int end = text.indexOf("-->", i + 4);
+
+                if (end > 0) {
+                    boundary();
+                    i = end + 3;
+                    continue;
+                }
+            }
+
+            if (c == '<') {
+                int end = tagEnd(text, i);
+
+                if (end > 0) {
+                    boundary();
+                    i = end + 1;
+                    continue;
+                }
+            }
+
+            if (c == '&') {
+                int end = text.indexOf(';', i + 1);
+
+                if (end > 0 && end - i <= 8) {
+                    Character decoded = decode(text.substring(i + 1, end));
+
+                    if (decoded != null) {
+                        accept(decoded);
+                        i = end + 1;
+                        continue;
+                    }
+                }
+            }
+
+            int codePoint = text.codePointAt(i);
+
+            accept(codePoint);
+            i += Character.charCount(codePoint);
+        }
+
+        boundary();
+    }
+
+    private void accept(int codePoint) {
+        if (isIdeograph(codePoint)) {
+            endWord();
+
+            if (previousIdeograph >= 0) {
+                terms.accept(new StringBuilder(2).appendCodePoint(previousIdeograph).appendCodePoint(codePoint)
+                        .toString());
+            }
+
+            if (!query) {
+                terms.accept(new String(Character.toChars(codePoint)));
+            }
+
+            previousIdeograph = codePoint;
+            ideographs++;
+        } else if (Character.isLetterOrDigit(codePoint)) {
+            endIdeographs();
+            word.appendCodePoint(Character.toLowerCase(codePoint));
+        } else {
+            boundary();
+        }
+    }
+
+    private void boundary() {
+        endWord();
+        endIdeographs();
+    }
+
+    private void endWord() {
+        if (word.length() > 0 && word.length() <= MAX_WORD_LENGTH) {
+            terms.accept(word.toString());
+        }
+
+        word.setLength(0);
+    }
+
+    private void endIdeographs() {
+        // A query of a lone character has no bigram to match with.
+        if (query && ideographs == 1) {
+            terms.accept(new String(Character.toChars(previousIdeograph)));
+        }
+
+        previousIdeograph = -1;
+        ideographs = 0;
+    }
+
+    /**
+     * Index of the {@code >} closing a well-formed tag at a {@code <}, -1 if there is none: the name of a known
+     * element followed by whitespace, {@code /} or {@code >}, and no line break or {@code <} before the {@code >}.
+     */
+    private static int tagEnd(String text, int start) {
+        int length = text.length();
+        int i = start + 1;
+
+        if (i < length && text.charAt(i) == '/') {
+            i++;
+        }
+
+        int name = i;
+
+        while (i < length && Character.isLetterOrDigit(text.charAt(i))) {
+            i++;
+        }
+
+        if (i >= length || !ELEMENTS.contains(text.substring(name, i).toLowerCase(Locale.ROOT))) {
+            return -1;
+        }
+
+        char next = text.charAt(i);
+
+        if (next != '>' && next != '/' && !Character.isWhitespace(next)) {
+            return -1;
+        }
+
+        for (; i < length; i++) {
+            char c = text.charAt(i);
+
+            if (c == '>') {
+                return i;
+            } else if (c == '\n' || c == '<') {
+                return -1;
+            }
+        }
+
+        return -1;
+    }
+
+    private static Character decode(String entity) {
+        if (entity.startsWith("#")) {
+            try {
+                int codePoint = entity.startsWith("#x") || entity.startsWith("#X")
+                        ? Integer.parseInt(entity.substring(2), 16)
+                        : Integer.parseInt(entity.substring(1));
+
+                // Supplementary characters are rare enough in problem statements to be read as a separator.
+                return Character.isBmpCodePoint(codePoint) ? (char) codePoint : ' ';
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        return ENTITIES.get(entity);
+    }
+
+    private static boolean isIdeograph(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
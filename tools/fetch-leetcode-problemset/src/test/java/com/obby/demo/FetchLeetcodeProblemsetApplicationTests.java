@@ -3,7 +3,7 @@ package com.obby.demo;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "crawler.enabled=false")
 class FetchLeetcodeProblemsetApplicationTests {
 
     @Test
@@ -0,0 +1,208 @@
+package com.obby.demo;
+
+import lombok.Data;
+import org.apache.commons.io.FileUtils;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Starts the application in a new JVM per run, without crawling, and reports the startup time of each launch mode:
+ * {@code web}, the default with the embedded web server, {@code cli}, the cli profile, and {@code cli-cds}, the cli
+ * profile with the class-data-sharing archive built by the cds Maven profile.
+ * <p>
+ * Options are {@code --runs=5}, {@code --jar=} the thin jar built by the cds profile, launched from the class path
+ * of this JVM if missing, and {@code --archive=} its class-data-sharing archive, without which {@code cli-cds} is
+ * left out. Run with {@code mvn -Pcds,startup-benchmark -DskipTests verify -Dstartup.args="..."}.
+ */
+public class StartupBenchmark {
+    private static final Pattern STARTED = Pattern.compile(
+            "Started \\S+ in [\\d.]+ seconds \\(JVM running for ([\\d.]+)\\)"
+    );
+
+    private static final long TIMEOUT_SECONDS = 120;
+
+    public static void main(String[] args) throws Exception {
+        run(args).forEach(report -> System.out.println(report.summary()));
+    }
+
+    static List<Report> run(String... args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+
+        for (String arg : args) {
+            String[] option = arg.replaceFirst("^--", "").split("=", 2);
+
+            options.put(option[0], option.length > 1 ? option[1] : "");
+        }
+
+        int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+        Path jar = options.containsKey("jar") ? Paths.get(options.get("jar")).toAbsolutePath() : null;
+        Path archive = options.containsKey("archive") ? Paths.get(options.get("archive")).toAbsolutePath() : null;
+        Map<String, List<String>> modes = new LinkedHashMap<>();
+
+        if (jar != null && !Files.exists(jar)) {
+            jar = null;
+        }
+
+        modes.put("web", List.of());
+        modes.put("cli", List.of("--spring.profiles.active=cli"));
+
+        if (jar != null && archive != null && Files.exists(archive)) {
+            // Class paths are recorded in the archive as given, and the jar is launched by its name.
+            modes.put("cli-cds", List.of(
+                    "-XX:SharedArchiveFile=" + jar.getParent().relativize(archive),
+                    "-Xshare:auto",
+                    "--spring.profiles.active=cli"
+            ));
+        }
+
+        Path storage = Files.createTempDirectory("startup-benchmark");
+        List<Report> reports = new ArrayList<>();
+
+        try {
+            for (Map.Entry<String, List<String>> mode : modes.entrySet()) {
+                List<Double> ready = new ArrayList<>();
+                List<Double> exited = new ArrayList<>();
+
+                for (int i = 0; i < runs; i++) {
+                    double[] times = launch(jar, mode.getValue(), storage);
+
+                    ready.add(times[0]);
+
+                    if (times[1] >= 0) {
+                        exited.add(times[1]);
+                    }
+                }
+
+                Report report = new Report();
+
+                report.setMode(mode.getKey());
+                report.setRuns(runs);
+                report.setReadySeconds(median(ready));
+                report.setExitSeconds(exited.isEmpty() ? null : median(exited));
+                reports.add(report);
+            }
+        } finally {
+            FileUtils.deleteQuietly(storage.toFile());
+        }
+
+        return reports;
+    }
+
+    /**
+     * Start the application without crawling.
+     *
+     * @return seconds from the JVM start to the application started, and from the launch to the JVM exit, -1 if
+     * the application keeps running and had to be stopped
+     */
+    private static double[] launch(Path jar, List<String> mode, Path storage) throws Exception {
+        List<String> command = new ArrayList<>();
+
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        mode.stream().filter(arg -> arg.startsWith("-X")).forEach(command::add);
+
+        if (jar != null) {
+            command.add("-jar");
+            command.add(jar.getFileName().toString());
+        } else {
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(FetchLeetcodeProblemsetApplication.class.getName());
+        }
+
+        mode.stream().filter(arg -> arg.startsWith("--")).forEach(command::add);
+        command.add("--crawler.enabled=false");
+        command.add("--crawler.storage-path=" + storage);
+        command.add("--server.port=0");
+
+        ProcessBuilder builder = new ProcessBuilder(command).redirectErrorStream(true);
+
+        if (jar != null) {
+            builder.directory(jar.getParent().toFile());
+        }
+
+        long start = System.nanoTime();
+        Process process = builder.start();
+        double ready = -1;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                process.getInputStream(),
+                StandardCharsets.UTF_8
+        ))) {
+            String line;
+
+            while (ready < 0 && (line = reader.readLine()) != null) {
+                Matcher matcher = STARTED.matcher(line);
+
+                if (matcher.find()) {
+                    ready = Double.parseDouble(matcher.group(1));
+                }
+            }
+
+            if (ready < 0) {
+                throw new IllegalStateException("Application exited before starting: " + command);
+            }
+
+            // A web application keeps serving, whereas the cli profile exits on its own.
+            boolean exited = process.waitFor(1, TimeUnit.SECONDS);
+            double exitedAt = (System.nanoTime() - start) / 1e9;
+
+            if (!exited) {
+                process.destroy();
+            }
+
+            if (!process.waitFor(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                throw new IllegalStateException("Application did not stop: " + command);
+            }
+
+            return new double[]{ready, exited ? exitedAt : -1};
+        } finally {
+            process.destroyForcibly();
+        }
+    }
+
+    private static double median(List<Double> values) {
+        List<Double> sorted = new ArrayList<>(values);
+
+        Collections.sort(sorted);
+
+        return sorted.get(sorted.size() / 2);
+    }
+
+    @Data
+    static class Report {
+        private String mode;
+        private int runs;
+        /**
+         * Median seconds from the JVM start to the application started, as logged by Spring Boot.
+         */
+        private double readySeconds;
+        /**
+         * Median seconds from the launch to the JVM exit, null if the application keeps running.
+         */
+        private Double exitSeconds;
+
+        String summary() {
+            return String.format(
+                    "%-8s ready: %.2fs, exit: %s (median of %d)",
+                    mode,
+                    readySeconds,
+                    exitSeconds == null ? "-" : String.format("%.2fs", exitSeconds),
+                    runs
+            );
+        }
+    }
+}
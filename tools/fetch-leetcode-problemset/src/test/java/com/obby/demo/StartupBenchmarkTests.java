@@ -0,0 +1,23 @@
+package com.obby.demo;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("startup-benchmark")
+class StartupBenchmarkTests {
+    @Test
+    void runStartsEachLaunchMode() throws Exception {
+        List<StartupBenchmark.Report> reports = StartupBenchmark.run("--runs=1");
+
+        assertThat(reports).extracting(StartupBenchmark.Report::getMode).containsExactly("web", "cli");
+        assertThat(reports.get(0).getReadySeconds()).isPositive();
+        // The web application is stopped, whereas the cli profile exits once started.
+        assertThat(reports.get(0).getExitSeconds()).isNull();
+        assertThat(reports.get(1).getExitSeconds()).isGreaterThanOrEqualTo(reports.get(1).getReadySeconds());
+        assertThat(reports.get(1).summary()).startsWith("cli ");
+    }
+}
@@ -0,0 +1,242 @@
+package com.obby.demo.content;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.obby.demo.crawler.ArchiveStore;
+import com.obby.demo.crawler.CrawlerProperties;
+import com.obby.demo.crawler.SegmentArchiveStore;
+import com.obby.demo.crawler.Storage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class ContentConverterTests {
+    @TempDir
+    Path storagePath;
+
+    private MeterRegistry registry;
+
+    private SegmentArchiveStore archives;
+
+    private ContentConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        CrawlerProperties properties = new CrawlerProperties();
+
+        properties.setStoragePath(storagePath.toString());
+        registry = new SimpleMeterRegistry();
+        archives = new SegmentArchiveStore(properties, new Storage(properties), registry);
+        converter = new ContentConverter(properties, archives, registry);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        converter.close();
+        archives.close();
+    }
+
+    @Test
+    void htmlConvertsToMarkdown() throws Exception {
+        ConvertedContent content = converter.convert(
+                "<p>Given <code>nums</code>&nbsp;and <strong>target </strong>return <em>indices</em>.</p>\n"
+                        + "<p><img alt=\"example 1\" src=\"/uploads/example.png\" style=\"width: 300px;\" /></p>\n"
+                        + "<pre><strong>Input:</strong> nums = [2,7], target = 9\n"
+                        + "<strong>Output:</strong> [0,1]</pre>\n"
+                        + "<ul>\n\t<li><code>2 &lt;= nums.length &lt;= 10<sup>4</sup></code></li>\n"
+                        + "\t<li>Only one answer <a href=\"javascript:alert(1)\">exists</a>.</li>\n</ul>\n"
+                        + "<script>alert(1)</script>"
+                        + "<p>Read <a href=\"https://leetcode.com/faq\">the FAQ</a> * 2</p>",
+                ContentConverter.Format.HTML
+        );
+
+        assertThat(content.getMarkdown()).isEqualTo(
+                "Given `nums` and **target** return *indices*.\n\n"
+                        + "![example 1](https://leetcode-cn.com/uploads/example.png)\n\n"
+                        + "```\nInput: nums = [2,7], target = 9\nOutput: [0,1]\n```\n\n"
+                        + "- `2 <= nums.length <= 10^4`\n"
+                        + "- Only one answer exists.\n\n"
+                        + "Read [the FAQ](https://leetcode.com/faq) \\* 2"
+        );
+        assertThat(content.getCodeBlocks())
+                .extracting(ConvertedContent.CodeBlock::getLang, ConvertedContent.CodeBlock::getCode)
+                .containsExactly(tuple(null, "Input: nums = [2,7], target = 9\nOutput: [0,1]"));
+        assertThat(content.getImages()).containsExactly("https://leetcode-cn.com/uploads/example.png");
+    }
+
+    @Test
+    void markdownIsSanitized() throws Exception {
+        ConvertedContent content = converter.convert(
+                "### Approach\r\n"
+                        + "<![a.png,b.png](http://pic.leetcode-cn.com/a.png,http://pic.leetcode-cn.com/b.png)>\r\n"
+                        + "<script>alert(1)</script>[click](javascript:alert(1)) "
+                        + "<img src=\"x.png\" onerror=\"alert(1)\">\r\n"
+                        + "```Java [sol1-Java]\r\n"
+                        + "String s = \"<script>\";\r\n"
+                        + "```\r\n",
+                ContentConverter.Format.MARKDOWN
+        );
+
+        assertThat(content.getMarkdown()).isEqualTo(
+                "### Approach\n"
+                        + "![a.png](https://pic.leetcode-cn.com/a.png)\n\n![b.png](https://pic.leetcode-cn.com/b.png)\n"
+                        + "click ![](https://leetcode-cn.com/x.png)\n"
+                        + "```Java [sol1-Java]\n"
+                        + "String s = \"<script>\";\n"
+                        + "```"
+        );
+        assertThat(content.getCodeBlocks())
+                .extracting(ConvertedContent.CodeBlock::getLang, ConvertedContent.CodeBlock::getCode)
+                .containsExactly(tuple("java", "String s = \"<script>\";"));
+        assertThat(content.getImages()).containsExactly(
+                "https://pic.leetcode-cn.com/a.png",
+                "https://pic.leetcode-cn.com/b.png",
+                "https://leetcode-cn.com/x.png"
+        );
+    }
+
+    @Test
+    void markdownKeepsOnlyAllowedHtml() throws Exception {
+        assertThat(converter.convert("hi <details/open/ontoggle=alert(1)>x</details>", ContentConverter.Format.MARKDOWN)
+                .getMarkdown()).isEqualTo("hi &lt;details/open/ontoggle=alert(1)>x</details>");
+        assertThat(converter.convert("<a href=\"&#106;avascript:alert(1)\">x</a>", ContentConverter.Format.MARKDOWN)
+                .getMarkdown()).isEqualTo("x");
+        assertThat(converter.convert("<scr<script>ipt>", ContentConverter.Format.MARKDOWN).getMarkdown())
+                .isEqualTo("&lt;scr");
+        assertThat(converter.convert(
+                "<a href=\"/problems\" title=\"x\">all</a> [it](&#x6a;avascript:x) <b onclick=\"x\">`<b>`</b>",
+                ContentConverter.Format.MARKDOWN
+        ).getMarkdown()).isEqualTo("<a href=\"https://leetcode-cn.com/problems\">all</a> it <b>`<b>`</b>");
+    }
+
+    @Test
+    void markdownKeepsComparisonsAsText() throws Exception {
+        assertThat(converter.convert(
+                "If $nums[i]<nums[j]$ we move left, and when $x>0$ we stop.",
+                ContentConverter.Format.MARKDOWN
+        ).getMarkdown()).isEqualTo("If $nums[i]&lt;nums[j]$ we move left, and when $x>0$ we stop.");
+        assertThat(converter.convert("Loop while i<n and j>0 holds.", ContentConverter.Format.MARKDOWN).getMarkdown())
+                .isEqualTo("Loop while i&lt;n and j>0 holds.");
+        assertThat(converter.convert("So a<b ... c>d, and $x<y$.", ContentConverter.Format.MARKDOWN).getMarkdown())
+                .isEqualTo("So a&lt;b ... c>d, and $x&lt;y$.");
+    }
+
+    @Test
+    void indentedCodeIsKeptAsCode() throws Exception {
+        ConvertedContent content = converter.convert(
+                "Code:\n\n    if (i < n) {\n        i++;\n    }\n\n- item\n\n    <b>more</b>",
+                ContentConverter.Format.MARKDOWN
+        );
+
+        assertThat(content.getMarkdown()).isEqualTo(
+                "Code:\n\n```\nif (i < n) {\n    i++;\n}\n```\n\n- item\n\n    <b>more</b>"
+        );
+        assertThat(content.getCodeBlocks())
+                .extracting(ConvertedContent.CodeBlock::getLang, ConvertedContent.CodeBlock::getCode)
+                .containsExactly(tuple(null, "if (i < n) {\n    i++;\n}"));
+    }
+
+    @Test
+    void contentIsConvertedOncePerHash() throws Exception {
+        converter.submit("<p>Two Sum</p>", ContentConverter.Format.HTML);
+        converter.submit("Two Sum", ContentConverter.Format.MARKDOWN);
+        converter.awaitConversions();
+
+        assertThat(outcome("converted")).isEqualTo(2);
+        assertThat(converter.convert("<p>Two Sum</p>", ContentConverter.Format.HTML).getMarkdown())
+                .isEqualTo("Two Sum");
+        assertThat(outcome("cached")).isEqualTo(1);
+
+        // The archive outlives the converter.
+        converter.close();
+        archives.close();
+
+        CrawlerProperties properties = new CrawlerProperties();
+
+        properties.setStoragePath(storagePath.toString());
+        archives = new SegmentArchiveStore(properties, new Storage(properties), registry);
+        converter = new ContentConverter(properties, archives, registry);
+
+        assertThat(converter.convert("Two Sum", ContentConverter.Format.MARKDOWN).getMarkdown()).isEqualTo("Two Sum");
+        assertThat(outcome("converted")).isEqualTo(2);
+        assertThat(outcome("cached")).isEqualTo(2);
+    }
+
+    @Test
+    void submitBlocksWhileBufferIsFull() throws Exception {
+        CountDownLatch resumed = new CountDownLatch(1);
+        CrawlerProperties properties = new CrawlerProperties();
+
+        properties.getContent().setParallelism(1);
+        properties.getContent().setBufferSize(DataSize.ofBytes(10));
+
+        // Conversions wait in the archive until resumed.
+        ContentConverter paused = new ContentConverter(properties, new ArchiveStore() {
+            @Override
+            public OutputStream create(String key) throws IOException {
+                return archives.create(key);
+            }
+
+            @Override
+            public InputStream open(String key) throws IOException {
+                return archives.open(key);
+            }
+
+            @Override
+            public boolean contains(String key) throws IOException {
+                Uninterruptibles.awaitUninterruptibly(resumed);
+
+                return archives.contains(key);
+            }
+
+            @Override
+            public void delete(String key) throws IOException {
+                archives.delete(key);
+            }
+        }, registry);
+
+        try {
+            paused.submit("0123456789", ContentConverter.Format.MARKDOWN);
+
+            CompletableFuture<Void> blocked = CompletableFuture.runAsync(() -> {
+                try {
+                    paused.submit("x", ContentConverter.Format.MARKDOWN);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            TimeUnit.MILLISECONDS.sleep(100);
+
+            assertThat(blocked).isNotDone();
+
+            resumed.countDown();
+            blocked.get(5, TimeUnit.SECONDS);
+            paused.awaitConversions();
+
+            assertThat(outcome("converted")).isEqualTo(2);
+        } finally {
+            resumed.countDown();
+            paused.close();
+        }
+    }
+
+    private double outcome(String outcome) {
+        return registry.get("crawler.content").tag("outcome", outcome).counter().count();
+    }
+}
@@ -0,0 +1,47 @@
+package com.obby.demo.crawler;
+
+import org.apache.commons.io.FileUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Records the classes loaded by a crawl of the cli jar against a {@link ReplayServer}, for the class-data-sharing
+ * archive of the {@code cds} profile, so that the crawler, client and writer classes are archived along with those
+ * of the startup.
+ * <p>
+ * Arguments are the directory of the jar, which the crawl is launched from, the jar name and the class list file.
+ * Run by {@code mvn -Pcds -DskipTests package}.
+ */
+public class ClassListRecorder {
+    public static void main(String[] args) throws Exception {
+        Path directory = Paths.get(args[0]);
+        Path storage = Files.createTempDirectory("class-list");
+
+        try (ReplayServer server = new ReplayServer()) {
+            server.questions(20).solutions(5);
+
+            Process process = new ProcessBuilder(
+                    Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-Xshare:off",
+                    "-XX:DumpLoadedClassList=" + args[2],
+                    "-jar",
+                    args[1],
+                    "--spring.profiles.active=cli",
+                    "--crawler.base-url=" + server.baseUrl(),
+                    "--crawler.storage-path=" + storage,
+                    "--crawler.scheduler.permits-per-second=1000",
+                    "--crawler.scheduler.burst=1000",
+                    "--logging.level.com.obby.demo=warn"
+            ).directory(directory.toFile()).inheritIO().start();
+            int exitCode = process.waitFor();
+
+            if (exitCode != 0) {
+                throw new IllegalStateException("Crawl exited with " + exitCode + ".");
+            }
+        } finally {
+            FileUtils.deleteQuietly(storage.toFile());
+        }
+    }
+}
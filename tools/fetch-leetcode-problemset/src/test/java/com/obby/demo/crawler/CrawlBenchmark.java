@@ -0,0 +1,157 @@
+package com.obby.demo.crawler;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.obby.demo.FetchLeetcodeProblemsetApplication;
+import lombok.Data;
+import org.apache.commons.io.FileUtils;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Runs the whole application, crawl runner included, against a {@link ReplayServer} and reports the crawl
+ * throughput.
+ * <p>
+ * Options of the replay server are {@code --questions=100}, {@code --solutions=10}, {@code --latency=0ms},
+ * {@code --jitter=0ms} and {@code --error-rate=0}. Other arguments are passed to the application, such as
+ * {@code --crawler.workers=8}. Run with {@code mvn -Pcrawl-benchmark -DskipTests test -Dcrawl.args="..."}.
+ */
+public class CrawlBenchmark {
+    private static final Map<String, String> DEFAULTS = Map.of(
+            "server.port", "0",
+            "crawler.scheduler.permits-per-second", "1000",
+            "crawler.scheduler.burst", "1000",
+            "logging.level.com.obby.demo", "warn"
+    );
+
+    public static void main(String[] args) throws Exception {
+        System.out.println(run(args).summary());
+    }
+
+    static Report run(String... args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        Map<String, String> properties = new LinkedHashMap<>(DEFAULTS);
+
+        for (String arg : args) {
+            String[] option = arg.replaceFirst("^--", "").split("=", 2);
+
+            if (option[0].contains(".")) {
+                properties.put(option[0], option.length > 1 ? option[1] : "");
+            } else {
+                options.put(option[0], option.length > 1 ? option[1] : "");
+            }
+        }
+
+        Path storage = Files.createTempDirectory("crawl-benchmark");
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("heap-sampler").setDaemon(true).build()
+        );
+
+        try (ReplayServer server = new ReplayServer()) {
+            server.questions(Integer.parseInt(options.getOrDefault("questions", "100")))
+                    .solutions(Integer.parseInt(options.getOrDefault("solutions", "10")))
+                    .latency(
+                            DurationStyle.detectAndParse(options.getOrDefault("latency", "0ms")),
+                            DurationStyle.detectAndParse(options.getOrDefault("jitter", "0ms"))
+                    )
+                    .errorRate(Double.parseDouble(options.getOrDefault("error-rate", "0")));
+            properties.put("crawler.base-url", server.baseUrl());
+            properties.put("crawler.storage-path", storage.toString());
+
+            List<String> applicationArgs = new ArrayList<>();
+
+            properties.forEach((name, value) -> applicationArgs.add("--" + name + "=" + value));
+
+            SpringApplication application = new SpringApplication(FetchLeetcodeProblemsetApplication.class);
+            AtomicLong started = new AtomicLong();
+            AtomicLong peakHeap = new AtomicLong();
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+            // The crawl runs between the context being started and the application being returned.
+            application.addListeners((ApplicationListener<ApplicationStartedEvent>) event -> {
+                threads.resetPeakThreadCount();
+                started.set(System.nanoTime());
+            });
+            sampler.scheduleAtFixedRate(
+                    () -> peakHeap.accumulateAndGet(
+                            ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed(),
+                            Math::max
+                    ),
+                    0,
+                    10,
+                    TimeUnit.MILLISECONDS
+            );
+
+            try (ConfigurableApplicationContext context = application.run(applicationArgs.toArray(new String[0]))) {
+                double seconds = (System.nanoTime() - started.get()) / 1e9;
+                RequestScheduler.Metrics metrics = context.getBean(RequestScheduler.class).metrics();
+                Report report = new Report();
+
+                try (Stream<Path> results = Files.list(storage.resolve("result"))) {
+                    report.setQuestions(results.count());
+                }
+
+                report.setSolutions(server.solutionsServed());
+                report.setSeconds(seconds);
+                report.setRequests(server.requests());
+                report.setErrors(server.errors());
+                report.setLatencyP50Millis(metrics.getLatencyP50Millis());
+                report.setLatencyP99Millis(metrics.getLatencyP99Millis());
+                report.setPeakHeapBytes(peakHeap.get());
+                report.setPeakThreads(threads.getPeakThreadCount());
+
+                return report;
+            }
+        } finally {
+            sampler.shutdownNow();
+            FileUtils.deleteQuietly(storage.toFile());
+        }
+    }
+
+    @Data
+    static class Report {
+        private long questions;
+        private long solutions;
+        private double seconds;
+        private long requests;
+        private long errors;
+        private double latencyP50Millis;
+        private double latencyP99Millis;
+        private long peakHeapBytes;
+        /**
+         * Peak live threads, including the threads of the replay server and the heap sampler.
+         */
+        private int peakThreads;
+
+        String summary() {
+            return String.format(
+                    "Questions: %d in %.1fs (%.1f/s)%n"
+                            + "Solutions: %d (%.1f/s)%n"
+                            + "Requests: %d, errors: %d, latency p50: %.1fms, p99: %.1fms%n"
+                            + "Peak heap: %dMB%n"
+                            + "Peak threads: %d (including %d of the replay server)",
+                    questions, seconds, questions / seconds,
+                    solutions, solutions / seconds,
+                    requests, errors, latencyP50Millis, latencyP99Millis,
+                    peakHeapBytes >> 20,
+                    peakThreads, ReplayServer.THREADS + 1
+            );
+        }
+    }
+}
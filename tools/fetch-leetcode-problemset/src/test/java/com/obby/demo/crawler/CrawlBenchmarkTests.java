@@ -0,0 +1,28 @@
+package com.obby.demo.crawler;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("crawl-benchmark")
+class CrawlBenchmarkTests {
+    @Test
+    void runCrawlsReplayedProblemset() throws Exception {
+        CrawlBenchmark.Report report = CrawlBenchmark.run(
+                "--questions=6",
+                "--solutions=3",
+                "--latency=5ms",
+                "--jitter=2ms",
+                "--crawler.batch-size=2"
+        );
+
+        assertThat(report.getQuestions()).isEqualTo(6);
+        assertThat(report.getSolutions()).isEqualTo(18);
+        assertThat(report.getErrors()).isZero();
+        assertThat(report.getLatencyP50Millis()).isGreaterThanOrEqualTo(3);
+        assertThat(report.getLatencyP99Millis()).isGreaterThanOrEqualTo(report.getLatencyP50Millis());
+        assertThat(report.getPeakThreads()).isPositive();
+        assertThat(report.summary()).startsWith("Questions: 6 in ");
+    }
+}
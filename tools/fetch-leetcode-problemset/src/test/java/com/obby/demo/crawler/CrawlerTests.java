@@ -0,0 +1,615 @@
+package com.obby.demo.crawler;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.obby.demo.content.ContentConverter;
+import com.obby.demo.model.Question;
+import com.obby.demo.search.SearchIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.Closeable;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CrawlerTests {
+    @TempDir
+    Path storagePath;
+
+    private StubLeetcodeServer server;
+
+    private CrawlerProperties properties;
+
+    private ArchiveStore archives;
+
+    private DiskWriter writer;
+
+    private MeterRegistry registry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new StubLeetcodeServer()
+                .question("two-sum", List.of("two-sum-a", "two-sum-b", "two-sum-c"))
+                .question("add-two-numbers", List.of("add-two-numbers-a"))
+                .question("no-solutions", List.of());
+
+        properties = properties(storagePath);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        server.close();
+        closeStorage();
+    }
+
+    @Test
+    void crawlWritesResultPerQuestion() throws Exception {
+        crawler().crawl();
+
+        Question question = result("two-sum");
+
+        assertThat(question.getTitle()).isEqualTo("Question two-sum");
+        assertThat(question.getStats().getTotalAcceptedRaw()).isEqualTo(10L);
+        assertThat(question.getSimilarQuestions()).extracting(Question::getTitleSlug).containsExactly("similar");
+        assertThat(question.getSolutions())
+                .extracting(Question.Solution::getSlug)
+                .containsExactly("two-sum-a", "two-sum-b", "two-sum-c");
+        assertThat(question.getSolutions())
+                .extracting(Question.Solution::getQuestionTitleSlug)
+                .containsOnly("two-sum");
+        assertThat(result("add-two-numbers").getSolutions()).hasSize(1);
+        assertThat(result("no-solutions").getSolutions()).isEmpty();
+        assertThat(Files.exists(storagePath.resolve("result/paid-question.json"))).isFalse();
+        assertThat(server.requests("solutionDetailArticle")).isEqualTo(4);
+        assertThat(archive("questions/two-sum/question.json"))
+                .startsWith("{\"data\":{\"question\":{")
+                .contains("\"similarQuestions\":\"[{")
+                .endsWith("}}}");
+    }
+
+    @Test
+    void crawlWritesCompactResults() throws Exception {
+        properties.getWriter().setResultFormat(CrawlerProperties.Writer.ResultFormat.COMPACT);
+        crawler().crawl();
+
+        Question question = result("two-sum");
+
+        assertThat(Files.readString(storagePath.resolve("result/two-sum.json")))
+                .contains("\"topicTags\":[0]")
+                .contains("\"author\":0")
+                .doesNotContain("\n");
+        assertThat(question.getTopicTags()).extracting(Question.TopicTag::getSlug).containsExactly("array");
+        assertThat(question.getCodeSnippets()).extracting(Question.CodeSnippet::getCode)
+                .containsExactly("class Solution {\n}");
+        assertThat(question.getSolutions())
+                .extracting(solution -> solution.getAuthor().getUsername())
+                .containsOnly("author");
+
+        // Incremental crawls read the previous compact results back.
+        properties.setMode(CrawlerProperties.Mode.INCREMENTAL);
+        server.question("two-sum", List.of("two-sum-a", "two-sum-b", "two-sum-c", "two-sum-d"));
+        crawler().crawl();
+
+        assertThat(server.requests("questionData")).isEqualTo(3);
+        assertThat(result("two-sum").getSolutions()).hasSize(4);
+        assertThat(result("two-sum").getTopicTags()).extracting(Question.TopicTag::getSlug).containsExactly("array");
+    }
+
+    @Test
+    void crawlConvertsContentsOnce() throws Exception {
+        crawler().crawl();
+
+        assertThat(contentOutcome("converted")).isEqualTo(7);
+
+        ContentConverter content = new ContentConverter(properties, archives, registry);
+
+        assertThat(content.convert("<p>Content of two-sum</p>", ContentConverter.Format.HTML).getMarkdown())
+                .isEqualTo("Content of two-sum");
+        assertThat(contentOutcome("cached")).isEqualTo(1);
+
+        // Contents unchanged since the previous crawl are not converted again.
+        crawler().crawl();
+
+        assertThat(contentOutcome("converted")).isZero();
+        assertThat(contentOutcome("cached")).isEqualTo(7);
+    }
+
+    @Test
+    void crawlArchivesResponsesAsFiles() throws Exception {
+        properties.getArchive().setFormat(CrawlerProperties.Archive.Format.FILES);
+
+        crawler().crawl();
+
+        assertThat(result("two-sum").getSolutions()).hasSize(3);
+        assertThat(storagePath.resolve("response/questions/two-sum/solutions/two-sum-a.json")).exists();
+        assertThat(storagePath.resolve("archive")).doesNotExist();
+    }
+
+    @Test
+    void crawlRetriesFailedRequests() throws Exception {
+        server.fail("solutionDetailArticle", 2, 503);
+
+        crawler().crawl();
+
+        assertThat(result("two-sum").getSolutions()).hasSize(3);
+        assertThat(server.requests("solutionDetailArticle")).isEqualTo(6);
+    }
+
+    @Test
+    void crawlSkipsQuestionFailingAfterRetries() throws Exception {
+        properties.setWorkers(1);
+        properties.getScheduler().setMaxAttempts(2);
+        server.fail("questionData", 2, 429);
+
+        crawler().crawl();
+
+        assertThat(Files.exists(storagePath.resolve("result/two-sum.json"))).isFalse();
+        assertThat(result("add-two-numbers").getSolutions()).hasSize(1);
+    }
+
+    @Test
+    void crawlArchivesOnlyCompleteResponses() throws Exception {
+        properties.setWorkers(1);
+        properties.getScheduler().setMaxAttempts(1);
+        server.truncate("questionData", 1).truncate("solutionDetailArticle", 1);
+
+        crawler().crawl();
+
+        assertThat(archives.contains("questions/two-sum/question.json")).isFalse();
+        assertThat(archives.contains("questions/two-sum/solutions/two-sum-a.json")).isFalse();
+    }
+
+    @Test
+    void crawlResumesFromJournal() throws Exception {
+        // Request every response again, rather than reading the fresh ones from the response cache.
+        properties.getHttp().getCache().setTtl(Duration.ZERO);
+
+        crawler().crawl();
+
+        assertThat(Files.exists(storagePath.resolve("journal.log"))).isFalse();
+
+        // An interrupted crawl that completed one question and one solution of another, and tore its last entry.
+        Files.writeString(
+                storagePath.resolve("journal.log"),
+                "question\tadd-two-numbers\nsolution\ttwo-sum\ttwo-sum-a\nquestion\ttwo-"
+        );
+
+        crawler().crawl();
+
+        assertThat(server.requests("questionData")).isEqualTo(3 + 2);
+        assertThat(server.requests("solutionDetailArticle")).isEqualTo(4 + 2);
+        assertThat(result("two-sum").getSolutions())
+                .extracting(Question.Solution::getSlug)
+                .containsExactly("two-sum-a", "two-sum-b", "two-sum-c");
+        assertThat(Files.exists(storagePath.resolve("journal.log"))).isFalse();
+    }
+
+    @Test
+    void incrementalCrawlFetchesOnlyChanges() throws Exception {
+        crawler().crawl();
+
+        server.question("two-sum", List.of("two-sum-a", "two-sum-b", "two-sum-c", "two-sum-d"))
+                .question("new-question", List.of("new-question-a"));
+        properties.setMode(CrawlerProperties.Mode.INCREMENTAL);
+
+        crawler().crawl();
+
+        assertThat(server.requests("questionData")).isEqualTo(3 + 1);
+        assertThat(server.requests("questionSolutionArticles")).isEqualTo(3 + 2);
+        assertThat(server.requests("solutionDetailArticle")).isEqualTo(4 + 2);
+        assertThat(result("two-sum").getTitle()).isEqualTo("Question two-sum");
+        assertThat(result("two-sum").getSolutions())
+                .extracting(Question.Solution::getSlug)
+                .containsExactly("two-sum-a", "two-sum-b", "two-sum-c", "two-sum-d");
+        assertThat(result("new-question").getSolutions()).hasSize(1);
+
+        crawler().crawl();
+
+        assertThat(server.requests("questionData")).isEqualTo(3 + 1);
+        assertThat(server.requests("questionSolutionArticles")).isEqualTo(3 + 2);
+    }
+
+    @Test
+    void crawlRevalidatesCachedResponses() throws Exception {
+        properties.getArchive().setFormat(CrawlerProperties.Archive.Format.FILES);
+
+        crawler().crawl();
+
+        Path archived = storagePath.resolve("response/questions/two-sum/solutions/two-sum-a.json");
+        FileTime modified = FileTime.fromMillis(0);
+
+        Files.setLastModifiedTime(archived, modified);
+
+        // Fresh responses are read from their archive.
+        crawler().crawl();
+
+        assertThat(server.requests("solutionDetailArticle")).isEqualTo(4);
+        assertThat(cacheOutcome("fresh")).isEqualTo(4);
+        assertThat(result("two-sum").getSolutions()).hasSize(3);
+
+        // Stale responses are revalidated with their ETag.
+        properties.getHttp().getCache().setTtl(Duration.ZERO);
+
+        crawler().crawl();
+
+        assertThat(server.requests("solutionDetailArticle")).isEqualTo(4 + 4);
+        assertThat(cacheOutcome("not-modified")).isEqualTo(4);
+
+        // Without ETags, unchanged bodies are recognized by their fingerprint and not archived again.
+        server.etags(false);
+
+        crawler().crawl();
+
+        assertThat(server.requests("solutionDetailArticle")).isEqualTo(4 + 4 + 4);
+        assertThat(cacheOutcome("unchanged")).isEqualTo(4);
+        assertThat(Files.getLastModifiedTime(archived)).isEqualTo(modified);
+        assertThat(result("two-sum").getSolutions())
+                .extracting(Question.Solution::getContent)
+                .containsExactly("Content of two-sum-a", "Content of two-sum-b", "Content of two-sum-c");
+    }
+
+    @Test
+    void crawlStartsWithHighestPriorityWithinBudget() throws Exception {
+        properties.setWorkers(1);
+        // The listing, the question of the day, then two requests for no-solutions and three for add-two-numbers.
+        properties.getBudget().setRequests(5);
+        server.accepted("add-two-numbers", 1_000_000).daily("no-solutions");
+
+        crawler().crawl();
+
+        assertThat(result("no-solutions").getSolutions()).isEmpty();
+        assertThat(result("add-two-numbers").getSolutions())
+                .extracting(Question.Solution::getHitCount)
+                .containsExactly(100L);
+        assertThat(storagePath.resolve("result/two-sum.json")).doesNotExist();
+        assertThat(storagePath.resolve("journal.log")).exists();
+        assertThat(Files.readString(storagePath.resolve("history.tsv")))
+                .contains("add-two-numbers\t")
+                .doesNotContain("two-sum");
+
+        // The next crawl resumes with the questions left.
+        properties.getBudget().setRequests(0);
+
+        crawler().crawl();
+
+        assertThat(result("two-sum").getSolutions()).hasSize(3);
+        assertThat(server.requests("questionData")).isEqualTo(3);
+        assertThat(storagePath.resolve("journal.log")).doesNotExist();
+    }
+
+    @Test
+    void crawlSharesShardsBetweenNodes() throws Exception {
+        Path otherStoragePath = storagePath.resolve("other-node");
+        Path coordinationPath = storagePath.resolve("shared");
+        CrawlerProperties otherProperties = properties(otherStoragePath);
+
+        for (CrawlerProperties nodeProperties : List.of(properties, otherProperties)) {
+            nodeProperties.getCoordination().setType(CrawlerProperties.Coordination.Type.FILE);
+            nodeProperties.getCoordination().setPath(coordinationPath.toString());
+            nodeProperties.getCoordination().setCrawlId("test");
+            nodeProperties.getCoordination().setShardSize(1);
+            nodeProperties.getCoordination().setLeaseTtl(Duration.ofSeconds(3));
+        }
+
+        properties.getCoordination().setNodeId("first");
+        otherProperties.getCoordination().setNodeId("second");
+
+        MeterRegistry otherRegistry = new SimpleMeterRegistry();
+
+        try (DiskWriter otherWriter = new DiskWriter(otherProperties, otherRegistry);
+             SegmentArchiveStore otherArchives = new SegmentArchiveStore(
+                     otherProperties,
+                     new Storage(otherProperties),
+                     otherRegistry
+             )) {
+            Crawler first = crawler();
+            Crawler second = crawler(otherProperties, otherWriter, otherArchives, otherRegistry);
+            CompletableFuture<Void> other = CompletableFuture.runAsync(() -> {
+                try {
+                    second.crawl();
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            });
+
+            first.crawl();
+            other.join();
+        }
+
+        // Each question is crawled by one of the nodes, and the crawl is finished for both.
+        assertThat(server.requests("questionData")).isEqualTo(3);
+
+        for (String slug : List.of("two-sum", "add-two-numbers", "no-solutions")) {
+            assertThat(Files.exists(storagePath.resolve("result/" + slug + ".json"))
+                    ^ Files.exists(otherStoragePath.resolve("result/" + slug + ".json"))).isTrue();
+        }
+
+        assertThat(storagePath.resolve("journal.log")).doesNotExist();
+        assertThat(otherStoragePath.resolve("journal.log")).doesNotExist();
+    }
+
+    @Test
+    void crawlSendsPersistedQueries() throws Exception {
+        properties.getHttp().setPersistedQueries(true);
+        properties.getHttp().getCache().setEnabled(false);
+
+        crawler().crawl();
+
+        // Each document is turned down until registered by a request sending it.
+        int misses = server.persistedQueryMisses();
+
+        assertThat(misses).isGreaterThanOrEqualTo(4);
+        assertThat(registry.get("crawler.persisted-queries.missed").tag("reason", "not-found").counters())
+                .hasSize(4);
+
+        crawler().crawl();
+
+        assertThat(server.persistedQueryMisses()).isEqualTo(misses);
+        assertThat(server.requests("solutionDetailArticle")).isEqualTo(8);
+        assertThat(result("two-sum").getSolutions())
+                .extracting(Question.Solution::getContent)
+                .containsExactly("Content of two-sum-a", "Content of two-sum-b", "Content of two-sum-c");
+    }
+
+    @Test
+    void crawlFallsBackToDocumentsWithoutPersistedQueries() throws Exception {
+        properties.getHttp().setPersistedQueries(true);
+        server.persistedQueries(false);
+
+        crawler().crawl();
+
+        // Given up after the question of the day, requested before the questions.
+        assertThat(server.persistedQueryMisses()).isEqualTo(1);
+        assertThat(registry.get("crawler.persisted-queries.missed").tag("reason", "not-supported").counter().count())
+                .isEqualTo(1);
+        assertThat(result("two-sum").getSolutions()).hasSize(3);
+        assertThat(result("add-two-numbers").getSolutions()).hasSize(1);
+    }
+
+    @Test
+    void crawlWithNonBlockingClient() throws Exception {
+        properties.getHttp().setClient(CrawlerProperties.Http.Client.ASYNC);
+        server.fail("solutionDetailArticle", 1, 500);
+
+        crawler().crawl();
+
+        assertThat(result("two-sum").getSolutions())
+                .extracting(Question.Solution::getSlug)
+                .containsExactly("two-sum-a", "two-sum-b", "two-sum-c");
+        assertThat(result("add-two-numbers").getSolutions()).hasSize(1);
+        assertThat(server.requests("solutionDetailArticle")).isEqualTo(5);
+    }
+
+    @Test
+    void crawlPagesSolutionSlugs() throws Exception {
+        properties.getSolutions().setPageSize(2);
+
+        crawler().crawl();
+
+        assertThat(result("two-sum").getSolutions())
+                .extracting(Question.Solution::getSlug)
+                .containsExactly("two-sum-a", "two-sum-b", "two-sum-c");
+        assertThat(archives.contains("questions/two-sum/solutions-1.json")).isTrue();
+        assertThat(server.requests("questionSolutionArticles")).isEqualTo(4);
+    }
+
+    @Test
+    void crawlFetchesRepeatedSolutionSlugsOnce() throws Exception {
+        // The listing shifted by a solution published between the pages.
+        server.question("two-sum", List.of("two-sum-a", "two-sum-b", "two-sum-b", "two-sum-c"));
+        properties.getSolutions().setPageSize(2);
+
+        crawler().crawl();
+
+        assertThat(result("two-sum").getSolutions())
+                .extracting(Question.Solution::getSlug)
+                .containsExactly("two-sum-a", "two-sum-b", "two-sum-c");
+        assertThat(server.requests("solutionDetailArticle")).isEqualTo(4);
+    }
+
+    @Test
+    void crawlStopsPagingWhenPagesRepeat() throws Exception {
+        // Every page is the same full page, and the listing reports more solutions than it sends.
+        server.ignoreSkip(true);
+        properties.getSolutions().setPageSize(1);
+
+        crawler().crawl();
+
+        assertThat(result("two-sum").getSolutions())
+                .extracting(Question.Solution::getSlug)
+                .containsExactly("two-sum-a");
+        assertThat(server.requests("questionSolutionArticles")).isEqualTo(4);
+    }
+
+    @Test
+    void crawlLimitsSolutionsPerQuestion() throws Exception {
+        properties.getSolutions().setPageSize(0);
+        properties.getSolutions().setLimit(2);
+
+        crawler().crawl();
+
+        assertThat(result("two-sum").getSolutions())
+                .extracting(Question.Solution::getSlug)
+                .containsExactly("two-sum-a", "two-sum-b");
+        assertThat(server.requests("solutionDetailArticle")).isEqualTo(3);
+    }
+
+    @Test
+    void crawlBatchesRequests() throws Exception {
+        properties.setBatchSize(2);
+
+        crawler().crawl();
+
+        assertThat(server.requests("questionDataBatch")).isEqualTo(1);
+        assertThat(server.requests("questionData")).isEqualTo(1);
+        assertThat(server.requests("solutionDetailArticleBatch")).isEqualTo(1);
+        assertThat(server.requests("solutionDetailArticle")).isEqualTo(2);
+        assertThat(result("two-sum").getSolutions())
+                .extracting(Question.Solution::getSlug)
+                .containsExactly("two-sum-a", "two-sum-b", "two-sum-c");
+        assertThat(result("two-sum").getSolutions())
+                .extracting(Question.Solution::getQuestionTitleSlug)
+                .containsOnly("two-sum");
+        assertThat(archives.contains("questions/two-sum/solutions/two-sum-a.json")).isTrue();
+        assertThat(archive("questions/add-two-numbers/question.json")).startsWith("{\"data\":{\"question\":{");
+    }
+
+    @Test
+    void crawlFallsBackToSingleRequestsWhenBatchFails() throws Exception {
+        properties.setBatchSize(3);
+        properties.getScheduler().setMaxAttempts(1);
+        server.fail("questionDataBatch", 1, 400).fail("solutionDetailArticleBatch", 1, 400);
+
+        crawler().crawl();
+
+        assertThat(server.requests("questionData")).isEqualTo(3);
+        assertThat(server.requests("solutionDetailArticle")).isEqualTo(4);
+        assertThat(result("two-sum").getSolutions()).hasSize(3);
+        assertThat(result("add-two-numbers").getSolutions()).hasSize(1);
+    }
+
+    @Test
+    void crawlWithinTinyMemoryBudget() throws Exception {
+        properties.getSolutions().setMemoryBudget(DataSize.ofBytes(1));
+        properties.getWriter().setFsync(false);
+
+        crawler().crawl();
+
+        assertThat(result("two-sum").getSolutions())
+                .extracting(Question.Solution::getSlug)
+                .containsExactly("two-sum-a", "two-sum-b", "two-sum-c");
+        assertThat(result("add-two-numbers").getSolutions()).hasSize(1);
+        assertThat(storagePath.resolve("result/two-sum.json.part")).doesNotExist();
+    }
+
+    @Test
+    void crawlPublishesMetrics() throws Exception {
+        server.fail("solutionDetailArticle", 1, 503);
+
+        crawler().crawl();
+
+        assertThat(registry.get("crawler.requests")
+                .tags("operation", "solutionDetailArticle", "outcome", "success").timer().count()).isEqualTo(4);
+        assertThat(registry.get("crawler.requests")
+                .tags("operation", "solutionDetailArticle", "outcome", "retried").timer().count()).isEqualTo(1);
+        assertThat(registry.get("crawler.requests")
+                .tags("operation", "questionData", "outcome", "success").timer().count()).isEqualTo(3);
+        assertThat(registry.get("crawler.bytes.downloaded").tag("operation", "questionData").counter().count())
+                .isPositive();
+        assertThat(registry.get("crawler.bytes.written").tag("store", "segments").counter().count()).isPositive();
+        assertThat(registry.get("crawler.bytes.written").tag("store", "results").counter().count()).isPositive();
+        assertThat(registry.get("crawler.questions.completed").gauge().value()).isEqualTo(3);
+        assertThat(registry.get("crawler.solutions.completed").functionCounter().count()).isEqualTo(4);
+        assertThat(registry.get("crawler.eta").gauge().value()).isZero();
+        assertThat(registry.get("crawler.requests.in-flight").gauge().value()).isZero();
+    }
+
+    private CrawlerProperties properties(Path storagePath) {
+        CrawlerProperties properties = new CrawlerProperties();
+
+        properties.setBaseUrl(server.baseUrl());
+        properties.setStoragePath(storagePath.toString());
+        properties.setWorkers(2);
+        properties.setSolutionWorkers(3);
+        properties.setBatchSize(1);
+        properties.getScheduler().setPermitsPerSecond(1000);
+        properties.getScheduler().setRetryBaseDelay(Duration.ofMillis(10));
+
+        return properties;
+    }
+
+    private Crawler crawler() throws Exception {
+        closeStorage();
+
+        registry = new SimpleMeterRegistry();
+        writer = new DiskWriter(properties, registry);
+        archives = properties.getArchive().getFormat() == CrawlerProperties.Archive.Format.FILES
+                ? new FileArchiveStore(new Storage(properties), writer)
+                : new SegmentArchiveStore(properties, new Storage(properties), registry);
+
+        return crawler(properties, writer, archives, registry);
+    }
+
+    private Crawler crawler(
+            CrawlerProperties properties,
+            DiskWriter writer,
+            ArchiveStore archives,
+            MeterRegistry registry
+    ) throws Exception {
+        Storage storage = new Storage(properties);
+        RequestScheduler scheduler = new RequestScheduler(properties, registry);
+        HttpTransport transport = properties.getHttp().getClient() == CrawlerProperties.Http.Client.ASYNC
+                ? new JdkHttpTransport(properties)
+                : new RestTemplateTransport(properties);
+        ResponseCache cache = new ResponseCache(properties, storage, registry);
+        WorkCoordinator coordinator = properties.getCoordination().getType() == CrawlerProperties.Coordination.Type.FILE
+                ? new FileWorkCoordinator(properties, storage)
+                : new LocalWorkCoordinator();
+
+        return new Crawler(
+                properties,
+                new LeetcodeClient(properties, archives, scheduler, transport, cache, registry),
+                cache,
+                storage,
+                archives,
+                scheduler,
+                new CrawlJournal(storage, writer),
+                writer,
+                new CrawlProgress(properties, registry),
+                new CrawlPriority(properties, storage),
+                coordinator,
+                new SearchIndex(properties, storage),
+                new ContentConverter(properties, archives, registry),
+                registry
+        );
+    }
+
+    private void closeStorage() throws Exception {
+        if (writer != null) {
+            writer.close();
+        }
+
+        if (archives instanceof Closeable) {
+            ((Closeable) archives).close();
+        }
+    }
+
+    private double cacheOutcome(String outcome) {
+        return registry.get("crawler.http.cache").tag("outcome", outcome).counters().stream()
+                .mapToDouble(Counter::count)
+                .sum();
+    }
+
+    private double contentOutcome(String outcome) {
+        return registry.get("crawler.content").tag("outcome", outcome).counter().count();
+    }
+
+    private String archive(String key) throws Exception {
+        try (InputStream in = archives.open(key)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private Question result(String slug) throws Exception {
+        Gson gson = new GsonBuilder()
+                .registerTypeAdapterFactory(new Storage(properties).dictionary().decoder())
+                .create();
+
+        return gson.fromJson(Files.readString(storagePath.resolve("result/" + slug + ".json")), Question.class);
+    }
+}
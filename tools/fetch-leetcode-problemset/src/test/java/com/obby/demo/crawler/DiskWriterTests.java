@@ -0,0 +1,145 @@
+package com.obby.demo.crawler;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DiskWriterTests {
+    @TempDir
+    Path directory;
+
+    private CrawlerProperties properties;
+
+    private DiskWriter writer;
+
+    private final CountDownLatch paused = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        properties = new CrawlerProperties();
+        properties.getWriter().setBufferSize(DataSize.ofBytes(10));
+        writer = new DiskWriter(properties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        paused.countDown();
+        writer.close();
+    }
+
+    @Test
+    void writeReplacesFilesWhole() throws Exception {
+        Path path = directory.resolve("a.json");
+        Files.writeString(path, "old");
+        pause();
+
+        CompletableFuture<Void> first = writer.write(path, bytes("one"));
+        CompletableFuture<Void> second = writer.write(path, bytes("two"));
+
+        assertThat(writer.pending(path)).isEqualTo(bytes("two"));
+        assertThat(Files.readString(path)).isEqualTo("old");
+
+        paused.countDown();
+        CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+
+        assertThat(Files.readString(path)).isEqualTo("two");
+        assertThat(writer.pending(path)).isNull();
+        assertThat(directory.resolve("a.json.tmp")).doesNotExist();
+    }
+
+    @Test
+    void moveSupersedesQueuedWrites() throws Exception {
+        Path path = directory.resolve("a.json");
+        Path first = directory.resolve("a.json.first");
+        Path second = directory.resolve("a.json.second");
+        Files.writeString(first, "one");
+        Files.writeString(second, "two");
+        pause();
+
+        writer.write(path, bytes("old"));
+        writer.move(first, path);
+
+        CompletableFuture<Void> moved = writer.move(second, path);
+
+        assertThat(writer.pending(path)).isEqualTo(bytes("old"));
+
+        paused.countDown();
+        moved.get(5, TimeUnit.SECONDS);
+
+        assertThat(path).hasContent("two");
+        assertThat(first).doesNotExist();
+        assertThat(second).doesNotExist();
+    }
+
+    @Test
+    void writeBlocksWhileBufferIsFull() throws Exception {
+        pause();
+        writer.write(directory.resolve("a.json"), bytes("0123456789"));
+
+        CompletableFuture<Void> blocked = CompletableFuture.runAsync(() -> {
+            try {
+                writer.write(directory.resolve("b.json"), bytes("x"));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        TimeUnit.MILLISECONDS.sleep(100);
+
+        assertThat(blocked).isNotDone();
+
+        paused.countDown();
+        blocked.get(5, TimeUnit.SECONDS);
+        writer.flush();
+
+        assertThat(directory.resolve("b.json")).hasContent("x");
+    }
+
+    @Test
+    void executeRunsAfterQueuedWrites() throws Exception {
+        List<Boolean> written = new ArrayList<>();
+
+        for (int i = 0; i < 5; i++) {
+            Path path = directory.resolve(i + ".json");
+
+            writer.write(path, bytes(String.valueOf(i)));
+            writer.execute(() -> written.add(Files.exists(path)));
+        }
+
+        writer.flush();
+
+        assertThat(written).containsOnly(true).hasSize(5);
+    }
+
+    /**
+     * Hold the writer thread until {@link #paused} is counted down.
+     */
+    private void pause() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+
+        writer.execute(() -> {
+            started.countDown();
+            Uninterruptibles.awaitUninterruptibly(paused);
+        });
+        started.await();
+    }
+
+    private static byte[] bytes(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+}
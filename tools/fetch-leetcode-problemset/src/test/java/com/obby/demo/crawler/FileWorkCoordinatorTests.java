@@ -0,0 +1,119 @@
+package com.obby.demo.crawler;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileWorkCoordinatorTests {
+    @TempDir
+    Path coordinationPath;
+
+    @Test
+    void planKeepsFirstPublished() throws Exception {
+        FileWorkCoordinator first = node("first", Duration.ofMinutes(1));
+        FileWorkCoordinator second = node("second", Duration.ofMinutes(1));
+
+        first.plan(List.of(List.of("a", "b"), List.of("c")));
+
+        assertThat(second.plan(List.of(List.of("c", "b", "a"))))
+                .containsExactly(List.of("a", "b"), List.of("c"));
+    }
+
+    @Test
+    void claimLeasesEachShardOnce() throws Exception {
+        FileWorkCoordinator first = node("first", Duration.ofMinutes(1));
+        FileWorkCoordinator second = node("second", Duration.ofMinutes(1));
+        List<List<String>> shards = List.of(List.of("a"), List.of("b"));
+
+        first.plan(shards);
+        second.plan(shards);
+
+        WorkCoordinator.Lease a = first.claim();
+        WorkCoordinator.Lease b = second.claim();
+
+        assertThat(a.slugs()).containsExactly("a");
+        assertThat(b.slugs()).containsExactly("b");
+        assertThat(first.claim()).isNull();
+
+        b.release();
+
+        assertThat(first.claim().slugs()).containsExactly("b");
+    }
+
+    @Test
+    void claimTakesOverExpiredLease() throws Exception {
+        FileWorkCoordinator first = node("first", Duration.ofMillis(50));
+        FileWorkCoordinator second = node("second", Duration.ofMillis(50));
+        List<List<String>> shards = List.of(List.of("a"));
+
+        first.plan(shards);
+        second.plan(shards);
+
+        WorkCoordinator.Lease stopped = first.claim();
+
+        assertThat(second.claim()).isNull();
+
+        Thread.sleep(100);
+
+        WorkCoordinator.Lease takenOver = second.claim();
+
+        assertThat(takenOver.slugs()).containsExactly("a");
+        assertThat(stopped.renew()).isFalse();
+        assertThat(takenOver.renew()).isTrue();
+    }
+
+    @Test
+    void completeFinishesCrawl() throws Exception {
+        FileWorkCoordinator first = node("first", Duration.ofMinutes(1));
+        FileWorkCoordinator second = node("second", Duration.ofMinutes(1));
+        List<List<String>> shards = List.of(List.of("a"), List.of("b"));
+
+        first.plan(shards);
+        second.plan(shards);
+        first.claim().complete();
+
+        assertThat(second.isFinished()).isFalse();
+
+        second.claim().complete();
+
+        assertThat(first.isFinished()).isTrue();
+        assertThat(second.claim()).isNull();
+    }
+
+    @Test
+    void crawlKeepsDirectoryOncePlanned() throws Exception {
+        CrawlerProperties properties = properties("first", Duration.ofMinutes(1));
+        FileWorkCoordinator node = new FileWorkCoordinator(properties, new Storage(properties));
+
+        node.plan(List.of(List.of("a")));
+        // Such as the default crawl id, the day in UTC, changing at midnight.
+        properties.getCoordination().setCrawlId("tomorrow");
+        node.claim().complete();
+
+        assertThat(node.isFinished()).isTrue();
+        assertThat(coordinationPath.resolve("coordination").resolve("tomorrow")).doesNotExist();
+    }
+
+    private FileWorkCoordinator node(String nodeId, Duration leaseTtl) {
+        CrawlerProperties properties = properties(nodeId, leaseTtl);
+
+        return new FileWorkCoordinator(properties, new Storage(properties));
+    }
+
+    private CrawlerProperties properties(String nodeId, Duration leaseTtl) {
+        CrawlerProperties properties = new CrawlerProperties();
+
+        properties.setStoragePath(coordinationPath.toString());
+        properties.getCoordination().setType(CrawlerProperties.Coordination.Type.FILE);
+        properties.getCoordination().setCrawlId("test");
+        properties.getCoordination().setNodeId(nodeId);
+        properties.getCoordination().setLeaseTtl(leaseTtl);
+
+        return properties;
+    }
+}
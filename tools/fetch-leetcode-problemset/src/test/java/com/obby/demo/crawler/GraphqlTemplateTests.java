@@ -0,0 +1,90 @@
+package com.obby.demo.crawler;
+
+import com.google.common.hash.Hashing;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GraphqlTemplateTests {
+    private static final String QUERY = "query q($slug: String!, $first: Int) {\n  a(slug: $slug, first: $first)\n}";
+
+    private final Gson gson = new Gson();
+
+    private final GraphqlTemplate template = new GraphqlTemplate("q", QUERY, "slug", "first");
+
+    @Test
+    void encodeMatchesSerializedBody() {
+        Map<String, Object> variables = new LinkedHashMap<>();
+
+        variables.put("slug", "two-\"sum\"\n\\");
+        variables.put("first", 20);
+
+        Map<String, Object> body = new LinkedHashMap<>();
+
+        body.put("operationName", "q");
+        body.put("variables", variables);
+        body.put("query", QUERY);
+
+        assertThat(parse(template.encode(GraphqlTemplate.Mode.FULL, "two-\"sum\"\n\\", 20)))
+                .isEqualTo(gson.toJsonTree(body));
+    }
+
+    @Test
+    void encodeLeavesNullVariablesOut() {
+        JsonObject body = parse(template.encode(GraphqlTemplate.Mode.FULL, null, 20));
+
+        assertThat(body.getAsJsonObject("variables").keySet()).containsExactly("first");
+    }
+
+    @Test
+    void encodePersistedQuery() {
+        String hash = Hashing.sha256().hashString(QUERY, StandardCharsets.UTF_8).toString();
+        byte[] persisted = template.encode(GraphqlTemplate.Mode.PERSISTED, "two-sum", null);
+        JsonObject body = parse(persisted);
+
+        assertThat(body.has("query")).isFalse();
+        assertThat(body.getAsJsonObject("extensions").getAsJsonObject("persistedQuery").get("sha256Hash")
+                .getAsString()).isEqualTo(hash);
+        assertThat(GraphqlQueries.SOLUTION_DETAIL_ARTICLE_REQUEST.encode(GraphqlTemplate.Mode.PERSISTED, "a", "b"))
+                .hasSizeLessThan(GraphqlQueries.SOLUTION_DETAIL_ARTICLE.length() / 4);
+        assertThat(parse(template.encode(GraphqlTemplate.Mode.REGISTER, "two-sum", null)).keySet())
+                .containsExactly("operationName", "variables", "query", "extensions");
+    }
+
+    @Test
+    void checkPersistedQueryTellsErrorsApart() throws Exception {
+        String data = "{\"data\":{\"a\":\"PersistedQueryNotFound\"}}";
+
+        try (InputStream in = GraphqlTemplate.checkPersistedQuery(body(data))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(data);
+        }
+
+        assertThatThrownBy(() -> GraphqlTemplate.checkPersistedQuery(
+                body("{\"errors\":[{\"message\":\"PersistedQueryNotFound\"}]}")
+        ))
+                .isInstanceOfSatisfying(GraphqlTemplate.PersistedQueryException.class,
+                        e -> assertThat(e.isSupported()).isTrue());
+        assertThatThrownBy(() -> GraphqlTemplate.checkPersistedQuery(
+                body("{\"errors\":[{\"message\":\"PersistedQueryNotSupported\"}]}")
+        ))
+                .isInstanceOfSatisfying(GraphqlTemplate.PersistedQueryException.class,
+                        e -> assertThat(e.isSupported()).isFalse());
+    }
+
+    private JsonObject parse(byte[] body) {
+        return gson.fromJson(new String(body, StandardCharsets.UTF_8), JsonObject.class);
+    }
+
+    private static InputStream body(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,67 @@
+package com.obby.demo.crawler;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemoryBudgetTests {
+
+    @Test
+    void reserveWaitsUntilReleased() {
+        MemoryBudget budget = new MemoryBudget(100);
+        MemoryBudget.Reservation first = budget.reserve(80);
+        MemoryBudget.Reservation second = budget.reserve(40);
+        MemoryBudget.Reservation third = budget.reserve(10);
+
+        assertThat(first.granted()).isDone();
+        assertThat(second.granted()).isNotDone();
+        // Granted in order, so a small reservation does not overtake a waiting one.
+        assertThat(third.granted()).isNotDone();
+
+        first.adjust(-50);
+
+        assertThat(second.granted()).isDone();
+        assertThat(third.granted()).isDone();
+        assertThat(budget.used()).isEqualTo(80);
+
+        first.close();
+        second.close();
+        third.close();
+
+        assertThat(budget.used()).isZero();
+    }
+
+    @Test
+    void reserveGrantsOversizedReservationAlone() {
+        MemoryBudget budget = new MemoryBudget(100);
+        MemoryBudget.Reservation oversized = budget.reserve(500);
+        MemoryBudget.Reservation next = budget.reserve(1);
+
+        assertThat(oversized.granted()).isDone();
+        assertThat(next.granted()).isNotDone();
+
+        oversized.adjust(-1000);
+
+        assertThat(next.granted()).isDone();
+        assertThat(budget.used()).isEqualTo(1);
+    }
+
+    @Test
+    void closeWithdrawsWaitingReservation() {
+        MemoryBudget budget = new MemoryBudget(100);
+        MemoryBudget.Reservation first = budget.reserve(100);
+        MemoryBudget.Reservation withdrawn = budget.reserve(50);
+        MemoryBudget.Reservation next = budget.reserve(50);
+
+        withdrawn.close();
+        first.close();
+
+        assertThat(withdrawn.granted()).isCancelled();
+        assertThat(next.granted()).isDone();
+        assertThat(budget.used()).isEqualTo(50);
+
+        withdrawn.adjust(10);
+
+        assertThat(budget.used()).isEqualTo(50);
+    }
+}
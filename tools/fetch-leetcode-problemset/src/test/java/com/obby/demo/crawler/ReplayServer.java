@@ -0,0 +1,337 @@
+package com.obby.demo.crawler;
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.Resources;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replays the recorded responses under {@code fixtures/} for a synthetic problem set, with configurable latency,
+ * jitter and error rate.
+ * <p>
+ * Questions are named {@code question-<i>} and their solutions {@code question-<i>-solution-<j>}. Responses are
+ * delayed on a timer rather than on the handler threads, so the server keeps a fixed, small number of threads
+ * ({@link #THREADS}) whatever the latency. Responses are tagged with an ETag, and a request whose If-None-Match
+ * matches it is answered 304 Not Modified.
+ */
+class ReplayServer implements AutoCloseable {
+    static final int THREADS = 4;
+
+    private static final String SOLUTION_SEPARATOR = "-solution-";
+
+    private final Gson gson = new Gson();
+
+    private final JsonObject questionTemplate;
+
+    private final JsonObject solutionTemplate;
+
+    private final Map<String, AtomicLong> requests = new ConcurrentHashMap<>();
+
+    private final AtomicLong errors = new AtomicLong();
+
+    private final AtomicLong solutionsServed = new AtomicLong();
+
+    private final ExecutorService handlers = Executors.newFixedThreadPool(
+            THREADS / 2,
+            new ThreadFactoryBuilder().setNameFormat("replay-%d").setDaemon(true).build()
+    );
+
+    private final ScheduledExecutorService timer = Executors.newScheduledThreadPool(
+            THREADS / 2,
+            new ThreadFactoryBuilder().setNameFormat("replay-timer-%d").setDaemon(true).build()
+    );
+
+    private final HttpServer server;
+
+    private volatile int questions = 100;
+
+    private volatile int solutions = 10;
+
+    private volatile Duration latency = Duration.ZERO;
+
+    private volatile Duration jitter = Duration.ZERO;
+
+    private volatile double errorRate;
+
+    ReplayServer() throws IOException {
+        questionTemplate = fixture("question.json").getAsJsonObject("data").getAsJsonObject("question");
+        solutionTemplate = fixture("solution.json").getAsJsonObject("data").getAsJsonObject("solutionArticle");
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        server.createContext("/api/problems/all/", exchange -> respond(exchange, "problems", problems(), 0));
+        server.createContext("/graphql/", this::graphql);
+        server.setExecutor(handlers);
+        server.start();
+    }
+
+    ReplayServer questions(int questions) {
+        this.questions = questions;
+
+        return this;
+    }
+
+    ReplayServer solutions(int solutions) {
+        this.solutions = solutions;
+
+        return this;
+    }
+
+    /**
+     * Delay each response by the latency, plus or minus a uniformly random jitter.
+     *
+     * @param latency latency
+     * @param jitter  jitter
+     * @return this server
+     */
+    ReplayServer latency(Duration latency, Duration jitter) {
+        this.latency = latency;
+        this.jitter = jitter;
+
+        return this;
+    }
+
+    /**
+     * Answer a ratio of the requests with 503.
+     *
+     * @param errorRate ratio of failed requests
+     * @return this server
+     */
+    ReplayServer errorRate(double errorRate) {
+        this.errorRate = errorRate;
+
+        return this;
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    long requests() {
+        return requests.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    long errors() {
+        return errors.get();
+    }
+
+    /**
+     * Count of solutions served, alone or in batches.
+     *
+     * @return solution count
+     */
+    long solutionsServed() {
+        return solutionsServed.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        handlers.shutdownNow();
+        timer.shutdownNow();
+    }
+
+    private void graphql(HttpExchange exchange) throws IOException {
+        JsonObject request;
+
+        try (Reader reader = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)) {
+            request = gson.fromJson(reader, JsonObject.class);
+        }
+
+        String operationName = request.get("operationName").getAsString();
+        JsonObject variables = request.getAsJsonObject("variables");
+        JsonObject data = new JsonObject();
+        int served = 0;
+
+        switch (operationName) {
+            case "questionData":
+                data.add("question", question(variables.get("titleSlug").getAsString()));
+                break;
+            case "questionOfToday":
+                data.add("todayRecord", new JsonArray());
+                break;
+            case "questionSolutionArticles":
+                data.add("questionSolutionArticles", solutionList(
+                        variables.get("questionSlug").getAsString(),
+                        variables.has("skip") ? variables.get("skip").getAsInt() : 0,
+                        variables.has("first") ? variables.get("first").getAsInt() : Integer.MAX_VALUE
+                ));
+                break;
+            case "solutionDetailArticle":
+                data.add("solutionArticle", solution(variables.get("slug").getAsString()));
+                served = 1;
+                break;
+            case "questionDataBatch":
+                for (String alias : variables.keySet()) {
+                    data.add(alias, question(variables.get(alias).getAsString()));
+                }
+                break;
+            case "solutionDetailArticleBatch":
+                for (String alias : variables.keySet()) {
+                    if (!"orderBy".equals(alias)) {
+                        data.add(alias, solution(variables.get(alias).getAsString()));
+                        served++;
+                    }
+                }
+                break;
+            default:
+                exchange.sendResponseHeaders(400, -1);
+                exchange.close();
+                return;
+        }
+
+        JsonObject body = new JsonObject();
+
+        body.add("data", data);
+        respond(exchange, operationName, body, served);
+    }
+
+    private JsonObject problems() {
+        JsonArray pairs = new JsonArray();
+
+        for (int i = 0; i < questions; i++) {
+            JsonObject stat = new JsonObject();
+
+            stat.addProperty("question_id", i + 1);
+            stat.addProperty("question__title", "Question " + i);
+            stat.addProperty("question__title_slug", "question-" + i);
+            stat.addProperty("total_acs", 1000 + i);
+            stat.addProperty("total_submitted", 2000 + i);
+            stat.addProperty("total_column_articles", solutions);
+            stat.addProperty("frontend_question_id", String.valueOf(i + 1));
+
+            JsonObject difficulty = new JsonObject();
+
+            difficulty.addProperty("level", i % 3 + 1);
+
+            JsonObject pair = new JsonObject();
+
+            pair.add("stat", stat);
+            pair.add("difficulty", difficulty);
+            pair.addProperty("paid_only", false);
+            pairs.add(pair);
+        }
+
+        JsonObject body = new JsonObject();
+
+        body.addProperty("num_total", questions);
+        body.add("stat_status_pairs", pairs);
+
+        return body;
+    }
+
+    private JsonElement question(String slug) {
+        JsonObject question = questionTemplate.deepCopy();
+
+        question.addProperty("titleSlug", slug);
+        question.addProperty("title", "Question " + slug);
+
+        return question;
+    }
+
+    private JsonObject solutionList(String questionSlug, int skip, int first) {
+        JsonArray edges = new JsonArray();
+
+        for (int i = skip; i < solutions && i - skip < first; i++) {
+            JsonObject node = new JsonObject();
+
+            node.addProperty("slug", questionSlug + SOLUTION_SEPARATOR + i);
+
+            JsonObject edge = new JsonObject();
+
+            edge.add("node", node);
+            edges.add(edge);
+        }
+
+        JsonObject articles = new JsonObject();
+
+        articles.addProperty("totalNum", solutions);
+        articles.add("edges", edges);
+
+        return articles;
+    }
+
+    private JsonElement solution(String slug) {
+        JsonObject solution = solutionTemplate.deepCopy();
+        JsonObject question = new JsonObject();
+
+        question.addProperty("questionTitleSlug", slug.substring(0, slug.lastIndexOf(SOLUTION_SEPARATOR)));
+        solution.addProperty("slug", slug);
+        solution.add("question", question);
+
+        return solution;
+    }
+
+    /**
+     * Send the response, or a 503 at the error rate, once the latency has passed.
+     */
+    private void respond(HttpExchange exchange, String operationName, JsonObject body, int solutionCount) {
+        byte[] bytes = gson.toJson(body).getBytes(StandardCharsets.UTF_8);
+        long delay = latency.toNanos();
+
+        if (!jitter.isZero()) {
+            delay += ThreadLocalRandom.current().nextLong(-jitter.toNanos(), jitter.toNanos() + 1);
+        }
+
+        requests.computeIfAbsent(operationName, key -> new AtomicLong()).incrementAndGet();
+        timer.schedule(() -> {
+            try {
+                if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+                    errors.incrementAndGet();
+                    exchange.sendResponseHeaders(503, -1);
+                    exchange.close();
+
+                    return;
+                }
+
+                String etag = "\"" + Hashing.murmur3_128().hashBytes(bytes) + "\"";
+
+                exchange.getResponseHeaders().add("ETag", etag);
+
+                if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    exchange.sendResponseHeaders(304, -1);
+                    exchange.close();
+
+                    return;
+                }
+
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, bytes.length);
+
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+
+                solutionsServed.addAndGet(solutionCount);
+            } catch (IOException e) {
+                exchange.close();
+            }
+        }, Math.max(0, delay), TimeUnit.NANOSECONDS);
+    }
+
+    private JsonObject fixture(String name) throws IOException {
+        return gson.fromJson(
+                Resources.toString(Resources.getResource("fixtures/" + name), StandardCharsets.UTF_8),
+                JsonObject.class
+        );
+    }
+}
@@ -0,0 +1,143 @@
+package com.obby.demo.crawler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RequestSchedulerTests {
+
+    @Test
+    void executeLimitsRate() throws Exception {
+        CrawlerProperties properties = new CrawlerProperties();
+
+        properties.getScheduler().setPermitsPerSecond(20);
+        properties.getScheduler().setBurst(1);
+
+        RequestScheduler scheduler = new RequestScheduler(properties, new SimpleMeterRegistry());
+        long start = System.nanoTime();
+
+        for (int i = 0; i < 11; i++) {
+            scheduler.execute("test", () -> null);
+        }
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(450));
+        assertThat(scheduler.metrics().getRequests()).isEqualTo(11);
+    }
+
+    @Test
+    void executeRetriesAndBacksOff() throws Exception {
+        CrawlerProperties properties = new CrawlerProperties();
+
+        properties.getScheduler().setPermitsPerSecond(1000);
+        properties.getScheduler().setInitialConcurrency(8);
+        properties.getScheduler().setRetryBaseDelay(Duration.ofMillis(1));
+
+        RequestScheduler scheduler = new RequestScheduler(properties, new SimpleMeterRegistry());
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = scheduler.execute("test", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new HttpClientErrorException(HttpStatus.TOO_MANY_REQUESTS);
+            }
+
+            return "ok";
+        });
+
+        assertThat(result).isEqualTo("ok");
+        assertThat(scheduler.metrics().getRetries()).isEqualTo(2);
+        assertThat(scheduler.metrics().getThrottled()).isEqualTo(2);
+        assertThat(scheduler.metrics().getConcurrencyLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void submitRetriesWithinConcurrencyLimit() {
+        CrawlerProperties properties = new CrawlerProperties();
+
+        properties.getScheduler().setPermitsPerSecond(1000);
+        properties.getScheduler().setBurst(100);
+        properties.getScheduler().setInitialConcurrency(2);
+        properties.getScheduler().setMaxConcurrency(2);
+        properties.getScheduler().setRetryBaseDelay(Duration.ofMillis(1));
+
+        RequestScheduler scheduler = new RequestScheduler(properties, new SimpleMeterRegistry());
+        ScheduledExecutorService executor = Executors.newScheduledThreadPool(4);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        AtomicInteger attempts = new AtomicInteger();
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 10; i++) {
+            int value = i;
+
+            futures.add(scheduler.submit("test", () -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+
+                CompletableFuture<Integer> response = new CompletableFuture<>();
+
+                executor.schedule(() -> {
+                    inFlight.decrementAndGet();
+
+                    if (attempts.incrementAndGet() % 3 == 0) {
+                        response.completeExceptionally(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+                    } else {
+                        response.complete(value);
+                    }
+                }, 10, TimeUnit.MILLISECONDS);
+
+                return response;
+            }));
+        }
+
+        assertThat(futures).extracting(CompletableFuture::join).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        assertThat(maxInFlight).hasValueLessThanOrEqualTo(2);
+        assertThat(scheduler.metrics().getRetries()).isPositive();
+
+        executor.shutdownNow();
+    }
+
+    @Test
+    void executeGivesUpAfterMaxAttempts() {
+        CrawlerProperties properties = new CrawlerProperties();
+
+        properties.getScheduler().setMaxAttempts(3);
+        properties.getScheduler().setRetryBaseDelay(Duration.ofMillis(1));
+
+        RequestScheduler scheduler = new RequestScheduler(properties, new SimpleMeterRegistry());
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> scheduler.execute("test", () -> {
+            attempts.incrementAndGet();
+
+            throw new HttpServerErrorException(HttpStatus.BAD_GATEWAY);
+        })).isInstanceOf(HttpServerErrorException.class);
+        assertThat(attempts).hasValue(3);
+        assertThat(scheduler.metrics().getFailures()).isEqualTo(1);
+    }
+
+    @Test
+    void executeDoesNotRetryClientErrors() {
+        RequestScheduler scheduler = new RequestScheduler(new CrawlerProperties(), new SimpleMeterRegistry());
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> scheduler.execute("test", () -> {
+            attempts.incrementAndGet();
+
+            throw new HttpClientErrorException(HttpStatus.BAD_REQUEST);
+        })).isInstanceOf(HttpClientErrorException.class);
+        assertThat(attempts).hasValue(1);
+    }
+}
@@ -0,0 +1,158 @@
+package com.obby.demo.crawler;
+
+import com.google.common.base.Strings;
+import com.google.common.io.Resources;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.obby.demo.model.Question;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the work done per response, on the recorded payloads under {@code fixtures/}.
+ * <p>
+ * {@code scale} repeats the content of the payloads, and the solutions of the result, to measure how each step
+ * grows with the payload size. Run with {@code mvn -Pbenchmark -DskipTests test}; the {@code gc} profiler it
+ * enables reports the allocation rate next to the throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseBenchmark {
+    @Param({"1", "10", "100"})
+    int scale;
+
+    private final Gson gson = new Gson();
+
+    private final Gson prettyGson = new GsonBuilder().setPrettyPrinting().create();
+
+    private byte[] questionBody;
+
+    private byte[] solutionBody;
+
+    private JsonObject questionTree;
+
+    private Question result;
+
+    @Setup
+    public void setUp() throws IOException {
+        JsonObject question = fixture("question.json");
+        JsonObject questionData = question.getAsJsonObject("data").getAsJsonObject("question");
+        JsonObject solution = fixture("solution.json");
+        JsonObject solutionData = solution.getAsJsonObject("data").getAsJsonObject("solutionArticle");
+
+        questionData.addProperty("translatedContent", Strings.repeat(
+                questionData.get("translatedContent").getAsString(),
+                scale
+        ));
+        solutionData.addProperty("content", Strings.repeat(solutionData.get("content").getAsString(), scale));
+
+        questionBody = gson.toJson(question).getBytes(StandardCharsets.UTF_8);
+        solutionBody = gson.toJson(solution).getBytes(StandardCharsets.UTF_8);
+        questionTree = parseTree();
+        result = bindQuestion();
+        result.setSolutions(new ArrayList<>());
+
+        for (int i = 0; i < scale; i++) {
+            result.getSolutions().add(bindSolution());
+        }
+    }
+
+    /**
+     * Parse a question response into an element tree.
+     */
+    @Benchmark
+    public JsonObject parseTree() throws IOException {
+        return gson.fromJson(reader(questionBody), JsonObject.class);
+    }
+
+    /**
+     * Parse the JSON embedded as strings in a parsed question, {@code similarQuestions} and {@code stats}.
+     */
+    @Benchmark
+    public Object[] reparseEmbedded() {
+        JsonObject question = questionTree.getAsJsonObject("data").getAsJsonObject("question");
+
+        return new Object[]{
+                gson.fromJson(question.get("similarQuestions").getAsString(), JsonArray.class),
+                gson.fromJson(question.get("stats").getAsString(), JsonObject.class)
+        };
+    }
+
+    /**
+     * Bind a question through an element tree.
+     */
+    @Benchmark
+    public Question bindQuestionFromTree() throws IOException {
+        JsonObject body = gson.fromJson(reader(questionBody), JsonObject.class);
+        JsonElement question = body.getAsJsonObject("data").get("question");
+
+        return gson.fromJson(question, Question.class);
+    }
+
+    /**
+     * Bind a question from the response stream, as {@link LeetcodeClient} does.
+     */
+    @Benchmark
+    public Question bindQuestion() throws IOException {
+        JsonReader reader = reader(questionBody);
+
+        JsonStreams.select(reader, "data", "question");
+
+        return gson.fromJson(reader, Question.class);
+    }
+
+    /**
+     * Bind a solution from the response stream, as {@link LeetcodeClient} does.
+     */
+    @Benchmark
+    public Question.Solution bindSolution() throws IOException {
+        JsonReader reader = reader(solutionBody);
+
+        JsonStreams.select(reader, "data", "solutionArticle");
+
+        return gson.fromJson(reader, Question.Solution.class);
+    }
+
+    /**
+     * Serialize a result with {@code scale} solutions, as {@link Crawler} does.
+     */
+    @Benchmark
+    public String writeResult() {
+        return prettyGson.toJson(result);
+    }
+
+    private static JsonReader reader(byte[] body) {
+        return new JsonReader(new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8));
+    }
+
+    private JsonObject fixture(String name) throws IOException {
+        return gson.fromJson(
+                Resources.toString(Resources.getResource("fixtures/" + name), StandardCharsets.UTF_8),
+                JsonObject.class
+        );
+    }
+}
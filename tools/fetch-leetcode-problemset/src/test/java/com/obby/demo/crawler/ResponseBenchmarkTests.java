@@ -0,0 +1,27 @@
+package com.obby.demo.crawler;
+
+import com.obby.demo.model.Question;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseBenchmarkTests {
+    @Test
+    void benchmarksBindFixtures() throws Exception {
+        ResponseBenchmark benchmark = new ResponseBenchmark();
+
+        benchmark.scale = 2;
+        benchmark.setUp();
+
+        Question question = benchmark.bindQuestion();
+
+        assertThat(question).isEqualTo(benchmark.bindQuestionFromTree());
+        assertThat(question.getTitleSlug()).isEqualTo("two-sum");
+        assertThat(question.getSimilarQuestions()).hasSize(3);
+        assertThat(question.getStats().getTotalAcceptedRaw()).isEqualTo(2145987L);
+        assertThat(benchmark.reparseEmbedded()).doesNotContainNull();
+        assertThat(benchmark.bindSolution().getQuestionTitleSlug()).isEqualTo("two-sum");
+        assertThat(benchmark.bindSolution().getCreatedAt()).isNotNull();
+        assertThat(benchmark.writeResult()).contains("\"solutions\": [");
+    }
+}
@@ -0,0 +1,169 @@
+package com.obby.demo.crawler;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.obby.demo.model.Question;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResultDictionaryTests {
+    @TempDir
+    Path storagePath;
+
+    private CrawlerProperties properties;
+
+    private Gson encoder;
+
+    @BeforeEach
+    void setUp() {
+        properties = new CrawlerProperties();
+        properties.setStoragePath(storagePath.toString());
+        encoder = new GsonBuilder().registerTypeAdapterFactory(new Storage(properties).dictionary().encoder()).create();
+    }
+
+    @Test
+    void compactResultDecodesToQuestion() {
+        Question question = question("two-sum", "class Solution {\n    public int[] twoSum(int[] nums) {\n    }\n}");
+        String compact = encoder.toJson(question);
+
+        assertThat(compact)
+                .contains("\"topicTags\":[0,1]")
+                .contains("\"author\":0")
+                .doesNotContain("\"langSlug\"");
+        assertThat(compact.length()).isLessThan(new Gson().toJson(question).length() / 2);
+        // Read with a dictionary of its own, loaded from the file.
+        assertThat(decoder().fromJson(compact, Question.class)).isEqualTo(question);
+    }
+
+    @Test
+    void repeatedCodeBecomesTemplate() {
+        String code = "# Write your MySQL query statement below\n";
+        String first = encoder.toJson(question("a", code));
+        String second = encoder.toJson(question("b", code));
+
+        assertThat(first).contains("\"" + code.replace("\n", "\\n") + "\"");
+        assertThat(second).doesNotContain("MySQL").contains("[0,0]");
+        assertThat(decoder().fromJson(second, Question.class).getCodeSnippets())
+                .extracting(Question.CodeSnippet::getCode)
+                .containsOnly(code);
+    }
+
+    @Test
+    void codeSeenBeforeRestartBecomesTemplate() {
+        String code = "# Write your MySQL query statement below\n";
+        Question question = question("a", code);
+
+        question.setCodeSnippets(question.getCodeSnippets().subList(0, 1));
+        encoder.toJson(question);
+
+        // Encoded by another process, with a dictionary of its own loaded from the file.
+        Gson restarted = new GsonBuilder()
+                .registerTypeAdapterFactory(new Storage(properties).dictionary().encoder())
+                .create();
+
+        question.setTitleSlug("b");
+        assertThat(restarted.toJson(question)).doesNotContain("MySQL").contains("[0,0]");
+    }
+
+    @Test
+    void tornLineIsCutOffBeforeAppending() throws Exception {
+        Path path = storagePath.resolve("result-dictionary.jsonl");
+        Question first = question("a", "code");
+
+        encoder.toJson(first);
+        // A crash while the next line was appended.
+        Files.writeString(path, "[\"AUTHOR\",{\"user", StandardOpenOption.APPEND);
+
+        Question second = question("b", "code");
+
+        second.getTopicTags().get(0).setSlug("other");
+
+        String compact = new GsonBuilder()
+                .registerTypeAdapterFactory(new Storage(properties).dictionary().encoder())
+                .create()
+                .toJson(second);
+
+        assertThat(Files.readAllLines(path)).allMatch(line -> line.endsWith("]"));
+        assertThat(decoder().fromJson(compact, Question.class)).isEqualTo(second);
+        assertThat(decoder().fromJson(encoder.toJson(first), Question.class)).isEqualTo(first);
+    }
+
+    @Test
+    void decoderReadsEntriesAppendedSinceLoaded() throws Exception {
+        Gson decoder = decoder();
+        Question plain = question("plain", "code");
+
+        // Plain results are read as they are, without the dictionary.
+        assertThat(decoder.fromJson(new Gson().toJson(plain), Question.class)).isEqualTo(plain);
+        assertThat(Files.exists(storagePath.resolve("result-dictionary.jsonl"))).isFalse();
+
+        encoder.toJson(question("a", "code"));
+        assertThat(decoder.fromJson(encoder.toJson(question("b", "code")), Question.class))
+                .isEqualTo(question("b", "code"));
+
+        Question other = question("c", "code");
+
+        other.getTopicTags().get(0).setSlug("other");
+        assertThat(decoder.fromJson(encoder.toJson(other), Question.class)).isEqualTo(other);
+    }
+
+    private Gson decoder() {
+        return new GsonBuilder().registerTypeAdapterFactory(new Storage(properties).dictionary().decoder()).create();
+    }
+
+    private static Question question(String slug, String code) {
+        Question question = new Question();
+        List<Question.TopicTag> topicTags = new ArrayList<>();
+        List<Question.CodeSnippet> codeSnippets = new ArrayList<>();
+        List<Question.Solution> solutions = new ArrayList<>();
+
+        for (String tag : List.of("array", "hash-table")) {
+            Question.TopicTag topicTag = new Question.TopicTag();
+
+            topicTag.setName(tag);
+            topicTag.setSlug(tag);
+            topicTag.setTranslatedName("Translated " + tag);
+            topicTags.add(topicTag);
+        }
+
+        for (String lang : List.of("cpp", "java", "python3", "golang")) {
+            Question.CodeSnippet snippet = new Question.CodeSnippet();
+
+            snippet.setLang("Language " + lang);
+            snippet.setLangSlug(lang);
+            snippet.setCode(code);
+            codeSnippets.add(snippet);
+        }
+
+        for (int i = 0; i < 3; i++) {
+            Question.Solution solution = new Question.Solution();
+            Question.Solution.Author author = new Question.Solution.Author();
+            Question.Solution.Tag tag = new Question.Solution.Tag();
+
+            author.setUsername("leetcode-solution");
+            tag.setName("Java");
+            tag.setNameTranslated("Java");
+            tag.setSlug("java");
+            solution.setSlug(slug + "-" + i);
+            solution.setAuthor(author);
+            solution.setTags(List.of(tag));
+            solutions.add(solution);
+        }
+
+        question.setTitleSlug(slug);
+        question.setTopicTags(topicTags);
+        question.setCodeSnippets(codeSnippets);
+        question.setSolutions(solutions);
+
+        return question;
+    }
+}
@@ -0,0 +1,109 @@
+package com.obby.demo.crawler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SegmentArchiveStoreTests {
+    @TempDir
+    Path storagePath;
+
+    private CrawlerProperties properties;
+
+    private SegmentArchiveStore store;
+
+    @BeforeEach
+    void setUp() {
+        properties = new CrawlerProperties();
+        properties.setStoragePath(storagePath.toString());
+        store = new SegmentArchiveStore(properties, new Storage(properties), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        store.close();
+    }
+
+    @Test
+    void putDeduplicatesContent() throws Exception {
+        put("questions/a/question.json", "{\"data\":1}");
+
+        long size = Files.size(storagePath.resolve("archive/segment-00000.gz"));
+
+        put("questions/b/question.json", "{\"data\":1}");
+        put("questions/a/question.json", "{\"data\":2}");
+
+        assertThat(read("questions/a/question.json")).isEqualTo("{\"data\":2}");
+        assertThat(read("questions/b/question.json")).isEqualTo("{\"data\":1}");
+        assertThat(Files.size(storagePath.resolve("archive/segment-00000.gz"))).isBetween(size + 1, 2 * size);
+    }
+
+    @Test
+    void reopenLoadsIndexIgnoringTornEntries() throws Exception {
+        put("questions.json", "listing");
+        store.copy("questions.json", "questions.previous.json");
+        put("questions/a/question.json", "question");
+        store.delete("questions/a/question.json");
+        store.close();
+
+        Files.writeString(
+                storagePath.resolve("archive/index.log"),
+                "questions/b/question.json\tabc\t0\t1000000\t20\nquestions/c/qu",
+                StandardOpenOption.APPEND
+        );
+
+        store = new SegmentArchiveStore(properties, new Storage(properties), new SimpleMeterRegistry());
+
+        assertThat(read("questions.previous.json")).isEqualTo("listing");
+        assertThat(store.contains("questions/a/question.json")).isFalse();
+        assertThat(store.contains("questions/b/question.json")).isFalse();
+        assertThatThrownBy(() -> store.open("questions/a/question.json")).isInstanceOf(NoSuchFileException.class);
+
+        put("questions/d/question.json", "question");
+
+        assertThat(read("questions/d/question.json")).isEqualTo("question");
+    }
+
+    @Test
+    void putRollsSegments() throws Exception {
+        store.close();
+        properties.getArchive().setSegmentSize(DataSize.ofBytes(16));
+        store = new SegmentArchiveStore(properties, new Storage(properties), new SimpleMeterRegistry());
+
+        for (int i = 0; i < 3; i++) {
+            put("questions/" + i + "/question.json", "question " + i);
+        }
+
+        assertThat(storagePath.resolve("archive/segment-00002.gz")).exists();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(read("questions/" + i + "/question.json")).isEqualTo("question " + i);
+        }
+    }
+
+    private void put(String key, String content) throws Exception {
+        try (OutputStream out = store.create(key)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private String read(String key) throws Exception {
+        try (InputStream in = store.open(key)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.obby.demo.crawler;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StorageTests {
+    @TempDir
+    Path storagePath;
+
+    @Test
+    void onlyWrittenPathsCreateDirectories() throws Exception {
+        CrawlerProperties properties = new CrawlerProperties();
+
+        properties.setStoragePath(storagePath.toString());
+
+        Storage storage = new Storage(properties);
+
+        assertThat(storage.resolve("result/two-sum.json")).isEqualTo(storagePath.resolve("result/two-sum.json"));
+        assertThat(storagePath.resolve("result")).doesNotExist();
+        assertThat(storage.basePath("result/two-sum.json")).isEqualTo(storage.resolve("result/two-sum.json"));
+        assertThat(storagePath.resolve("result")).isDirectory();
+    }
+}
@@ -0,0 +1,476 @@
+package com.obby.demo.crawler;
+
+import com.google.common.hash.Hashing;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for the LeetCode problem listing and GraphQL endpoints.
+ */
+class StubLeetcodeServer implements AutoCloseable {
+    private final Gson gson = new Gson();
+
+    private final Map<String, List<String>> questions = new LinkedHashMap<>();
+
+    private final Map<String, AtomicInteger> requests = new LinkedHashMap<>();
+
+    private final Map<String, AtomicInteger> failures = new LinkedHashMap<>();
+
+    private final Map<String, AtomicInteger> truncations = new LinkedHashMap<>();
+
+    private final Map<String, Long> accepted = new ConcurrentHashMap<>();
+
+    private volatile String daily;
+
+    private volatile int failureStatus = 503;
+
+    private volatile boolean etags = true;
+
+    private volatile boolean ignoreSkip;
+
+    private volatile boolean persistedQueries = true;
+
+    private final Set<String> persistedHashes = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger persistedQueryMisses = new AtomicInteger();
+
+    private final HttpServer server;
+
+    StubLeetcodeServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/problems/all/", exchange -> respond(exchange, problems()));
+        server.createContext("/graphql/", this::graphql);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    /**
+     * Register a question with its solution slugs.
+     *
+     * @param slug          question slug
+     * @param solutionSlugs solution slugs
+     * @return this server
+     */
+    StubLeetcodeServer question(String slug, List<String> solutionSlugs) {
+        questions.put(slug, solutionSlugs);
+
+        return this;
+    }
+
+    /**
+     * Set the accepted submissions of a question in the listing, 10 by default.
+     *
+     * @param slug     question slug
+     * @param accepted accepted submissions
+     * @return this server
+     */
+    StubLeetcodeServer accepted(String slug, long accepted) {
+        this.accepted.put(slug, accepted);
+
+        return this;
+    }
+
+    /**
+     * Set the question of the day, none by default.
+     *
+     * @param slug question slug
+     * @return this server
+     */
+    StubLeetcodeServer daily(String slug) {
+        daily = slug;
+
+        return this;
+    }
+
+    /**
+     * Fail the next requests of an operation.
+     *
+     * @param operationName GraphQL operation name
+     * @param count         number of requests to fail
+     * @param status        response status of the failed requests
+     * @return this server
+     */
+    StubLeetcodeServer fail(String operationName, int count, int status) {
+        synchronized (requests) {
+            failures.put(operationName, new AtomicInteger(count));
+        }
+
+        failureStatus = status;
+
+        return this;
+    }
+
+    /**
+     * Cut off the body of the next responses of an operation halfway.
+     *
+     * @param operationName GraphQL operation name
+     * @param count         number of responses to cut off
+     * @return this server
+     */
+    StubLeetcodeServer truncate(String operationName, int count) {
+        synchronized (requests) {
+            truncations.put(operationName, new AtomicInteger(count));
+        }
+
+        return this;
+    }
+
+    /**
+     * Whether to ignore the skip of the solution listing, sending its first page for every page.
+     *
+     * @param ignoreSkip whether to ignore the skip
+     * @return this server
+     */
+    StubLeetcodeServer ignoreSkip(boolean ignoreSkip) {
+        this.ignoreSkip = ignoreSkip;
+
+        return this;
+    }
+
+    /**
+     * Whether to tag responses with an ETag and answer a matching If-None-Match with 304 Not Modified.
+     *
+     * @param etags whether to send ETags
+     * @return this server
+     */
+    StubLeetcodeServer etags(boolean etags) {
+        this.etags = etags;
+
+        return this;
+    }
+
+    /**
+     * Whether to support automatic persisted queries, answering an unknown hash with PersistedQueryNotFound, or
+     * any request without a document with PersistedQueryNotSupported.
+     *
+     * @param persistedQueries whether to support persisted queries
+     * @return this server
+     */
+    StubLeetcodeServer persistedQueries(boolean persistedQueries) {
+        this.persistedQueries = persistedQueries;
+
+        return this;
+    }
+
+    /**
+     * Count of requests without a document turned down.
+     *
+     * @return persisted query misses
+     */
+    int persistedQueryMisses() {
+        return persistedQueryMisses.get();
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Count of requests served for an operation.
+     *
+     * @param operationName GraphQL operation name
+     * @return request count
+     */
+    int requests(String operationName) {
+        synchronized (requests) {
+            AtomicInteger count = requests.get(operationName);
+
+            return count == null ? 0 : count.get();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void graphql(HttpExchange exchange) throws IOException {
+        JsonObject request;
+
+        try (Reader reader = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)) {
+            request = gson.fromJson(reader, JsonObject.class);
+        }
+
+        String operationName = request.get("operationName").getAsString();
+        JsonObject variables = request.getAsJsonObject("variables");
+        String hash = request.has("extensions")
+                ? request.getAsJsonObject("extensions").getAsJsonObject("persistedQuery").get("sha256Hash").getAsString()
+                : null;
+
+        if (!request.has("query")) {
+            if (!persistedQueries || hash == null || !persistedHashes.contains(hash)) {
+                persistedQueryMisses.incrementAndGet();
+                respond(exchange, error(persistedQueries ? "PersistedQueryNotFound" : "PersistedQueryNotSupported"));
+                return;
+            }
+        } else if (hash != null && persistedQueries) {
+            String query = request.get("query").getAsString();
+
+            if (!hash.equals(Hashing.sha256().hashString(query, StandardCharsets.UTF_8).toString())) {
+                exchange.sendResponseHeaders(400, -1);
+                exchange.close();
+                return;
+            }
+
+            persistedHashes.add(hash);
+        }
+
+        boolean truncated;
+
+        synchronized (requests) {
+            requests.computeIfAbsent(operationName, key -> new AtomicInteger()).incrementAndGet();
+
+            AtomicInteger remaining = failures.get(operationName);
+
+            if (remaining != null && remaining.getAndDecrement() > 0) {
+                exchange.sendResponseHeaders(failureStatus, -1);
+                exchange.close();
+                return;
+            }
+
+            AtomicInteger truncations = this.truncations.get(operationName);
+
+            truncated = truncations != null && truncations.getAndDecrement() > 0;
+        }
+
+        JsonObject data = new JsonObject();
+
+        switch (operationName) {
+            case "questionData":
+                data.add("question", question(variables.get("titleSlug").getAsString()));
+                break;
+            case "questionOfToday":
+                data.add("todayRecord", today());
+                break;
+            case "questionSolutionArticles":
+                data.add("questionSolutionArticles", solutions(
+                        variables.get("questionSlug").getAsString(),
+                        variables.has("skip") && !ignoreSkip ? variables.get("skip").getAsInt() : 0,
+                        variables.has("first") ? variables.get("first").getAsInt() : Integer.MAX_VALUE
+                ));
+                break;
+            case "solutionDetailArticle":
+                data.add("solutionArticle", solution(variables.get("slug").getAsString()));
+                break;
+            case "questionDataBatch":
+                for (String alias : variables.keySet()) {
+                    data.add(alias, question(variables.get(alias).getAsString()));
+                }
+                break;
+            case "solutionDetailArticleBatch":
+                for (String alias : variables.keySet()) {
+                    if (!"orderBy".equals(alias)) {
+                        data.add(alias, solution(variables.get(alias).getAsString()));
+                    }
+                }
+                break;
+            default:
+                exchange.sendResponseHeaders(400, -1);
+                exchange.close();
+                return;
+        }
+
+        JsonObject body = new JsonObject();
+
+        body.add("data", data);
+        respond(exchange, body, truncated);
+    }
+
+    private JsonObject error(String message) {
+        JsonObject error = new JsonObject();
+
+        error.addProperty("message", message);
+
+        JsonArray errors = new JsonArray();
+
+        errors.add(error);
+
+        JsonObject body = new JsonObject();
+
+        body.add("errors", errors);
+
+        return body;
+    }
+
+    private JsonObject problems() {
+        JsonArray pairs = new JsonArray();
+
+        for (String slug : questions.keySet()) {
+            JsonObject stat = new JsonObject();
+
+            stat.addProperty("question__title_slug", slug);
+            stat.addProperty("question__title", slug);
+            stat.addProperty("total_acs", accepted.getOrDefault(slug, 10L));
+            stat.addProperty("total_submitted", 20);
+            stat.addProperty("total_column_articles", questions.get(slug).size());
+
+            JsonObject pair = new JsonObject();
+
+            pair.add("stat", stat);
+            pair.addProperty("paid_only", false);
+            pairs.add(pair);
+        }
+
+        JsonObject paid = new JsonObject();
+
+        paid.addProperty("question__title_slug", "paid-question");
+
+        JsonObject paidPair = new JsonObject();
+
+        paidPair.add("stat", paid);
+        paidPair.addProperty("paid_only", true);
+        pairs.add(paidPair);
+
+        JsonObject body = new JsonObject();
+
+        body.add("stat_status_pairs", pairs);
+
+        return body;
+    }
+
+    private JsonArray today() {
+        JsonArray records = new JsonArray();
+
+        if (daily != null) {
+            JsonObject question = new JsonObject();
+
+            question.addProperty("questionTitleSlug", daily);
+
+            JsonObject record = new JsonObject();
+
+            record.add("question", question);
+            records.add(record);
+        }
+
+        return records;
+    }
+
+    private JsonObject question(String slug) {
+        JsonObject question = new JsonObject();
+
+        question.addProperty("titleSlug", slug);
+        question.addProperty("title", "Question " + slug);
+        question.addProperty("content", "<p>Content of " + slug + "</p>");
+        question.addProperty("isPaidOnly", false);
+        question.addProperty("difficulty", "Easy");
+        question.addProperty("similarQuestions", "[{\"titleSlug\": \"similar\", \"difficulty\": \"Medium\"}]");
+        question.addProperty("stats", "{\"totalAcceptedRaw\": 10, \"totalSubmissionRaw\": 20, \"acRate\": \"50.0%\"}");
+
+        JsonObject tag = new JsonObject();
+        JsonArray tags = new JsonArray();
+
+        tag.addProperty("name", "Array");
+        tag.addProperty("slug", "array");
+        tags.add(tag);
+        question.add("topicTags", tags);
+
+        JsonObject snippet = new JsonObject();
+        JsonArray snippets = new JsonArray();
+
+        snippet.addProperty("lang", "Java");
+        snippet.addProperty("langSlug", "java");
+        snippet.addProperty("code", "class Solution {\n}");
+        snippets.add(snippet);
+        question.add("codeSnippets", snippets);
+
+        return question;
+    }
+
+    private JsonObject solutions(String questionSlug, int skip, int first) {
+        List<String> slugs = questions.get(questionSlug);
+        JsonArray edges = new JsonArray();
+
+        for (String slug : slugs.subList(Math.min(skip, slugs.size()), (int) Math.min((long) skip + first, slugs.size()))) {
+            JsonObject node = new JsonObject();
+
+            node.addProperty("slug", slug);
+
+            JsonObject edge = new JsonObject();
+
+            edge.add("node", node);
+            edges.add(edge);
+        }
+
+        JsonObject articles = new JsonObject();
+
+        articles.addProperty("totalNum", slugs.size());
+        articles.add("edges", edges);
+
+        return articles;
+    }
+
+    private JsonObject solution(String slug) {
+        String questionSlug = questions.entrySet().stream()
+                .filter(entry -> entry.getValue().contains(slug))
+                .map(Map.Entry::getKey)
+                .findFirst()
+                .orElseThrow();
+        JsonObject question = new JsonObject();
+
+        question.addProperty("questionTitleSlug", questionSlug);
+
+        JsonObject solution = new JsonObject();
+
+        solution.addProperty("slug", slug);
+        solution.addProperty("title", "Solution " + slug);
+        solution.addProperty("content", "Content of " + slug);
+        solution.addProperty("hitCount", 100);
+        solution.add("question", question);
+
+        JsonObject author = new JsonObject();
+
+        author.addProperty("username", "author");
+        solution.add("author", author);
+
+        return solution;
+    }
+
+    private void respond(HttpExchange exchange, JsonObject body) throws IOException {
+        respond(exchange, body, false);
+    }
+
+    private void respond(HttpExchange exchange, JsonObject body, boolean truncated) throws IOException {
+        byte[] bytes = gson.toJson(body).getBytes(StandardCharsets.UTF_8);
+
+        if (truncated) {
+            bytes = Arrays.copyOf(bytes, bytes.length / 2);
+        }
+
+        if (etags) {
+            String etag = "\"" + Hashing.murmur3_128().hashBytes(bytes) + "\"";
+
+            exchange.getResponseHeaders().add("ETag", etag);
+
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+        }
+
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
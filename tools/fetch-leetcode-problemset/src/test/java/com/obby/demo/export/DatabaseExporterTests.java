@@ -0,0 +1,162 @@
+package com.obby.demo.export;
+
+import com.google.gson.Gson;
+import com.obby.demo.crawler.CrawlerProperties;
+import com.obby.demo.crawler.Storage;
+import com.obby.demo.model.Question;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DatabaseExporterTests {
+    private final Gson gson = new Gson();
+
+    @TempDir
+    Path storagePath;
+
+    private DatabaseExporter exporter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        CrawlerProperties properties = new CrawlerProperties();
+
+        properties.setStoragePath(storagePath.toString());
+        properties.getExport().setBatchSize(1);
+        exporter = new DatabaseExporter(properties, new Storage(properties));
+
+        write(question("two-sum", "Easy", 50, 100, List.of("array", "hash-table"),
+                solution("a", "alice", "array"), solution("b", "bob")));
+        write(question("three-sum", "Medium", 30, 100, List.of("array", "two-pointers"),
+                solution("c", "alice")));
+        write(question("add-two-numbers", "Medium", 10, 40, List.of("linked-list")));
+    }
+
+    @Test
+    void exportAnswersAnalyticalQueries() throws Exception {
+        assertThat(exporter.export()).isEqualTo(3);
+
+        assertThat(query("SELECT t.tag_slug, q.difficulty, CAST(SUM(s.total_accepted) AS DOUBLE) / SUM(s.total_submission) " +
+                "FROM question_topic_tag t " +
+                "JOIN question q ON q.title_slug = t.title_slug " +
+                "JOIN stats s ON s.title_slug = t.title_slug " +
+                "WHERE t.tag_slug = 'array' " +
+                "GROUP BY t.tag_slug, q.difficulty ORDER BY q.difficulty"))
+                .containsExactly("array Easy 0.5", "array Medium 0.3");
+        assertThat(query("SELECT author, COUNT(*) FROM solution GROUP BY author ORDER BY author"))
+                .containsExactly("alice 2", "bob 1");
+        assertThat(query("SELECT uuid, tag_slug FROM solution_tag")).containsExactly("uuid-a array");
+        assertThat(query("SELECT title_slug, solution_count FROM question WHERE title_slug = 'two-sum'"))
+                .containsExactly("two-sum 2");
+    }
+
+    @Test
+    void exportUpsertsChangedResults() throws Exception {
+        exporter.export();
+
+        write(question("two-sum", "Easy", 60, 100, List.of("array"), solution("b", "bob", "math")));
+        Files.delete(storagePath.resolve("result/add-two-numbers.json"));
+
+        // Unchanged results are not read again.
+        assertThat(exporter.export()).isEqualTo(1);
+
+        assertThat(query("SELECT uuid, title_slug FROM solution ORDER BY uuid"))
+                .containsExactly("uuid-b two-sum", "uuid-c three-sum");
+        assertThat(query("SELECT uuid, tag_slug FROM solution_tag")).containsExactly("uuid-b math");
+        assertThat(query("SELECT tag_slug FROM question_topic_tag WHERE title_slug = 'two-sum'"))
+                .containsExactly("array");
+        assertThat(query("SELECT total_accepted FROM stats WHERE title_slug = 'two-sum'")).containsExactly("60");
+        assertThat(query("SELECT title_slug FROM question ORDER BY title_slug"))
+                .containsExactly("three-sum", "two-sum");
+    }
+
+    private List<String> query(String sql) throws Exception {
+        List<String> rows = new ArrayList<>();
+
+        try (Connection connection = DriverManager.getConnection(exporter.url());
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            while (resultSet.next()) {
+                List<String> columns = new ArrayList<>();
+
+                for (int i = 1; i <= resultSet.getMetaData().getColumnCount(); i++) {
+                    columns.add(resultSet.getString(i));
+                }
+
+                rows.add(String.join(" ", columns));
+            }
+        }
+
+        return rows;
+    }
+
+    private void write(Question question) throws Exception {
+        Path path = storagePath.resolve("result/" + question.getTitleSlug() + ".json");
+
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, gson.toJson(question));
+    }
+
+    private static Question question(
+            String slug,
+            String difficulty,
+            long accepted,
+            long submission,
+            List<String> tags,
+            Question.Solution... solutions
+    ) {
+        Question question = new Question();
+        Question.Stats stats = new Question.Stats();
+        List<Question.TopicTag> topicTags = new ArrayList<>();
+
+        for (String tag : tags) {
+            Question.TopicTag topicTag = new Question.TopicTag();
+
+            topicTag.setSlug(tag);
+            topicTag.setName(tag);
+            topicTags.add(topicTag);
+        }
+
+        stats.setTotalAcceptedRaw(accepted);
+        stats.setTotalSubmissionRaw(submission);
+        question.setTitleSlug(slug);
+        question.setTitle("Question " + slug);
+        question.setDifficulty(difficulty);
+        question.setStats(stats);
+        question.setTopicTags(topicTags);
+        question.setSolutions(List.of(solutions));
+
+        return question;
+    }
+
+    private static Question.Solution solution(String slug, String author, String... tags) {
+        Question.Solution solution = new Question.Solution();
+        Question.Solution.Author solutionAuthor = new Question.Solution.Author();
+        List<Question.Solution.Tag> solutionTags = new ArrayList<>();
+
+        for (String tag : tags) {
+            Question.Solution.Tag solutionTag = new Question.Solution.Tag();
+
+            solutionTag.setSlug(tag);
+            solutionTags.add(solutionTag);
+        }
+
+        solutionAuthor.setUsername(author);
+        solution.setUuid("uuid-" + slug);
+        solution.setSlug(slug);
+        solution.setAuthor(solutionAuthor);
+        solution.setTags(solutionTags);
+
+        return solution;
+    }
+}
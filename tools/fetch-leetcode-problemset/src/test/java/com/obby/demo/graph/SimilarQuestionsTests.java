@@ -0,0 +1,124 @@
+package com.obby.demo.graph;
+
+import com.google.gson.Gson;
+import com.obby.demo.crawler.CrawlerProperties;
+import com.obby.demo.crawler.Storage;
+import com.obby.demo.model.Question;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class SimilarQuestionsTests {
+    private final Gson gson = new Gson();
+
+    @TempDir
+    Path storagePath;
+
+    private CrawlerProperties properties;
+
+    private SimilarQuestions similarQuestions;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        properties = new CrawlerProperties();
+        properties.setStoragePath(storagePath.toString());
+
+        write(question("two-sum", List.of("3sum", "4sum"), "array", "hash-table"));
+        write(question("3sum", List.of("two-sum", "4sum"), "array", "two-pointers", "sorting"));
+        write(question("4sum", List.of("3sum", "paid-question"), "array", "two-pointers", "sorting"));
+        write(question("add-two-numbers", List.of(), "linked-list", "math", "recursion"));
+        write(question("valid-anagram", List.of(), "hash-table", "string", "sorting"));
+
+        similarQuestions = new SimilarQuestions(new Storage(properties));
+        similarQuestions.load();
+    }
+
+    @Test
+    void neighboursWithinHops() {
+        assertThat(similarQuestions.neighbours("two-sum", 1).getQuestions())
+                .extracting(SimilarQuestionsResult.Neighbour::getSlug, SimilarQuestionsResult.Neighbour::getHops)
+                .containsExactly(tuple("3sum", 1), tuple("4sum", 1));
+        assertThat(similarQuestions.neighbours("two-sum", 2).getQuestions())
+                .extracting(SimilarQuestionsResult.Neighbour::getSlug, SimilarQuestionsResult.Neighbour::getHops)
+                .containsExactly(tuple("3sum", 1), tuple("4sum", 1), tuple("paid-question", 2));
+        assertThat(similarQuestions.neighbours("paid-question", 3).getQuestions()).isEmpty();
+        assertThat(similarQuestions.neighbours("unknown", 1)).isNull();
+    }
+
+    @Test
+    void similarRanksByTagsAndHops() {
+        SimilarQuestionsResult result = similarQuestions.similar("two-sum", 4);
+
+        assertThat(result.getQuestions())
+                .extracting(SimilarQuestionsResult.Neighbour::getSlug)
+                .containsExactly("3sum", "4sum", "paid-question", "valid-anagram");
+        assertThat(result.getQuestions().get(0).getTags()).containsExactly("array", "two-pointers", "sorting");
+        assertThat(result.getQuestions().get(3).getHops()).isNull();
+        assertThat(result.getQuestions().get(3).getScore()).isBetween(0f, 1f);
+        assertThat(similarQuestions.similar("two-sum", 1).getQuestions()).hasSize(1);
+        assertThat(similarQuestions.similar("add-two-numbers", 10).getQuestions()).isEmpty();
+    }
+
+    @Test
+    void loadMapsStoredGraph() throws Exception {
+        // Results changed since are only seen once the graph is built again.
+        Files.delete(storagePath.resolve("result/valid-anagram.json"));
+
+        SimilarQuestions loaded = new SimilarQuestions(new Storage(properties));
+
+        loaded.load();
+
+        assertThat(loaded.similar("two-sum", 10).getQuestions())
+                .extracting(SimilarQuestionsResult.Neighbour::getSlug)
+                .contains("valid-anagram");
+
+        loaded.build();
+
+        assertThat(loaded.similar("two-sum", 10).getQuestions())
+                .extracting(SimilarQuestionsResult.Neighbour::getSlug)
+                .doesNotContain("valid-anagram");
+        // The graph mapped before still reads the file it was mapped from.
+        assertThat(similarQuestions.neighbours("two-sum", 1).getQuestions()).hasSize(2);
+    }
+
+    private void write(Question question) throws Exception {
+        Path path = storagePath.resolve("result/" + question.getTitleSlug() + ".json");
+
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, gson.toJson(question));
+    }
+
+    private static Question question(String slug, List<String> similar, String... tags) {
+        Question question = new Question();
+        List<Question> similarQuestions = new ArrayList<>();
+        List<Question.TopicTag> topicTags = new ArrayList<>();
+
+        for (String similarSlug : similar) {
+            Question similarQuestion = new Question();
+
+            similarQuestion.setTitleSlug(similarSlug);
+            similarQuestions.add(similarQuestion);
+        }
+
+        for (String tag : tags) {
+            Question.TopicTag topicTag = new Question.TopicTag();
+
+            topicTag.setSlug(tag);
+            topicTags.add(topicTag);
+        }
+
+        question.setTitleSlug(slug);
+        question.setSimilarQuestions(similarQuestions);
+        question.setTopicTags(topicTags);
+
+        return question;
+    }
+}
@@ -0,0 +1,182 @@
+package com.obby.demo.problemset;
+
+import com.google.common.io.Resources;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.obby.demo.content.ContentConverter;
+import com.obby.demo.crawler.CrawlerProperties;
+import com.obby.demo.crawler.SegmentArchiveStore;
+import com.obby.demo.crawler.Storage;
+import com.obby.demo.model.Question;
+import com.obby.demo.search.SearchIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ProblemsetControllerTests {
+    private final Gson gson = new Gson();
+
+    @TempDir
+    Path storagePath;
+
+    private ProblemsetCache cache;
+
+    private SearchIndex index;
+
+    private SegmentArchiveStore archives;
+
+    private ContentConverter content;
+
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        CrawlerProperties properties = new CrawlerProperties();
+
+        properties.setStoragePath(storagePath.toString());
+
+        Storage storage = new Storage(properties);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        cache = new ProblemsetCache(properties, storage, registry);
+        index = new SearchIndex(properties, storage);
+        archives = new SegmentArchiveStore(properties, storage, registry);
+        content = new ContentConverter(properties, archives, registry);
+        mvc = MockMvcBuilders.standaloneSetup(new ProblemsetController(cache, index, content)).build();
+
+        Files.createDirectories(storagePath.resolve("result"));
+        store(question("two-sum", 2));
+        store(question("three-sum", 1));
+        index.load();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        content.close();
+        archives.close();
+    }
+
+    @Test
+    void questionIsCachedWithoutContentsOrSolutions() throws Exception {
+        Question question = cache.question("two-sum");
+
+        assertThat(question.getTitleSlug()).isEqualTo("two-sum");
+        assertThat(question.getTopicTags()).isNotEmpty();
+        assertThat(question.getContent()).isNull();
+        assertThat(question.getCodeSnippets()).isNull();
+        assertThat(question.getSolutions()).isNull();
+        assertThat(cache.contents("two-sum").getContent()).startsWith("<p>Given an array");
+        assertThat(cache.contents("two-sum").getCodeSnippets()).extracting(Question.CodeSnippet::getCode)
+                .doesNotContainNull();
+        assertThat(cache.contents("two-sum").getTitle()).isNull();
+        assertThat(cache.question("two-sum")).isSameAs(question);
+        assertThat(cache.question("three-sum").getDifficulty()).isSameAs(question.getDifficulty());
+        assertThat(cache.solutions("two-sum")).extracting(Question.Solution::getSlug)
+                .containsExactly("two-sum-0", "two-sum-1");
+        assertThat(cache.question("missing")).isNull();
+        assertThat(cache.question("../result/two-sum")).isNull();
+    }
+
+    @Test
+    void questionIsReloadedOnceRewritten() throws Exception {
+        Question cached = cache.question("two-sum");
+        Question updated = question("two-sum", 3);
+
+        updated.setTitle("Pair Sum");
+        store(updated);
+        Files.setLastModifiedTime(
+                storagePath.resolve("result/two-sum.json"),
+                FileTime.fromMillis(System.currentTimeMillis() + 1000)
+        );
+
+        assertThat(cache.question("two-sum")).isNotSameAs(cached);
+        assertThat(cache.question("two-sum").getTitle()).isEqualTo("Pair Sum");
+        assertThat(cache.solutions("two-sum")).hasSize(3);
+    }
+
+    @Test
+    void getAnswersNotModifiedWhileUnchanged() throws Exception {
+        String etag = mvc.perform(get("/questions/two-sum"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.titleSlug").value("two-sum"))
+                .andExpect(jsonPath("$.content").value(startsWith("<p>Given an array")))
+                .andExpect(jsonPath("$.codeSnippets[0].code").exists())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertThat(etag).isNotBlank();
+
+        mvc.perform(get("/questions/two-sum").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        mvc.perform(get("/questions/two-sum/solutions"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+        mvc.perform(get("/questions/missing")).andExpect(status().isNotFound());
+
+        String listing = mvc.perform(get("/questions").param("offset", "1").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.hits.length()").value(1))
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(get("/questions").header(HttpHeaders.IF_NONE_MATCH, listing))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void getContentConvertsToMarkdown() throws Exception {
+        mvc.perform(get("/questions/two-sum/content"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.markdown").value(startsWith(
+                        "Given an array of integers `nums` and an integer `target`, return *indices of the two"
+                )))
+                .andExpect(jsonPath("$.solutions['two-sum-1'].markdown").value("Solution 1"));
+        mvc.perform(get("/questions/two-sum/content").param("solutions", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.solutions").doesNotExist());
+        mvc.perform(get("/questions/missing/content")).andExpect(status().isNotFound());
+    }
+
+    private Question question(String slug, int solutionCount) throws Exception {
+        JsonObject fixture = gson.fromJson(
+                Resources.toString(Resources.getResource("fixtures/question.json"), StandardCharsets.UTF_8),
+                JsonObject.class
+        );
+        Question question = gson.fromJson(fixture.getAsJsonObject("data").get("question"), Question.class);
+
+        question.setTitleSlug(slug);
+        question.setSolutions(new ArrayList<>());
+
+        for (int i = 0; i < solutionCount; i++) {
+            Question.Solution solution = new Question.Solution();
+
+            solution.setSlug(slug + "-" + i);
+            solution.setContent("Solution " + i);
+            question.getSolutions().add(solution);
+        }
+
+        return question;
+    }
+
+    private void store(Question question) throws Exception {
+        Files.writeString(storagePath.resolve("result/" + question.getTitleSlug() + ".json"), gson.toJson(question));
+    }
+}
@@ -0,0 +1,173 @@
+package com.obby.demo.search;
+
+import com.google.gson.Gson;
+import com.obby.demo.crawler.CrawlerProperties;
+import com.obby.demo.crawler.Storage;
+import com.obby.demo.model.Question;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchIndexTests {
+    @TempDir
+    Path storagePath;
+
+    private CrawlerProperties properties;
+
+    private SearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        properties = new CrawlerProperties();
+        properties.setStoragePath(storagePath.toString());
+        index = new SearchIndex(properties, new Storage(properties));
+        index.add(question(
+                "two-sum",
+                "Two Sum",
+                "两数之和",
+                "<p>Given an array of integers&nbsp;<code>nums</code>, return indices.</p>",
+                "Easy",
+                "array",
+                "hash-table"
+        ));
+        index.add(question(
+                "add-two-numbers",
+                "Add Two Numbers",
+                "两数相加",
+                "<p>You are given two non-empty linked lists.</p>",
+                "Medium",
+                "linked-list",
+                "math"
+        ));
+        index.add(question(
+                "three-sum",
+                "3Sum",
+                "三数之和",
+                "<p>Given an integer array nums, return all the triplets that sum to zero.</p>",
+                "Medium",
+                "array",
+                "two-pointers"
+        ));
+    }
+
+    @Test
+    void tokenizeStripsHtmlAndSplitsIdeographs() {
+        List<String> terms = new ArrayList<>();
+
+        Tokenizer.index("<p>Two&nbsp;<code>nums</code>&lt;数组</p>", terms::add);
+
+        assertThat(terms).containsExactly("two", "nums", "数", "数组", "组");
+
+        terms.clear();
+        Tokenizer.query("数组 和", terms::add);
+
+        assertThat(terms).containsExactly("数组", "和");
+    }
+
+    @Test
+    void tokenizeKeepsComparisonsAsText() {
+        List<String> terms = new ArrayList<>();
+
+        Tokenizer.index("Loop while i<n and j>0, or $x<y$.\n<p class=\"a\">Done<!-- note --></p>", terms::add);
+
+        assertThat(terms).containsExactly("loop", "while", "i", "n", "and", "j", "0", "or", "x", "y", "done");
+    }
+
+    @Test
+    void searchRanksTitleMatchesFirst() {
+        assertThat(slugs(index.search("sum", null, null, 10))).containsExactly("two-sum", "three-sum");
+        assertThat(slugs(index.search("array", null, null, 10))).containsExactly("two-sum", "three-sum");
+        assertThat(slugs(index.search("Two Sum", null, null, 10))).containsExactly("two-sum", "three-sum");
+        assertThat(slugs(index.search("之和", null, null, 10))).containsExactly("two-sum", "three-sum");
+        assertThat(slugs(index.search("加", null, null, 10))).containsExactly("add-two-numbers");
+        assertThat(index.search("missing", null, null, 10).getTotal()).isZero();
+    }
+
+    @Test
+    void searchFiltersByDifficultyAndTags() {
+        assertThat(slugs(index.search("", "medium", null, 10))).containsExactly("add-two-numbers", "three-sum");
+        assertThat(slugs(index.search("two", null, List.of("Array"), 10))).containsExactly("two-sum", "three-sum");
+        assertThat(slugs(index.search("", "Medium", List.of("array", "two-pointers"), 10)))
+                .containsExactly("three-sum");
+
+        SearchResult limited = index.search("", null, null, 1);
+
+        assertThat(limited.getTotal()).isEqualTo(3);
+        assertThat(slugs(limited)).containsExactly("two-sum");
+    }
+
+    @Test
+    void addReplacesAndLoadSkipsIndexedQuestions() throws Exception {
+        index.add(question("two-sum", "Pair Sum", null, null, "Easy", "array"));
+
+        Question stored = question("two-sum", "Stale Title", null, null, "Easy");
+
+        Files.createDirectories(storagePath.resolve("result"));
+        Files.writeString(storagePath.resolve("result/two-sum.json"), new Gson().toJson(stored));
+        Files.writeString(
+                storagePath.resolve("result/four-sum.json"),
+                new Gson().toJson(question("four-sum", "4Sum", null, null, "Medium"))
+        );
+        index.load();
+
+        assertThat(slugs(index.search("pair", null, null, 10))).containsExactly("two-sum");
+        assertThat(index.search("stale", null, null, 10).getTotal()).isZero();
+        assertThat(index.search("two sum", null, null, 10).getTotal()).isEqualTo(1);
+        assertThat(slugs(index.search("4sum", null, null, 10))).containsExactly("four-sum");
+    }
+
+    @Test
+    void indexerDoesNothingWhileDisabled() {
+        long version = index.version();
+
+        properties.getSearch().setEnabled(false);
+
+        SearchIndex.Indexer indexer = index.indexer(question("four-sum", "4Sum", null, null, "Medium"));
+
+        indexer.solution(new Question.Solution());
+        indexer.commit();
+
+        assertThat(index.search("4sum", null, null, 10).getTotal()).isZero();
+        assertThat(index.version()).isEqualTo(version);
+    }
+
+    private static List<String> slugs(SearchResult result) {
+        return result.getHits().stream().map(SearchResult.Hit::getSlug).collect(Collectors.toList());
+    }
+
+    private static Question question(
+            String slug,
+            String title,
+            String translatedTitle,
+            String content,
+            String difficulty,
+            String... tags
+    ) {
+        Question question = new Question();
+
+        question.setTitleSlug(slug);
+        question.setTitle(title);
+        question.setTranslatedTitle(translatedTitle);
+        question.setContent(content);
+        question.setDifficulty(difficulty);
+        question.setTopicTags(new ArrayList<>());
+
+        for (String tag : tags) {
+            Question.TopicTag topicTag = new Question.TopicTag();
+
+            topicTag.setSlug(tag);
+            topicTag.setName(tag.replace('-', ' ').toUpperCase());
+            question.getTopicTags().add(topicTag);
+        }
+
+        return question;
+    }
+}